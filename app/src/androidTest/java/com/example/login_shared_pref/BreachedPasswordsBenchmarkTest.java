@@ -0,0 +1,88 @@
+package com.example.login_shared_pref;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.login_shared_pref.utils.BreachedPasswords;
+import com.example.login_shared_pref.utils.HashPrefixTable;
+import com.example.login_shared_pref.utils.HashPrefixTableBuilder;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Size and lookup latency of HashPrefixTable at 100k and 1M prefixes, held in a direct
+ * buffer like a mapped asset, and of a full check (SHA-1 included) against the bundled table
+ */
+@RunWith(AndroidJUnit4.class)
+public class BreachedPasswordsBenchmarkTest {
+
+    private static final String TAG = "BreachedPasswords";
+    private static final int[] TABLE_SIZES = {100_000, 1_000_000};
+    private static final int LOOKUPS = 100_000;
+
+    @Test
+    public void lookupLatency() throws Exception {
+        for (int size : TABLE_SIZES) {
+            Random random = new Random(size);
+            HashPrefixTableBuilder builder = new HashPrefixTableBuilder();
+            long[] samples = new long[LOOKUPS];
+            for (int i = 0; i < size; i++) {
+                long prefix = random.nextLong();
+                builder.addPrefix(prefix);
+                if (i < LOOKUPS) {
+                    samples[i] = prefix;
+                }
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            builder.writeTo(bytes);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.size());
+            buffer.put(bytes.toByteArray()).flip();
+            HashPrefixTable table = new HashPrefixTable(buffer);
+
+            long start = SystemClock.elapsedRealtimeNanos();
+            for (long prefix : samples) {
+                assertTrue(table.contains(prefix));
+            }
+            long hitNanos = SystemClock.elapsedRealtimeNanos() - start;
+
+            start = SystemClock.elapsedRealtimeNanos();
+            for (int i = 0; i < LOOKUPS; i++) {
+                table.contains(random.nextLong());
+            }
+            long missNanos = SystemClock.elapsedRealtimeNanos() - start;
+
+            Log.i(TAG, String.format("%d prefixes: %d B (%.2f B/prefix), hit %.0f ns, miss %.0f ns",
+                    size, bytes.size(), (double) bytes.size() / size,
+                    (double) hitNanos / LOOKUPS, (double) missNanos / LOOKUPS));
+        }
+    }
+
+    @Test
+    public void bundledCheckLatency() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        long start = SystemClock.elapsedRealtimeNanos();
+        BreachedPasswords breached = BreachedPasswords.getInstance(context);
+        long openNanos = SystemClock.elapsedRealtimeNanos() - start;
+        assertTrue(breached.isBreached("password"));
+
+        start = SystemClock.elapsedRealtimeNanos();
+        for (int i = 0; i < LOOKUPS; i++) {
+            breached.isBreached("candidate" + i);
+        }
+        long checkNanos = SystemClock.elapsedRealtimeNanos() - start;
+
+        Log.i(TAG, String.format("bundled %d prefixes: open %.2f ms, check %.0f ns",
+                breached.size(), openNanos / 1e6, (double) checkNanos / LOOKUPS));
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.login_shared_pref;
+
+import android.app.Activity;
+import android.app.Instrumentation;
+import android.content.Context;
+import android.content.Intent;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.login_shared_pref.activities.LauncherActivity;
+import com.example.login_shared_pref.activities.MainActivity;
+import com.example.login_shared_pref.activities.SplashActivity;
+import com.example.login_shared_pref.utils.SharedPrefsManager;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Startup benchmark for a remembered user: time from launching the entry activity
+ * until MainActivity is resumed and the main thread is idle after its first frame.
+ * SplashActivity is the entry point before the fast path, LauncherActivity after it.
+ */
+@RunWith(AndroidJUnit4.class)
+public class StartupBenchmarkTest {
+
+    private static final String TAG = "StartupBenchmark";
+    private static final int RUNS = 3;
+    private static final long TIMEOUT_MS = 10_000;
+
+    private Instrumentation instrumentation;
+    private Context context;
+
+    @Before
+    public void setUp() {
+        instrumentation = InstrumentationRegistry.getInstrumentation();
+        context = instrumentation.getTargetContext();
+        SharedPrefsManager.getInstance(context)
+                .createLoginSession("bench@example.com", "Bench User", "secret1", true);
+    }
+
+    @After
+    public void tearDown() {
+        SharedPrefsManager.getInstance(context).clearAllData();
+    }
+
+    @Test
+    public void fastPathLauncher_reachesDashboardSoonerThanSplash() {
+        long splashMs = medianTimeToDashboard(SplashActivity.class);
+        long launcherMs = medianTimeToDashboard(LauncherActivity.class);
+
+        long savedMs = splashMs - launcherMs;
+        Log.i(TAG, "Splash path (before): " + splashMs + " ms, launcher fast path (after): " + launcherMs
+                + " ms, saved " + savedMs + " ms (" + (splashMs > 0 ? savedMs * 100 / splashMs : 0) + "%)");
+        assertTrue("Fast path (" + launcherMs + " ms) should beat splash (" + splashMs + " ms)",
+                launcherMs < splashMs);
+    }
+
+    private long medianTimeToDashboard(Class<? extends Activity> entry) {
+        long[] samples = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            samples[i] = timeToDashboard(entry);
+        }
+        java.util.Arrays.sort(samples);
+        return samples[RUNS / 2];
+    }
+
+    private long timeToDashboard(Class<? extends Activity> entry) {
+        Instrumentation.ActivityMonitor monitor =
+                instrumentation.addMonitor(MainActivity.class.getName(), null, false);
+
+        Intent intent = new Intent(context, entry);
+        intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+
+        long start = SystemClock.elapsedRealtime();
+        context.startActivity(intent);
+        Activity dashboard = instrumentation.waitForMonitorWithTimeout(monitor, TIMEOUT_MS);
+        assertNotNull(entry.getSimpleName() + " never reached MainActivity", dashboard);
+        instrumentation.waitForIdleSync();
+        long elapsed = SystemClock.elapsedRealtime() - start;
+
+        instrumentation.removeMonitor(monitor);
+        instrumentation.runOnMainSync(dashboard::finish);
+        instrumentation.waitForIdleSync();
+        return elapsed;
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.login_shared_pref;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.login_shared_pref.utils.AtomicFileStore;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares the XML SharedPreferences engine with AtomicFileStore on a file shaped like
+ * LoginAppPrefs with USER_COUNT registered users: cold open plus first read, warm reads,
+ * and a burst of single-key apply() calls followed by a commit.
+ */
+@RunWith(AndroidJUnit4.class)
+public class StorageEngineBenchmarkTest {
+
+    private static final String TAG = "StorageEngineBenchmark";
+    private static final int USER_COUNT = 1_000;
+    private static final int RUNS = 5;
+    private static final String SEED_NAME = "bench_seed";
+
+    private Context context;
+    private File sharedPrefsDir;
+    private File storeDir;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        sharedPrefsDir = new File(context.getDataDir(), "shared_prefs");
+        storeDir = new File(context.getCacheDir(), "bench_store");
+        storeDir.mkdirs();
+    }
+
+    @After
+    public void tearDown() {
+        File[] xmlFiles = sharedPrefsDir.listFiles((dir, name) -> name.startsWith("bench_"));
+        if (xmlFiles != null) {
+            for (File file : xmlFiles) {
+                file.delete();
+            }
+        }
+        File[] binFiles = storeDir.listFiles();
+        if (binFiles != null) {
+            for (File file : binFiles) {
+                file.delete();
+            }
+        }
+    }
+
+    @Test
+    public void compareEngines() throws IOException {
+        SharedPreferences xmlSeed = context.getSharedPreferences(SEED_NAME, Context.MODE_PRIVATE);
+        AtomicFileStore binarySeed = new AtomicFileStore(new File(storeDir, SEED_NAME + ".bin"));
+        long xmlWrite = timeWrites(xmlSeed);
+        long binaryWrite = timeWrites(binarySeed);
+
+        long xmlRead = timeReads(xmlSeed);
+        long binaryRead = timeReads(binarySeed);
+
+        // Cold start: copy the seed to a fresh name so nothing is cached in memory
+        long[] xmlStartup = new long[RUNS];
+        long[] binaryStartup = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            String name = "bench_cold_" + i;
+            copy(new File(sharedPrefsDir, SEED_NAME + ".xml"), new File(sharedPrefsDir, name + ".xml"));
+            copy(new File(storeDir, SEED_NAME + ".bin"), new File(storeDir, name + ".bin"));
+
+            long start = SystemClock.elapsedRealtimeNanos();
+            SharedPreferences xml = context.getSharedPreferences(name, Context.MODE_PRIVATE);
+            assertEquals("User 0", xml.getString("user_user0@example.com_name", null));
+            xmlStartup[i] = SystemClock.elapsedRealtimeNanos() - start;
+
+            start = SystemClock.elapsedRealtimeNanos();
+            AtomicFileStore binary = new AtomicFileStore(new File(storeDir, name + ".bin"));
+            assertEquals("User 0", binary.getString("user_user0@example.com_name", null));
+            binaryStartup[i] = SystemClock.elapsedRealtimeNanos() - start;
+        }
+
+        Log.i(TAG, String.format("write %d users: xml %.1f ms, binary %.1f ms",
+                USER_COUNT, xmlWrite / 1e6, binaryWrite / 1e6));
+        Log.i(TAG, String.format("read %d keys: xml %.2f ms, binary %.2f ms",
+                USER_COUNT * 2, xmlRead / 1e6, binaryRead / 1e6));
+        Log.i(TAG, String.format("cold open + first read: xml %.2f ms, binary %.2f ms",
+                median(xmlStartup) / 1e6, median(binaryStartup) / 1e6));
+        Log.i(TAG, String.format("file size: xml %d bytes, binary %d bytes",
+                new File(sharedPrefsDir, SEED_NAME + ".xml").length(),
+                new File(storeDir, SEED_NAME + ".bin").length()));
+    }
+
+    /**
+     * One apply() per user, as registerUser does, then a commit to wait for the disk
+     */
+    private long timeWrites(SharedPreferences preferences) {
+        long start = SystemClock.elapsedRealtimeNanos();
+        for (int i = 0; i < USER_COUNT; i++) {
+            String prefix = "user_user" + i + "@example.com";
+            preferences.edit()
+                    .putString(prefix + "_name", "User " + i)
+                    .putString(prefix + "_password", "password" + i)
+                    .apply();
+        }
+        assertTrue(preferences.edit().putBoolean("isFirstTime", false).commit());
+        return SystemClock.elapsedRealtimeNanos() - start;
+    }
+
+    private long timeReads(SharedPreferences preferences) {
+        long start = SystemClock.elapsedRealtimeNanos();
+        for (int i = 0; i < USER_COUNT; i++) {
+            String prefix = "user_user" + i + "@example.com";
+            assertNotNull(preferences.getString(prefix + "_name", null));
+            assertNotNull(preferences.getString(prefix + "_password", null));
+        }
+        return SystemClock.elapsedRealtimeNanos() - start;
+    }
+
+    private static long median(long[] samples) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static void copy(File from, File to) throws IOException {
+        try (InputStream in = new FileInputStream(from); OutputStream out = new FileOutputStream(to)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+}
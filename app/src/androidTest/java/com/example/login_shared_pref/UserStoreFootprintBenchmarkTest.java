@@ -0,0 +1,116 @@
+package com.example.login_shared_pref;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.login_shared_pref.utils.CompactUserTable;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Disk size, retained heap and lookup time of a user shard at 1k/10k/100k accounts,
+ * as XML SharedPreferences and packed into a CompactUserTable. Heap is measured as the
+ * growth of the Java heap after GC while each structure is held.
+ */
+@RunWith(AndroidJUnit4.class)
+public class UserStoreFootprintBenchmarkTest {
+
+    private static final String TAG = "UserStoreFootprint";
+    private static final int[] ACCOUNT_COUNTS = {1_000, 10_000, 100_000};
+    private static final String PREFS_NAME = "bench_footprint";
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteSharedPreferences(PREFS_NAME);
+    }
+
+    @Test
+    public void compareLayouts() {
+        for (int accounts : ACCOUNT_COUNTS) {
+            context.deleteSharedPreferences(PREFS_NAME);
+            SharedPreferences.Editor editor = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit();
+            for (int i = 0; i < accounts; i++) {
+                String prefix = "user_user" + i + "@example.com";
+                editor.putString(prefix + "_name", "User " + i);
+                editor.putString(prefix + "_password", "password" + i);
+            }
+            assertTrue(editor.commit());
+            long diskBytes = new File(new File(context.getDataDir(), "shared_prefs"), PREFS_NAME + ".xml").length();
+            context.deleteSharedPreferences(PREFS_NAME);
+
+            // The prefs instance caches its own map, so rebuild an equivalent one to measure
+            long baseline = usedHeap();
+            Map<String, String> map = new HashMap<>();
+            for (int i = 0; i < accounts; i++) {
+                String prefix = "user_user" + i + "@example.com";
+                map.put(prefix + "_name", "User " + i);
+                map.put(prefix + "_password", "password" + i);
+            }
+            long mapHeap = usedHeap() - baseline;
+
+            long start = SystemClock.elapsedRealtimeNanos();
+            CompactUserTable table = CompactUserTable.fromShards(Collections.singletonList(map));
+            long buildNanos = SystemClock.elapsedRealtimeNanos() - start;
+            long mapLookupNanos = timeMapLookups(map, accounts);
+            long tableLookupNanos = timeTableLookups(table, accounts);
+
+            // Drop the map copy so only the table is left on top of the baseline
+            map = null;
+            long tableHeap = usedHeap() - baseline;
+            assertEquals(accounts, table.size());
+
+            Log.i(TAG, String.format("%d accounts: disk %d B, map heap %d B/account, table heap %d B/account "
+                            + "(%d B estimated), build %.1f ms, lookup map %.0f ns, table %.0f ns",
+                    accounts, diskBytes, mapHeap / accounts, tableHeap / accounts,
+                    table.memoryBytes() / accounts, buildNanos / 1e6,
+                    (double) mapLookupNanos / accounts, (double) tableLookupNanos / accounts));
+        }
+    }
+
+    private static long timeMapLookups(Map<String, String> map, int accounts) {
+        long start = SystemClock.elapsedRealtimeNanos();
+        for (int i = 0; i < accounts; i++) {
+            assertNotNull(map.get("user_user" + i + "@example.com_password"));
+        }
+        return SystemClock.elapsedRealtimeNanos() - start;
+    }
+
+    private static long timeTableLookups(CompactUserTable table, int accounts) {
+        long start = SystemClock.elapsedRealtimeNanos();
+        for (int i = 0; i < accounts; i++) {
+            assertNotNull(table.getPassword("user" + i + "@example.com"));
+        }
+        return SystemClock.elapsedRealtimeNanos() - start;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            runtime.gc();
+            runtime.runFinalization();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
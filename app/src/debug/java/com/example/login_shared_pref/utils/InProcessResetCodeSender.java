@@ -0,0 +1,31 @@
+package com.example.login_shared_pref.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ResetCodeSender that keeps the last code per email in memory instead of delivering it
+ *
+ * Stands in for a mail or SMS backend in debug builds only; release builds have no
+ * sender (see ResetCodeDelivery), so no code is ever kept where a user could read it.
+ */
+public class InProcessResetCodeSender implements PasswordResetManager.ResetCodeSender {
+
+    private final Map<String, String> lastCodes = new ConcurrentHashMap<>();
+
+    @Override
+    public void send(String email, String code) {
+        lastCodes.put(email, code);
+    }
+
+    /**
+     * Last code sent to the (normalized) email, or null
+     */
+    public String getLastCode(String email) {
+        return lastCodes.get(email);
+    }
+
+    public void clear() {
+        lastCodes.clear();
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.login_shared_pref.utils;
+
+/**
+ * Reset code delivery of debug builds: codes are kept in process and shown on screen
+ *
+ * The release source set has its own ResetCodeDelivery without a sender.
+ */
+public final class ResetCodeDelivery {
+
+    private ResetCodeDelivery() {
+    }
+
+    /**
+     * Sender PasswordResetManager starts with
+     */
+    static PasswordResetManager.ResetCodeSender createSender() {
+        return new InProcessResetCodeSender();
+    }
+
+    /**
+     * Last code the sender kept for the (normalized) email, or null
+     */
+    public static String peekLastCode(PasswordResetManager.ResetCodeSender sender, String email) {
+        return sender instanceof InProcessResetCodeSender
+                ? ((InProcessResetCodeSender) sender).getLastCode(email) : null;
+    }
+}
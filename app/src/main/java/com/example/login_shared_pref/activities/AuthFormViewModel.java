@@ -0,0 +1,160 @@
+package com.example.login_shared_pref.activities;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.SavedStateHandle;
+import androidx.lifecycle.ViewModel;
+
+import com.example.login_shared_pref.utils.CryptoExecutor;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Login / register form state that outlives a single activity instance
+ *
+ * An auth request runs on CryptoExecutor and its result is held back until both the
+ * screen's minimum delay has passed and the request has finished, then published
+ * through getStatus() to whichever activity instance is observing, so rotating
+ * mid-request neither loses the result nor delivers it to a destroyed screen. The main
+ * thread never waits for the request. The SavedStateHandle remembers that the form was already
+ * pre-filled from storage; a recreated or process-restored screen then relies on its
+ * views' saved state instead of reading SharedPreferences again. A request in flight
+ * when the process dies is lost, and the form comes back idle.
+ */
+public class AuthFormViewModel extends ViewModel {
+
+    public enum Status {
+        IDLE,
+        RUNNING,
+        SUCCEEDED,
+        // The check answered no: wrong credentials, or the email is taken
+        FAILED,
+        // No answer: the crypto pool was busy or the check threw; worth retrying
+        ERROR
+    }
+
+    private static final String KEY_FORM_PREFILLED = "formPrefilled";
+
+    private final SavedStateHandle savedState;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final MutableLiveData<Status> status = new MutableLiveData<>(Status.IDLE);
+    // State of the request in flight; main thread only
+    private CryptoExecutor.Task<Boolean> pendingCheck;
+    private Runnable pendingDelay;
+    private Runnable pendingAbandon;
+    private boolean delayElapsed;
+    // Recorded when the check completes; null until then
+    private Status pendingResult;
+
+    public AuthFormViewModel(SavedStateHandle savedState) {
+        this.savedState = savedState;
+    }
+
+    /**
+     * Whether the form was pre-filled from storage by an earlier instance of the screen
+     */
+    public boolean isFormPrefilled() {
+        return Boolean.TRUE.equals(savedState.get(KEY_FORM_PREFILLED));
+    }
+
+    public void setFormPrefilled() {
+        savedState.set(KEY_FORM_PREFILLED, true);
+    }
+
+    public LiveData<Status> getStatus() {
+        return status;
+    }
+
+    public boolean isRunning() {
+        return status.getValue() == Status.RUNNING;
+    }
+
+    /**
+     * Run check on the crypto pool and publish its result no sooner than delayMs from now
+     * The check does the whole request, including any session write, and must not capture
+     * the activity, which may be gone by the time it runs. If the screen goes away for good
+     * before the result is published, the check is cancelled and onAbandoned runs instead
+     * (on the main thread), so app-wide state such as AUTHENTICATING is not left behind.
+     *
+     * @return false if a request is already running; the new one is then dropped
+     */
+    public boolean submit(Callable<Boolean> check, long delayMs, Runnable onAbandoned) {
+        if (isRunning()) {
+            return false;
+        }
+        // A full pool hands back a task that has already failed, which publishes ERROR
+        CryptoExecutor.Task<Boolean> task = CryptoExecutor.getInstance().submitInteractive(check);
+        pendingCheck = task;
+        pendingAbandon = onAbandoned;
+        pendingResult = null;
+        delayElapsed = false;
+        pendingDelay = () -> {
+            delayElapsed = true;
+            publishIfReady(task);
+        };
+        status.setValue(Status.RUNNING);
+        mainHandler.postDelayed(pendingDelay, delayMs);
+        task.whenDone(mainHandler::post, () -> {
+            if (pendingCheck == task) {
+                // Done by now, so this does not block
+                pendingResult = resultOf(task);
+                publishIfReady(task);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Publish the task's result once both the delay and the check are over
+     */
+    private void publishIfReady(CryptoExecutor.Task<Boolean> task) {
+        if (pendingCheck != task || !delayElapsed || pendingResult == null) {
+            return;
+        }
+        Status result = pendingResult;
+        pendingCheck = null;
+        pendingDelay = null;
+        pendingAbandon = null;
+        pendingResult = null;
+        status.setValue(result);
+    }
+
+    /**
+     * Outcome of a finished check; a rejected, failed or cancelled one is an ERROR
+     */
+    private static Status resultOf(CryptoExecutor.Task<Boolean> task) {
+        Boolean answer = task.await(null);
+        if (answer == null) {
+            return Status.ERROR;
+        }
+        return answer ? Status.SUCCEEDED : Status.FAILED;
+    }
+
+    /**
+     * Mark a published result as handled, so a recreated screen does not act on it again
+     */
+    public void acknowledge() {
+        Status current = status.getValue();
+        if (current == Status.SUCCEEDED || current == Status.FAILED || current == Status.ERROR) {
+            status.setValue(Status.IDLE);
+        }
+    }
+
+    @Override
+    protected void onCleared() {
+        if (pendingDelay != null) {
+            mainHandler.removeCallbacks(pendingDelay);
+        }
+        if (pendingCheck != null) {
+            CryptoExecutor.Task<Boolean> task = pendingCheck;
+            Runnable onAbandoned = pendingAbandon;
+            pendingCheck = null;
+            pendingAbandon = null;
+            task.cancel(true);
+            onAbandoned.run();
+        }
+    }
+}
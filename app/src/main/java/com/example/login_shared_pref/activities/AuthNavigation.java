@@ -0,0 +1,40 @@
+package com.example.login_shared_pref.activities;
+
+import android.app.Activity;
+import android.content.Intent;
+
+import com.example.login_shared_pref.R;
+
+/**
+ * Screen changes that follow an auth transition
+ * The target replaces the whole task, so Back cannot return to the other side of a login.
+ */
+final class AuthNavigation {
+
+    private AuthNavigation() {
+    }
+
+    /**
+     * Open the dashboard after LOGGED_IN
+     */
+    static void openDashboard(Activity from) {
+        replaceTask(from, MainActivity.class);
+    }
+
+    /**
+     * Open the login screen after LOGGED_OUT or EXPIRED
+     */
+    static void openLogin(Activity from) {
+        replaceTask(from, LoginActivity.class);
+    }
+
+    private static void replaceTask(Activity from, Class<? extends Activity> target) {
+        Intent intent = new Intent(from, target);
+        intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+        from.startActivity(intent);
+        from.finish();
+
+        // Add transition animation
+        from.overridePendingTransition(R.anim.fade_in, R.anim.fade_out);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.login_shared_pref.activities;
+
+import android.app.Activity;
+import android.content.Intent;
+import android.os.Bundle;
+
+import com.example.login_shared_pref.utils.SessionStore;
+
+/**
+ * Launcher Activity - App entry point with no UI of its own
+ * Resolves the session from the small session file, off the main thread, and routes a
+ * remembered user straight to the dashboard, skipping the splash layout, animations and delay.
+ * Everyone else continues to SplashActivity as before.
+ */
+public class LauncherActivity extends Activity {
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        // No setContentView: the window background is the first frame, and the session
+        // file is opened and read off this thread before the route is picked
+        SessionStore.resolveAsync(this, this::route);
+    }
+
+    /**
+     * Open the next screen once the session is known
+     */
+    private void route(boolean maintainSession) {
+        if (isFinishing() || isDestroyed()) {
+            return;
+        }
+        Intent intent;
+        if (maintainSession) {
+            intent = new Intent(this, MainActivity.class);
+        } else {
+            intent = new Intent(this, SplashActivity.class);
+        }
+
+        startActivity(intent);
+        finish();
+        overridePendingTransition(0, 0);
+    }
+}
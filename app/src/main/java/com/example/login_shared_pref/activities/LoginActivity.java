@@ -1,21 +1,37 @@
 package com.example.login_shared_pref.activities;
 
+import android.content.Context;
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.View;
+import android.widget.Button;
 import android.widget.TextView;
 
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.example.login_shared_pref.R;
+import com.example.login_shared_pref.utils.AnimationManager;
+import com.example.login_shared_pref.utils.AuthStateMachine;
+import com.example.login_shared_pref.utils.BreachedPasswords;
+import com.example.login_shared_pref.utils.CryptoExecutor;
+import com.example.login_shared_pref.utils.PasswordResetManager;
+import com.example.login_shared_pref.utils.ResetCodeDelivery;
 import com.example.login_shared_pref.utils.SharedPrefsManager;
 import com.example.login_shared_pref.utils.ValidationUtils;
+import com.example.login_shared_pref.utils.ViewPrewarmer;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.checkbox.MaterialCheckBox;
 import com.google.android.material.snackbar.Snackbar;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textfield.TextInputLayout;
 
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
 /**
  * Login Activity - User authentication screen
  * Handles user login with validation and session management
@@ -31,21 +47,49 @@ public class LoginActivity extends AppCompatActivity {
 
     // Utils
     private SharedPrefsManager sharedPrefsManager;
+    private ViewPrewarmer viewPrewarmer;
+    private AuthFormViewModel formState;
+    private AnimationManager animationManager;
+    private AuthStateMachine authState;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        setContentView(R.layout.activity_login);
+
+        // Use the hierarchy inflated in the background by the previous screen, if ready
+        viewPrewarmer = ViewPrewarmer.getInstance(this);
+        View prewarmed = viewPrewarmer.take(this, R.layout.activity_login);
+        if (prewarmed != null) {
+            setContentView(prewarmed);
+        } else {
+            setContentView(R.layout.activity_login);
+        }
 
         initializeViews();
         initializeUtils();
         setupClickListeners();
-        loadSavedCredentials();
+
+        // Only the first instance reads storage; recreated ones restore their views
+        if (!formState.isFormPrefilled()) {
+            authState.loadSavedCredentialsAsync(this::fillSavedCredentials);
+        }
+        formState.getStatus().observe(this, this::renderStatus);
+
+        // Say why the dashboard sent us here
+        if (savedInstanceState == null && authState.getState() == AuthStateMachine.State.EXPIRED) {
+            showSnackbar(getString(R.string.error_session_expired), true);
+        }
 
         // Add entrance animation
-        findViewById(R.id.card_login_form).startAnimation(
-                android.view.animation.AnimationUtils.loadAnimation(this, R.anim.slide_in_up)
-        );
+        animationManager.playEntrance(R.anim.slide_in_up, findViewById(R.id.card_login_form));
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // Register is the likely next screen; inflate it while this one is idle
+        viewPrewarmer.prewarmWhenIdle(R.layout.activity_register);
     }
 
     /**
@@ -67,6 +111,9 @@ public class LoginActivity extends AppCompatActivity {
      */
     private void initializeUtils() {
         sharedPrefsManager = SharedPrefsManager.getInstance(this);
+        formState = new ViewModelProvider(this).get(AuthFormViewModel.class);
+        animationManager = AnimationManager.getInstance(this);
+        authState = AuthStateMachine.getInstance(this);
     }
 
     /**
@@ -76,6 +123,10 @@ public class LoginActivity extends AppCompatActivity {
         btnLogin.setOnClickListener(v -> attemptLogin());
         tvRegisterLink.setOnClickListener(v -> navigateToRegister());
         tvForgotPassword.setOnClickListener(v -> handleForgotPassword());
+        // Release builds have no way to deliver a reset code
+        if (!PasswordResetManager.getInstance(this).canSendCodes()) {
+            tvForgotPassword.setVisibility(View.GONE);
+        }
 
         // Real-time validation
         etEmail.setOnFocusChangeListener((v, hasFocus) -> {
@@ -88,29 +139,27 @@ public class LoginActivity extends AppCompatActivity {
     }
 
     /**
-     * Load saved credentials if "Remember Me" was previously enabled
+     * Fill in the credentials saved with "Remember Me", once they are read off the main thread
+     * Fields the user has already typed into are left alone.
      */
-    private void loadSavedCredentials() {
-        if (sharedPrefsManager.isRememberMeEnabled()) {
-            String savedEmail = sharedPrefsManager.getUserEmail();
+    private void fillSavedCredentials(String savedEmail, String savedPassword) {
+        if (isFinishing() || isDestroyed()) {
+            return;
+        }
+        formState.setFormPrefilled();
 
-            // Always fill email if Remember Me was enabled
-            if (!savedEmail.isEmpty()) {
-                etEmail.setText(savedEmail);
-                cbRememberMe.setChecked(true);
+        // Email is only saved with Remember Me
+        if (!savedEmail.isEmpty() && etEmail.getText().length() == 0) {
+            etEmail.setText(savedEmail);
+            cbRememberMe.setChecked(true);
 
-                // Focus on password field since email is pre-filled
-                etPassword.requestFocus();
-            }
+            // Focus on password field since email is pre-filled
+            etPassword.requestFocus();
+        }
 
-            // Only fill password if user is currently logged in (for auto-login scenario)
-            // Don't fill password after manual logout for security
-            if (sharedPrefsManager.isLoggedIn()) {
-                String savedPassword = sharedPrefsManager.getSavedPassword();
-                if (!savedPassword.isEmpty()) {
-                    etPassword.setText(savedPassword);
-                }
-            }
+        // Password only comes back while still logged in (auto-login), never after a manual logout
+        if (!savedPassword.isEmpty() && etPassword.getText().length() == 0) {
+            etPassword.setText(savedPassword);
         }
     }
 
@@ -134,62 +183,83 @@ public class LoginActivity extends AppCompatActivity {
             return;
         }
 
-        // Show loading state
-        setLoadingState(true);
-
-        // Simulate network delay for better UX
-        btnLogin.postDelayed(() -> {
-            if (authenticateUser(email, password, rememberMe)) {
-                handleLoginSuccess(email, password, rememberMe);
-            } else {
-                handleLoginFailure();
+        // Check the credentials and write the session on the crypto pool; the result
+        // arrives through renderStatus after the simulated network delay, even if the
+        // screen is recreated
+        SharedPrefsManager prefsManager = sharedPrefsManager;
+        AuthStateMachine auth = authState;
+        boolean submitted = formState.submit(() -> {
+            if (!prefsManager.validateUser(email, password)) {
+                return false;
             }
-            setLoadingState(false);
-        }, 1000);
+            auth.loggedIn(email, prefsManager.getUserNameByEmail(email), password, rememberMe);
+            return true;
+        }, 1000, auth::authenticationAbandoned);
+        if (!submitted) {
+            // The request already in flight answers this tap too
+            return;
+        }
+        authState.beginAuthentication();
     }
 
     /**
-     * Authenticate user credentials
+     * Reflect the form's request state; results are handled once, by the current instance
      */
-    private boolean authenticateUser(String email, String password, boolean rememberMe) {
-        return sharedPrefsManager.validateUser(email, password);
+    private void renderStatus(AuthFormViewModel.Status status) {
+        switch (status) {
+            case RUNNING:
+                setLoadingState(true);
+                break;
+            case SUCCEEDED:
+                formState.acknowledge();
+                setLoadingState(false);
+                handleLoginSuccess();
+                break;
+            case FAILED:
+                formState.acknowledge();
+                setLoadingState(false);
+                handleLoginFailure();
+                break;
+            case ERROR:
+                formState.acknowledge();
+                setLoadingState(false);
+                handleAuthError();
+                break;
+            default:
+                break;
+        }
     }
 
     /**
-     * Handle successful login
+     * Handle successful login; the session was already written by the submitted check
      */
-    private void handleLoginSuccess(String email, String password, boolean rememberMe) {
-        // Get user's name
-        String userName = sharedPrefsManager.getUserNameByEmail(email);
-
-        // Create login session
-        sharedPrefsManager.createLoginSession(email, userName, password, rememberMe);
-
+    private void handleLoginSuccess() {
         // Show success message
         showSnackbar(getString(R.string.success_login), false);
 
         // Navigate to main activity
-        Intent intent = new Intent(LoginActivity.this, MainActivity.class);
-        intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
-        startActivity(intent);
-        finish();
-
-        // Add transition animation
-        overridePendingTransition(R.anim.fade_in, R.anim.fade_out);
+        AuthNavigation.openDashboard(this);
     }
 
     /**
      * Handle login failure
      */
     private void handleLoginFailure() {
+        authState.authenticationFailed();
         tilEmail.setError(getString(R.string.error_invalid_credentials));
         tilPassword.setError(" "); // Space to show error state
         showSnackbar(getString(R.string.error_invalid_credentials), true);
 
         // Shake animation for login button
-        btnLogin.startAnimation(
-                android.view.animation.AnimationUtils.loadAnimation(this, R.anim.shake)
-        );
+        animationManager.playDecorative(R.anim.shake, btnLogin);
+    }
+
+    /**
+     * Handle a request that got no answer (busy pool or storage error); the form stays as typed
+     */
+    private void handleAuthError() {
+        authState.authenticationFailed();
+        showSnackbar(getString(R.string.error_auth_unavailable), true);
     }
 
     /**
@@ -259,8 +329,123 @@ public class LoginActivity extends AppCompatActivity {
      * Handle forgot password click
      */
     private void handleForgotPassword() {
-        showSnackbar("Forgot password feature coming soon!", false);
-        // TODO: Implement forgot password functionality
+        View dialogView = getLayoutInflater().inflate(R.layout.dialog_forgot_password, null);
+        TextInputLayout tilResetEmail = dialogView.findViewById(R.id.til_reset_email);
+        TextInputLayout tilResetCode = dialogView.findViewById(R.id.til_reset_code);
+        TextInputLayout tilNewPassword = dialogView.findViewById(R.id.til_reset_new_password);
+        TextInputEditText etResetEmail = dialogView.findViewById(R.id.et_reset_email);
+        TextInputEditText etResetCode = dialogView.findViewById(R.id.et_reset_code);
+        TextInputEditText etNewPassword = dialogView.findViewById(R.id.et_reset_new_password);
+        etResetEmail.setText(etEmail.getText());
+
+        PasswordResetManager resetManager = PasswordResetManager.getInstance(this);
+        AlertDialog dialog = new AlertDialog.Builder(this)
+                .setTitle(getString(R.string.reset_password_title))
+                .setView(dialogView)
+                .setPositiveButton(getString(R.string.btn_send_code), null)
+                .setNegativeButton(getString(R.string.btn_cancel), null)
+                .create();
+
+        // Two steps in one dialog: send a code, then redeem it with the new password. Both
+        // read and write storage and the redeem step hashes the code, so they run on the crypto pool
+        dialog.setOnShowListener(d -> dialog.getButton(AlertDialog.BUTTON_POSITIVE).setOnClickListener(v -> {
+            String email = etResetEmail.getText().toString().trim();
+            if (tilResetCode.getVisibility() != View.VISIBLE) {
+                String error = ValidationUtils.getEmailError(email);
+                tilResetEmail.setError(error);
+                if (error != null) {
+                    return;
+                }
+                runDialogStep(dialog, () -> resetManager.requestReset(email), retryAfterMs -> {
+                    if (showResetCodeResult(resetManager, email, retryAfterMs, tilResetEmail)) {
+                        etResetEmail.setEnabled(false);
+                        tilResetCode.setVisibility(View.VISIBLE);
+                        tilNewPassword.setVisibility(View.VISIBLE);
+                        dialog.getButton(AlertDialog.BUTTON_POSITIVE).setText(getString(R.string.btn_reset_password));
+                    }
+                });
+                return;
+            }
+
+            String newPassword = etNewPassword.getText().toString();
+            String passwordError = ValidationUtils.getPasswordError(newPassword);
+            tilNewPassword.setError(passwordError);
+            tilResetCode.setError(null);
+            if (passwordError != null) {
+                return;
+            }
+
+            // Screen the password first, so a breached one does not use up an attempt
+            Context appContext = getApplicationContext();
+            String code = etResetCode.getText().toString();
+            runDialogStep(dialog, () -> BreachedPasswords.getInstance(appContext).isBreached(newPassword), breached -> {
+                if (breached) {
+                    tilNewPassword.setError(getString(R.string.error_breached_password));
+                    return;
+                }
+                runDialogStep(dialog, () -> resetManager.resetPassword(email, code, newPassword), result -> {
+                    switch (result) {
+                        case SUCCESS:
+                            dialog.dismiss();
+                            etEmail.setText(email);
+                            etPassword.setText("");
+                            showSnackbar(getString(R.string.success_password_reset), false);
+                            break;
+                        case EXPIRED:
+                            tilResetCode.setError(getString(R.string.error_expired_reset_code));
+                            break;
+                        case TOO_MANY_ATTEMPTS:
+                            tilResetCode.setError(getString(R.string.error_reset_attempts));
+                            break;
+                        default:
+                            tilResetCode.setError(getString(R.string.error_invalid_reset_code));
+                            break;
+                    }
+                });
+            });
+        }));
+        dialog.show();
+    }
+
+    /**
+     * Run a dialog step on the crypto pool with the dialog's confirm button disabled
+     * onResult runs on this thread if the dialog is still up; a step that failed or found
+     * the pool busy shows a retry message instead.
+     */
+    private <T> void runDialogStep(AlertDialog dialog, Callable<T> step, Consumer<T> onResult) {
+        Button confirm = dialog.getButton(AlertDialog.BUTTON_POSITIVE);
+        confirm.setEnabled(false);
+        CryptoExecutor.Task<T> task = CryptoExecutor.getInstance().submitInteractive(step);
+        task.whenDone(mainHandler::post, () -> {
+            if (isDestroyed() || !dialog.isShowing()) {
+                return;
+            }
+            confirm.setEnabled(true);
+            T result = task.await(null);
+            if (result == null) {
+                showSnackbar(getString(R.string.error_auth_unavailable), true);
+                return;
+            }
+            onResult.accept(result);
+        });
+    }
+
+    /**
+     * Report a code request; false (with the error shown) if the email is throttled
+     */
+    private boolean showResetCodeResult(PasswordResetManager resetManager, String email, long retryAfterMs,
+                                        TextInputLayout tilResetEmail) {
+        if (retryAfterMs > 0) {
+            tilResetEmail.setError(getString(R.string.error_reset_throttled, (int) ((retryAfterMs + 999) / 1000)));
+            return false;
+        }
+
+        // There is no mail backend, so debug builds show the code the stand-in sender kept
+        String code = ResetCodeDelivery.peekLastCode(resetManager.getSender(),
+                SharedPrefsManager.normalizeEmail(email));
+        showSnackbar(code != null ? getString(R.string.reset_code_debug, code)
+                : getString(R.string.reset_code_sent), false);
+        return true;
     }
 
     /**
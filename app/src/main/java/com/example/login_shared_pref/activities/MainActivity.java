@@ -2,38 +2,53 @@ package com.example.login_shared_pref.activities;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.Looper;
+import android.view.View;
+import android.view.ViewStub;
 import android.widget.ImageButton;
+import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
-import androidx.cardview.widget.CardView;
+import androidx.constraintlayout.widget.Group;
 
 import com.example.login_shared_pref.R;
+import com.example.login_shared_pref.models.DashboardViewState;
 import com.example.login_shared_pref.models.User;
-import com.example.login_shared_pref.utils.SharedPrefsManager;
+import com.example.login_shared_pref.utils.AnimationManager;
+import com.example.login_shared_pref.utils.AuthStateMachine;
+import com.example.login_shared_pref.utils.AvatarRenderer;
+import com.example.login_shared_pref.utils.DashboardStateCache;
+import com.example.login_shared_pref.utils.MaintenanceWorker;
+import com.example.login_shared_pref.utils.UserPreferencesModel;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.snackbar.Snackbar;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.Locale;
-
 /**
  * Main Activity - Dashboard after successful login
  * Shows user information and app navigation
  */
-public class MainActivity extends AppCompatActivity {
+public class MainActivity extends AppCompatActivity
+        implements UserPreferencesModel.Listener, AuthStateMachine.Listener {
 
     // UI Components
     private MaterialToolbar toolbar;
-    private TextView tvUserInitials, tvWelcomeMessage, tvLastLogin;
+    private ImageView ivUserAvatar;
+    private TextView tvWelcomeMessage, tvLastLogin;
     private ImageButton btnLogout;
-    private CardView cardProfile, cardSettings;
+    private View cardProfile, cardSettings;
+    private Group groupWelcome;
+    private ViewStub stubAppInfo;
 
     // Utils
-    private SharedPrefsManager sharedPrefsManager;
+    private UserPreferencesModel preferencesModel;
+    private AvatarRenderer avatarRenderer;
+    private DashboardStateCache stateCache;
+    private AnimationManager animationManager;
+    private AuthStateMachine authState;
     private User currentUser;
+    private DashboardViewState viewState;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -47,15 +62,25 @@ public class MainActivity extends AppCompatActivity {
         displayUserInfo();
 
         // Check if user is actually logged in
-        if (!sharedPrefsManager.isLoggedIn()) {
+        if (!authState.isLoggedIn()) {
             redirectToLogin();
             return;
         }
 
-        // Add entrance animation
-        findViewById(R.id.card_welcome).startAnimation(
-                android.view.animation.AnimationUtils.loadAnimation(this, R.anim.slide_in_up)
-        );
+        // Add entrance animation to every view of the flattened welcome card
+        int[] welcomeIds = groupWelcome.getReferencedIds();
+        View[] welcomeViews = new View[welcomeIds.length];
+        for (int i = 0; i < welcomeIds.length; i++) {
+            welcomeViews[i] = findViewById(welcomeIds[i]);
+        }
+        animationManager.playEntrance(R.anim.slide_in_up, welcomeViews);
+
+        // App info is below the fold, so inflate it once the first frame is out
+        Looper.myQueue().addIdleHandler(() -> {
+            inflateAppInfo();
+            MaintenanceWorker.schedule(getApplicationContext());
+            return false;
+        });
     }
 
     /**
@@ -63,29 +88,62 @@ public class MainActivity extends AppCompatActivity {
      */
     private void initializeViews() {
         toolbar = findViewById(R.id.toolbar);
-        tvUserInitials = findViewById(R.id.tv_user_initials);
+        ivUserAvatar = findViewById(R.id.iv_user_avatar);
         tvWelcomeMessage = findViewById(R.id.tv_welcome_message);
-        tvLastLogin = findViewById(R.id.tv_last_login);
         btnLogout = findViewById(R.id.btn_logout);
         cardProfile = findViewById(R.id.card_profile);
         cardSettings = findViewById(R.id.card_settings);
+        groupWelcome = findViewById(R.id.group_welcome);
+        stubAppInfo = findViewById(R.id.stub_app_info);
     }
 
     /**
      * Initialize utility classes
      */
     private void initializeUtils() {
-        sharedPrefsManager = SharedPrefsManager.getInstance(this);
+        preferencesModel = UserPreferencesModel.getInstance(this);
+        avatarRenderer = AvatarRenderer.getInstance(this);
+        stateCache = DashboardStateCache.getInstance();
+        animationManager = AnimationManager.getInstance(this);
+        authState = AuthStateMachine.getInstance(this);
+
+        // Leave as soon as the session ends, from this screen or anywhere else
+        authState.addListener(this);
+
+        // A new session may have been created since the model was last loaded; render what
+        // the model holds now and again once it has been reloaded off the main thread
+        preferencesModel.addListener(this);
+        preferencesModel.reloadAsync(this::onPreferencesReloaded);
     }
 
     /**
      * Load current user data
      */
     private void loadUserData() {
-        String email = sharedPrefsManager.getUserEmail();
-        String name = sharedPrefsManager.getUserName();
+        String email = preferencesModel.getEmail();
+        String name = preferencesModel.getName();
 
         currentUser = new User(name, email);
+        viewState = latestViewState();
+    }
+
+    /**
+     * The model caught up with storage; redraw if that changed anything
+     */
+    private void onPreferencesReloaded() {
+        if (isFinishing() || isDestroyed()) {
+            return;
+        }
+        loadUserData();
+        displayUserInfo();
+    }
+
+    /**
+     * Cached view state for the current inputs; the same instance while nothing changed
+     */
+    private DashboardViewState latestViewState() {
+        return stateCache.get(currentUser.getEmail(), currentUser.getName(),
+                preferencesModel.getLastLoginTime());
     }
 
     /**
@@ -108,17 +166,61 @@ public class MainActivity extends AppCompatActivity {
      */
     private void displayUserInfo() {
         if (currentUser != null) {
-            // Set user initials
-            tvUserInitials.setText(currentUser.getInitials());
+            displayUserName();
+            displayLastLogin();
+        }
+    }
+
+    /**
+     * Inflate the deferred app info card and bind its data
+     */
+    private void inflateAppInfo() {
+        if (isFinishing() || tvLastLogin != null) {
+            return;
+        }
+        stubAppInfo.inflate();
+        tvLastLogin = findViewById(R.id.tv_last_login);
+        displayLastLogin();
+    }
+
+    /**
+     * Set last login time (no-op until the app info card is inflated)
+     */
+    private void displayLastLogin() {
+        if (tvLastLogin == null || viewState == null) {
+            return;
+        }
+        String lastLogin = viewState.getLastLoginText();
+        tvLastLogin.setText(lastLogin != null ? lastLogin : getString(R.string.last_login_unknown));
+    }
+
+    /**
+     * Bind only the views that depend on the user's name
+     */
+    private void displayUserName() {
+        // Set user avatar (cached bitmap, or placeholder until rendered)
+        avatarRenderer.bind(ivUserAvatar, viewState.getEmail(), viewState.getInitials(),
+                getResources().getDimensionPixelSize(R.dimen.avatar_size));
+
+        // Set welcome message with first name
+        String welcomeMessage = getString(R.string.welcome_message, viewState.getFirstName());
+        tvWelcomeMessage.setText(welcomeMessage);
+    }
 
-            // Set welcome message with first name
-            String welcomeMessage = getString(R.string.welcome_message, currentUser.getFirstName());
-            tvWelcomeMessage.setText(welcomeMessage);
+    @Override
+    public void onPreferenceChanged(UserPreferencesModel model, String key) {
+        if (UserPreferencesModel.KEY_NAME.equals(key) && currentUser != null) {
+            currentUser.setName(model.getName());
+            viewState = latestViewState();
+            displayUserName();
+        }
+    }
 
-            // Set last login time
-            String currentTime = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault())
-                    .format(new Date());
-            tvLastLogin.setText(currentTime);
+    @Override
+    public void onAuthStateChanged(AuthStateMachine machine, AuthStateMachine.State state) {
+        if ((state == AuthStateMachine.State.LOGGED_OUT || state == AuthStateMachine.State.EXPIRED)
+                && !isFinishing()) {
+            redirectToLogin();
         }
     }
 
@@ -139,47 +241,40 @@ public class MainActivity extends AppCompatActivity {
      * Perform user logout
      */
     private void performLogout() {
-        // Clear user session
-        sharedPrefsManager.logout();
+        avatarRenderer.clearMemoryCache();
+        stateCache.clear();
 
         // Show logout message
         showSnackbar(getString(R.string.success_logout), false);
 
-        // Redirect to login
-        redirectToLogin();
+        // Clear the session behind any pending profile edits, on the model's writer so the
+        // batch cannot land after it; onAuthStateChanged redirects to login
+        preferencesModel.flushThen(authState::logout);
     }
 
     /**
      * Redirect to login activity
      */
     private void redirectToLogin() {
-        Intent intent = new Intent(MainActivity.this, LoginActivity.class);
-        intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
-        startActivity(intent);
-        finish();
-
-        // Add transition animation
-        overridePendingTransition(R.anim.fade_in, R.anim.fade_out);
+        AuthNavigation.openLogin(this);
     }
 
     /**
      * Handle profile card click
      */
     private void handleProfileClick() {
-        showSnackbar("Profile feature coming soon!", false);
-        // TODO: Navigate to profile activity
-        // Intent intent = new Intent(MainActivity.this, ProfileActivity.class);
-        // startActivity(intent);
+        Intent intent = new Intent(MainActivity.this, ProfileActivity.class);
+        startActivity(intent);
+        overridePendingTransition(R.anim.slide_in_right, R.anim.slide_out_left);
     }
 
     /**
      * Handle settings card click
      */
     private void handleSettingsClick() {
-        showSnackbar("Settings feature coming soon!", false);
-        // TODO: Navigate to settings activity
-        // Intent intent = new Intent(MainActivity.this, SettingsActivity.class);
-        // startActivity(intent);
+        Intent intent = new Intent(MainActivity.this, SettingsActivity.class);
+        startActivity(intent);
+        overridePendingTransition(R.anim.slide_in_right, R.anim.slide_out_left);
     }
 
     /**
@@ -203,10 +298,9 @@ public class MainActivity extends AppCompatActivity {
      */
     public void updateUserProfile(String newName) {
         if (currentUser != null) {
-            currentUser.setName(newName);
-            sharedPrefsManager.updateUserProfile(newName);
-            displayUserInfo();
-            showSnackbar("Profile updated successfully!", false);
+            // The model notifies onPreferenceChanged and writes in the background
+            preferencesModel.setName(newName);
+            showSnackbar(getString(R.string.success_profile_updated), false);
         }
     }
 
@@ -232,13 +326,18 @@ public class MainActivity extends AppCompatActivity {
     protected void onResume() {
         super.onResume();
 
-        // Refresh user data in case it was updated elsewhere
-        loadUserData();
-        displayUserInfo();
-
-        // Check if user is still logged in
-        if (!sharedPrefsManager.isLoggedIn()) {
+        // Catch a session that ended while this screen could not navigate (in memory, no read)
+        if (!authState.isLoggedIn()) {
             redirectToLogin();
+            return;
+        }
+        authState.onUserActive();
+
+        // Profile edits arrive through onPreferenceChanged; only a new login changes the rest
+        DashboardViewState latest = latestViewState();
+        if (latest != viewState) {
+            viewState = latest;
+            displayUserInfo();
         }
     }
 
@@ -246,5 +345,13 @@ public class MainActivity extends AppCompatActivity {
     protected void onPause() {
         super.onPause();
         // Save any pending data or state
+        preferencesModel.flush();
+    }
+
+    @Override
+    protected void onDestroy() {
+        preferencesModel.removeListener(this);
+        authState.removeListener(this);
+        super.onDestroy();
     }
 }
\ No newline at end of file
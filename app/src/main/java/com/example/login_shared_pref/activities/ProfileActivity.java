@@ -0,0 +1,136 @@
+package com.example.login_shared_pref.activities;
+
+import android.os.Bundle;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.example.login_shared_pref.R;
+import com.example.login_shared_pref.models.User;
+import com.example.login_shared_pref.utils.AvatarRenderer;
+import com.example.login_shared_pref.utils.UserPreferencesModel;
+import com.example.login_shared_pref.utils.ValidationUtils;
+import com.google.android.material.appbar.MaterialToolbar;
+import com.google.android.material.button.MaterialButton;
+import com.google.android.material.snackbar.Snackbar;
+import com.google.android.material.textfield.TextInputEditText;
+import com.google.android.material.textfield.TextInputLayout;
+
+/**
+ * Profile Activity - View and edit the signed-in user's profile
+ * Edits go through UserPreferencesModel so the dashboard updates without reloading
+ */
+public class ProfileActivity extends AppCompatActivity implements UserPreferencesModel.Listener {
+
+    // UI Components
+    private MaterialToolbar toolbar;
+    private ImageView ivProfileAvatar;
+    private TextView tvProfileEmail;
+    private TextInputLayout tilFullName;
+    private TextInputEditText etFullName;
+    private MaterialButton btnSaveProfile;
+
+    // Utils
+    private UserPreferencesModel preferencesModel;
+    private AvatarRenderer avatarRenderer;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_profile);
+
+        initializeViews();
+        initializeUtils();
+        setupClickListeners();
+        displayProfile();
+
+        if (savedInstanceState == null) {
+            etFullName.setText(preferencesModel.getName());
+        }
+    }
+
+    /**
+     * Initialize all UI components
+     */
+    private void initializeViews() {
+        toolbar = findViewById(R.id.toolbar);
+        ivProfileAvatar = findViewById(R.id.iv_profile_avatar);
+        tvProfileEmail = findViewById(R.id.tv_profile_email);
+        tilFullName = findViewById(R.id.til_full_name);
+        etFullName = findViewById(R.id.et_full_name);
+        btnSaveProfile = findViewById(R.id.btn_save_profile);
+    }
+
+    /**
+     * Initialize utility classes
+     */
+    private void initializeUtils() {
+        preferencesModel = UserPreferencesModel.getInstance(this);
+        preferencesModel.addListener(this);
+        avatarRenderer = AvatarRenderer.getInstance(this);
+    }
+
+    /**
+     * Setup click listeners for all interactive elements
+     */
+    private void setupClickListeners() {
+        toolbar.setNavigationOnClickListener(v -> onBackPressed());
+        btnSaveProfile.setOnClickListener(v -> saveProfile());
+    }
+
+    /**
+     * Bind the current model values to the existing views
+     */
+    private void displayProfile() {
+        User user = new User(preferencesModel.getName(), preferencesModel.getEmail());
+        bindAvatar(user);
+        tvProfileEmail.setText(user.getEmail());
+    }
+
+    /**
+     * Show the cached avatar, rendering it in the background if needed
+     */
+    private void bindAvatar(User user) {
+        avatarRenderer.bind(ivProfileAvatar, user.getEmail(), user.getInitials(),
+                getResources().getDimensionPixelSize(R.dimen.avatar_size));
+    }
+
+    /**
+     * Validate and save the edited name
+     */
+    private void saveProfile() {
+        String name = etFullName.getText().toString().trim();
+        String error = ValidationUtils.getNameError(name);
+        tilFullName.setError(error);
+        if (error != null) {
+            return;
+        }
+
+        preferencesModel.setName(name);
+        Snackbar.make(findViewById(android.R.id.content), getString(R.string.success_profile_updated),
+                Snackbar.LENGTH_SHORT)
+                .setBackgroundTint(getResources().getColor(R.color.success_green, getTheme()))
+                .show();
+    }
+
+    @Override
+    public void onPreferenceChanged(UserPreferencesModel model, String key) {
+        if (UserPreferencesModel.KEY_NAME.equals(key)) {
+            // Only the header depends on the name; the form keeps what the user typed
+            bindAvatar(new User(model.getName(), model.getEmail()));
+        }
+    }
+
+    @Override
+    public void onBackPressed() {
+        super.onBackPressed();
+        overridePendingTransition(R.anim.slide_in_right, R.anim.slide_out_left);
+    }
+
+    @Override
+    protected void onDestroy() {
+        preferencesModel.removeListener(this);
+        super.onDestroy();
+    }
+}
@@ -1,16 +1,24 @@
 package com.example.login_shared_pref.activities;
 
-import android.content.Intent;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.View;
 import android.widget.ImageButton;
 import android.widget.TextView;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.example.login_shared_pref.R;
+import com.example.login_shared_pref.utils.AnimationManager;
+import com.example.login_shared_pref.utils.AuthStateMachine;
+import com.example.login_shared_pref.utils.BreachedPasswords;
+import com.example.login_shared_pref.utils.CommonPasswords;
+import com.example.login_shared_pref.utils.PasswordStrengthMeter;
 import com.example.login_shared_pref.utils.SharedPrefsManager;
 import com.example.login_shared_pref.utils.ValidationUtils;
+import com.example.login_shared_pref.utils.ViewPrewarmer;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.snackbar.Snackbar;
 import com.google.android.material.textfield.TextInputEditText;
@@ -31,20 +39,30 @@ public class RegisterActivity extends AppCompatActivity {
 
     // Utils
     private SharedPrefsManager sharedPrefsManager;
+    private AuthFormViewModel formState;
+    private AnimationManager animationManager;
+    private AuthStateMachine authState;
+    private PasswordStrengthMeter strengthMeter;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        setContentView(R.layout.activity_register);
+
+        // Use the hierarchy LoginActivity inflated in the background, if ready
+        View prewarmed = ViewPrewarmer.getInstance(this).take(this, R.layout.activity_register);
+        if (prewarmed != null) {
+            setContentView(prewarmed);
+        } else {
+            setContentView(R.layout.activity_register);
+        }
 
         initializeViews();
         initializeUtils();
         setupClickListeners();
+        formState.getStatus().observe(this, this::renderStatus);
 
         // Add entrance animation
-        findViewById(R.id.card_register_form).startAnimation(
-                android.view.animation.AnimationUtils.loadAnimation(this, R.anim.slide_in_up)
-        );
+        animationManager.playEntrance(R.anim.slide_in_up, findViewById(R.id.card_register_form));
     }
 
     /**
@@ -69,6 +87,9 @@ public class RegisterActivity extends AppCompatActivity {
      */
     private void initializeUtils() {
         sharedPrefsManager = SharedPrefsManager.getInstance(this);
+        formState = new ViewModelProvider(this).get(AuthFormViewModel.class);
+        animationManager = AnimationManager.getInstance(this);
+        authState = AuthStateMachine.getInstance(this);
     }
 
     /**
@@ -95,6 +116,27 @@ public class RegisterActivity extends AppCompatActivity {
         etConfirmPassword.setOnFocusChangeListener((v, hasFocus) -> {
             if (!hasFocus) validateConfirmPassword();
         });
+
+        // Live strength meter, fed each edit rather than the whole text
+        etPassword.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+                if (strengthMeter == null) {
+                    // Maps the common password list on first use
+                    strengthMeter = new PasswordStrengthMeter(CommonPasswords.getInstance(RegisterActivity.this));
+                }
+                strengthMeter.onTextChanged(s, start, before, count);
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                showPasswordStrength();
+            }
+        });
     }
 
     /**
@@ -119,64 +161,81 @@ public class RegisterActivity extends AppCompatActivity {
             return;
         }
 
-        // Check if user already exists
-        if (sharedPrefsManager.isUserExists(email)) {
-            tilEmail.setError(getString(R.string.error_user_exists));
-            showSnackbar(getString(R.string.error_user_exists), true);
+        // Reject passwords from known breaches (offline lookup)
+        if (BreachedPasswords.getInstance(this).isBreached(password)) {
+            tilPassword.setError(getString(R.string.error_breached_password));
             return;
         }
 
-        // Show loading state
-        setLoadingState(true);
-
-        // Simulate network delay for better UX
-        btnRegister.postDelayed(() -> {
-            if (registerUser(fullName, email, password)) {
-                handleRegistrationSuccess(fullName, email, password);
-            } else {
-                handleRegistrationFailure();
+        // Store the account and write the session on the crypto pool; registerUser also
+        // rejects an existing email, so there is no separate check on this thread. The
+        // result arrives through renderStatus after the simulated network delay, even if
+        // the screen is recreated
+        SharedPrefsManager prefsManager = sharedPrefsManager;
+        AuthStateMachine auth = authState;
+        boolean submitted = formState.submit(() -> {
+            if (!prefsManager.registerUser(email, fullName, password)) {
+                return false;
             }
-            setLoadingState(false);
-        }, 1500);
+            auth.loggedIn(email, fullName, password, false);
+            return true;
+        }, 1500, auth::authenticationAbandoned);
+        if (!submitted) {
+            // The request already in flight answers this tap too
+            return;
+        }
+        authState.beginAuthentication();
     }
 
     /**
-     * Register new user
+     * Reflect the form's request state; results are handled once, by the current instance
      */
-    private boolean registerUser(String fullName, String email, String password) {
-        return sharedPrefsManager.registerUser(email, fullName, password);
+    private void renderStatus(AuthFormViewModel.Status status) {
+        switch (status) {
+            case RUNNING:
+                setLoadingState(true);
+                break;
+            case SUCCEEDED:
+                formState.acknowledge();
+                setLoadingState(false);
+                handleRegistrationSuccess();
+                break;
+            case FAILED:
+                formState.acknowledge();
+                setLoadingState(false);
+                handleRegistrationFailure();
+                break;
+            case ERROR:
+                formState.acknowledge();
+                setLoadingState(false);
+                handleAuthError();
+                break;
+            default:
+                break;
+        }
     }
 
     /**
-     * Handle successful registration
+     * Handle successful registration; the user was already logged in by the submitted check
      */
-    private void handleRegistrationSuccess(String fullName, String email, String password) {
+    private void handleRegistrationSuccess() {
         // Show success message
         showSnackbar(getString(R.string.success_registration), false);
 
-        // Auto-login the user after successful registration
-        sharedPrefsManager.createLoginSession(email, fullName, password, false);
-
         // Navigate to main activity
-        Intent intent = new Intent(RegisterActivity.this, MainActivity.class);
-        intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
-        startActivity(intent);
-        finish();
-
-        // Add transition animation
-        overridePendingTransition(R.anim.fade_in, R.anim.fade_out);
+        AuthNavigation.openDashboard(this);
     }
 
     /**
-     * Handle registration failure
+     * Handle registration failure; registerUser only refuses an email that is taken
      */
     private void handleRegistrationFailure() {
+        authState.authenticationFailed();
+        tilEmail.setError(getString(R.string.error_user_exists));
         showSnackbar(getString(R.string.error_registration_failed), true);
 
         // Shake animation for register button
-        btnRegister.startAnimation(
-                android.view.animation.AnimationUtils.loadAnimation(this, R.anim.shake)
-        );
+        animationManager.playDecorative(R.anim.shake, btnRegister);
     }
 
     /**
@@ -189,6 +248,14 @@ public class RegisterActivity extends AppCompatActivity {
         return error == null;
     }
 
+    /**
+     * Handle a request that got no answer (busy pool or storage error); the form stays as typed
+     */
+    private void handleAuthError() {
+        authState.authenticationFailed();
+        showSnackbar(getString(R.string.error_auth_unavailable), true);
+    }
+
     /**
      * Validate email field
      */
@@ -221,6 +288,39 @@ public class RegisterActivity extends AppCompatActivity {
         return error == null;
     }
 
+    /**
+     * Show the strength meter's verdict as the password field's helper text
+     */
+    private void showPasswordStrength() {
+        if (strengthMeter.length() == 0) {
+            tilPassword.setHelperText(null);
+            return;
+        }
+        int label;
+        if (strengthMeter.isCommonPassword()) {
+            label = R.string.password_strength_common;
+        } else {
+            switch (strengthMeter.getScore()) {
+                case PasswordStrengthMeter.WEAK:
+                    label = R.string.password_strength_weak;
+                    break;
+                case PasswordStrengthMeter.FAIR:
+                    label = R.string.password_strength_fair;
+                    break;
+                case PasswordStrengthMeter.GOOD:
+                    label = R.string.password_strength_good;
+                    break;
+                case PasswordStrengthMeter.STRONG:
+                    label = R.string.password_strength_strong;
+                    break;
+                default:
+                    label = R.string.password_strength_very_weak;
+                    break;
+            }
+        }
+        tilPassword.setHelperText(getString(label));
+    }
+
     /**
      * Validate confirm password field
      */
@@ -0,0 +1,245 @@
+package com.example.login_shared_pref.activities;
+
+import android.content.Context;
+import android.graphics.Typeface;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.View;
+import android.widget.Button;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AlertDialog;
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.example.login_shared_pref.R;
+import com.example.login_shared_pref.utils.BreachedPasswords;
+import com.example.login_shared_pref.utils.CryptoExecutor;
+import com.example.login_shared_pref.utils.SharedPrefsManager;
+import com.example.login_shared_pref.utils.StorageMetrics;
+import com.example.login_shared_pref.utils.UserPreferencesModel;
+import com.example.login_shared_pref.utils.ValidationUtils;
+import com.google.android.material.appbar.MaterialToolbar;
+import com.google.android.material.button.MaterialButton;
+import com.google.android.material.snackbar.Snackbar;
+import com.google.android.material.switchmaterial.SwitchMaterial;
+import com.google.android.material.textfield.TextInputEditText;
+import com.google.android.material.textfield.TextInputLayout;
+
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+/**
+ * Settings Activity - App preferences for the signed-in user
+ * Toggles are backed by UserPreferencesModel and written in batches
+ */
+public class SettingsActivity extends AppCompatActivity implements UserPreferencesModel.Listener {
+
+    // UI Components
+    private MaterialToolbar toolbar;
+    private SwitchMaterial switchRememberMe;
+    private MaterialButton btnChangePassword;
+    private MaterialButton btnStorageMetrics;
+
+    // Utils
+    private SharedPrefsManager sharedPrefsManager;
+    private UserPreferencesModel preferencesModel;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Outcome of a password change, decided on the crypto pool
+    private enum PasswordChange {
+        CHANGED,
+        WRONG_PASSWORD,
+        BREACHED
+    }
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_settings);
+
+        initializeViews();
+        initializeUtils();
+        switchRememberMe.setChecked(preferencesModel.isRememberMe());
+        setupClickListeners();
+    }
+
+    /**
+     * Initialize all UI components
+     */
+    private void initializeViews() {
+        toolbar = findViewById(R.id.toolbar);
+        switchRememberMe = findViewById(R.id.switch_remember_me);
+        btnChangePassword = findViewById(R.id.btn_change_password);
+        btnStorageMetrics = findViewById(R.id.btn_storage_metrics);
+    }
+
+    /**
+     * Initialize utility classes
+     */
+    private void initializeUtils() {
+        sharedPrefsManager = SharedPrefsManager.getInstance(this);
+        preferencesModel = UserPreferencesModel.getInstance(this);
+        preferencesModel.addListener(this);
+    }
+
+    /**
+     * Setup click listeners for all interactive elements
+     */
+    private void setupClickListeners() {
+        toolbar.setNavigationOnClickListener(v -> onBackPressed());
+        switchRememberMe.setOnCheckedChangeListener(
+                (buttonView, isChecked) -> preferencesModel.setRememberMe(isChecked));
+        btnChangePassword.setOnClickListener(v -> showChangePasswordDialog());
+
+        if (StorageMetrics.getInstance().isEnabled()) {
+            btnStorageMetrics.setVisibility(View.VISIBLE);
+            btnStorageMetrics.setOnClickListener(v -> showStorageMetricsDialog());
+        }
+    }
+
+    /**
+     * Show the per-operation storage latency table (debug builds)
+     */
+    private void showStorageMetricsDialog() {
+        StorageMetrics metrics = StorageMetrics.getInstance();
+        String dump = metrics.dump();
+        // The header line is always present
+        if (dump.indexOf('\n') == dump.length() - 1) {
+            dump = getString(R.string.storage_metrics_empty);
+        }
+
+        TextView table = new TextView(this);
+        table.setTypeface(Typeface.MONOSPACE);
+        table.setTextSize(10);
+        table.setHorizontallyScrolling(true);
+        int padding = getResources().getDimensionPixelSize(R.dimen.card_padding);
+        table.setPadding(padding, padding, padding, 0);
+        table.setText(dump);
+
+        new AlertDialog.Builder(this)
+                .setTitle(getString(R.string.btn_storage_metrics))
+                .setView(table)
+                .setPositiveButton(getString(R.string.btn_close), null)
+                .setNeutralButton(getString(R.string.btn_reset), (dialog, which) -> metrics.reset())
+                .show();
+    }
+
+    /**
+     * Show dialog to change the current password
+     */
+    private void showChangePasswordDialog() {
+        View dialogView = getLayoutInflater().inflate(R.layout.dialog_change_password, null);
+        TextInputLayout tilCurrentPassword = dialogView.findViewById(R.id.til_current_password);
+        TextInputLayout tilNewPassword = dialogView.findViewById(R.id.til_new_password);
+        TextInputEditText etCurrentPassword = dialogView.findViewById(R.id.et_current_password);
+        TextInputEditText etNewPassword = dialogView.findViewById(R.id.et_new_password);
+
+        AlertDialog dialog = new AlertDialog.Builder(this)
+                .setTitle(getString(R.string.btn_change_password))
+                .setView(dialogView)
+                .setPositiveButton(getString(R.string.btn_save), null)
+                .setNegativeButton(getString(R.string.btn_cancel), null)
+                .create();
+
+        // Override the positive button so validation errors keep the dialog open
+        dialog.setOnShowListener(d -> dialog.getButton(AlertDialog.BUTTON_POSITIVE).setOnClickListener(v -> {
+            String currentPassword = etCurrentPassword.getText().toString();
+            String newPassword = etNewPassword.getText().toString();
+
+            String error = ValidationUtils.getPasswordError(newPassword);
+            tilNewPassword.setError(error);
+            tilCurrentPassword.setError(null);
+            if (error != null) {
+                return;
+            }
+
+            // The breach lookup and the password write stay off this thread
+            Context appContext = getApplicationContext();
+            SharedPrefsManager accounts = sharedPrefsManager;
+            UserPreferencesModel model = preferencesModel;
+            runDialogStep(dialog, () -> {
+                if (BreachedPasswords.getInstance(appContext).isBreached(newPassword)) {
+                    return PasswordChange.BREACHED;
+                }
+                // Keep the pending batch ordered before the password write
+                model.flushAndWait();
+                return accounts.changePassword(currentPassword, newPassword)
+                        ? PasswordChange.CHANGED : PasswordChange.WRONG_PASSWORD;
+            }, outcome -> {
+                switch (outcome) {
+                    case CHANGED:
+                        dialog.dismiss();
+                        showSnackbar(getString(R.string.success_password_changed), false);
+                        break;
+                    case BREACHED:
+                        tilNewPassword.setError(getString(R.string.error_breached_password));
+                        break;
+                    default:
+                        tilCurrentPassword.setError(getString(R.string.error_wrong_password));
+                        break;
+                }
+            });
+        }));
+        dialog.show();
+    }
+
+    /**
+     * Run a dialog step on the crypto pool with the dialog's confirm button disabled
+     * onResult runs on this thread if the dialog is still up; a step that failed or found
+     * the pool busy shows a retry message instead.
+     */
+    private <T> void runDialogStep(AlertDialog dialog, Callable<T> step, Consumer<T> onResult) {
+        Button confirm = dialog.getButton(AlertDialog.BUTTON_POSITIVE);
+        confirm.setEnabled(false);
+        CryptoExecutor.Task<T> task = CryptoExecutor.getInstance().submitInteractive(step);
+        task.whenDone(mainHandler::post, () -> {
+            if (isDestroyed() || !dialog.isShowing()) {
+                return;
+            }
+            confirm.setEnabled(true);
+            T result = task.await(null);
+            if (result == null) {
+                showSnackbar(getString(R.string.error_auth_unavailable), true);
+                return;
+            }
+            onResult.accept(result);
+        });
+    }
+
+    @Override
+    public void onPreferenceChanged(UserPreferencesModel model, String key) {
+        if (UserPreferencesModel.KEY_REMEMBER_ME.equals(key)
+                && switchRememberMe.isChecked() != model.isRememberMe()) {
+            switchRememberMe.setChecked(model.isRememberMe());
+        }
+    }
+
+    /**
+     * Show snackbar message
+     */
+    private void showSnackbar(String message, boolean isError) {
+        Snackbar snackbar = Snackbar.make(findViewById(android.R.id.content), message,
+                isError ? Snackbar.LENGTH_LONG : Snackbar.LENGTH_SHORT);
+
+        if (isError) {
+            snackbar.setBackgroundTint(getResources().getColor(R.color.error_red, getTheme()));
+        } else {
+            snackbar.setBackgroundTint(getResources().getColor(R.color.success_green, getTheme()));
+        }
+
+        snackbar.show();
+    }
+
+    @Override
+    public void onBackPressed() {
+        super.onBackPressed();
+        overridePendingTransition(R.anim.slide_in_right, R.anim.slide_out_left);
+    }
+
+    @Override
+    protected void onDestroy() {
+        preferencesModel.removeListener(this);
+        super.onDestroy();
+    }
+}
@@ -4,15 +4,15 @@ import android.content.Intent;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
-import android.view.animation.Animation;
-import android.view.animation.AnimationUtils;
 import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.login_shared_pref.R;
-import com.example.login_shared_pref.utils.SharedPrefsManager;
+import com.example.login_shared_pref.utils.AnimationManager;
+import com.example.login_shared_pref.utils.AuthStateMachine;
+import com.example.login_shared_pref.utils.ViewPrewarmer;
 
 /**
  * Splash screen activity - App entry point
@@ -22,7 +22,8 @@ public class SplashActivity extends AppCompatActivity {
 
     private static final int SPLASH_DURATION = 2500; // 2.5 seconds
 
-    private SharedPrefsManager sharedPrefsManager;
+    private AuthStateMachine authState;
+    private AnimationManager animationManager;
     private ImageView logoImageView;
     private TextView appNameTextView;
     private TextView taglineTextView;
@@ -36,6 +37,11 @@ public class SplashActivity extends AppCompatActivity {
         initializePrefs();
         startAnimations();
         navigateAfterDelay();
+
+        // Inflate the login form during the splash delay when it is the likely next screen
+        if (!authState.isLoggedIn()) {
+            ViewPrewarmer.getInstance(this).prewarmWhenIdle(R.layout.activity_login);
+        }
     }
 
     /**
@@ -48,10 +54,11 @@ public class SplashActivity extends AppCompatActivity {
     }
 
     /**
-     * Initialize SharedPreferences manager
+     * Initialize auth state and animation manager
      */
     private void initializePrefs() {
-        sharedPrefsManager = SharedPrefsManager.getInstance(this);
+        authState = AuthStateMachine.getInstance(this);
+        animationManager = AnimationManager.getInstance(this);
     }
 
     /**
@@ -59,37 +66,34 @@ public class SplashActivity extends AppCompatActivity {
      */
     private void startAnimations() {
         // Logo animation - scale up with fade in
-        Animation logoAnimation = AnimationUtils.loadAnimation(this, R.anim.splash_logo_animation);
-        logoImageView.startAnimation(logoAnimation);
+        animationManager.playEntrance(R.anim.splash_logo_animation, logoImageView);
 
         // App name animation - slide up with fade in
-        Animation nameAnimation = AnimationUtils.loadAnimation(this, R.anim.splash_text_animation);
-        appNameTextView.startAnimation(nameAnimation);
+        animationManager.playEntrance(R.anim.splash_text_animation, appNameTextView);
 
         // Tagline animation - fade in with delay
-        Animation taglineAnimation = AnimationUtils.loadAnimation(this, R.anim.splash_tagline_animation);
-        taglineTextView.startAnimation(taglineAnimation);
+        animationManager.playEntrance(R.anim.splash_tagline_animation, taglineTextView);
     }
 
     /**
      * Navigate to appropriate screen after splash delay
+     * The session is resolved off the main thread; navigation follows once it is known.
      */
     private void navigateAfterDelay() {
-        new Handler(Looper.getMainLooper()).postDelayed(new Runnable() {
-            @Override
-            public void run() {
-                navigateToNextScreen();
-            }
-        }, SPLASH_DURATION);
+        new Handler(Looper.getMainLooper()).postDelayed(
+                () -> authState.restoreSessionAsync(this::navigateToNextScreen), SPLASH_DURATION);
     }
 
     /**
-     * Determine which screen to navigate to based on login status
+     * Determine which screen to navigate to based on the restored session
      */
-    private void navigateToNextScreen() {
+    private void navigateToNextScreen(boolean sessionMaintained) {
+        if (isFinishing() || isDestroyed()) {
+            return;
+        }
         Intent intent;
 
-        if (sharedPrefsManager.shouldMaintainSession()) {
+        if (sessionMaintained) {
             // Session is valid and should be maintained
             intent = new Intent(SplashActivity.this, MainActivity.class);
         } else {
@@ -0,0 +1,53 @@
+package com.example.login_shared_pref.models;
+
+/**
+ * Immutable, pre-computed data shown on the dashboard
+ * Built once per distinct user/session by DashboardStateCache and reused across resumes.
+ */
+public class DashboardViewState {
+
+    private final String email;
+    private final String name;
+    private final String firstName;
+    private final String initials;
+    private final long lastLoginMillis;
+    private final String lastLoginText;
+
+    public DashboardViewState(String email, String name, long lastLoginMillis, String lastLoginText) {
+        User user = new User(name, email);
+        this.email = email;
+        this.name = name;
+        this.firstName = user.getFirstName();
+        this.initials = user.getInitials();
+        this.lastLoginMillis = lastLoginMillis;
+        this.lastLoginText = lastLoginText;
+    }
+
+    // Getters
+    public String getEmail() {
+        return email;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getInitials() {
+        return initials;
+    }
+
+    public long getLastLoginMillis() {
+        return lastLoginMillis;
+    }
+
+    /**
+     * Formatted last login date, or null if the session predates last-login tracking
+     */
+    public String getLastLoginText() {
+        return lastLoginText;
+    }
+}
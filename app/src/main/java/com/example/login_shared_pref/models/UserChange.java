@@ -0,0 +1,67 @@
+package com.example.login_shared_pref.models;
+
+/**
+ * User directory change model
+ * Represents one versioned change to a user record as delivered by the sync server
+ */
+public class UserChange {
+
+    private String email;
+    private String name;
+    private String password;
+    private long version;
+    private boolean deleted;
+
+    // Default constructor
+    public UserChange() {
+    }
+
+    // Constructor for an upsert of a user record
+    public UserChange(String email, String name, String password, long version) {
+        this.email = email;
+        this.name = name;
+        this.password = password;
+        this.version = version;
+    }
+
+    /**
+     * Create a tombstone change that removes the user record
+     */
+    public static UserChange deletion(String email, long version) {
+        UserChange change = new UserChange();
+        change.email = email;
+        change.version = version;
+        change.deleted = true;
+        return change;
+    }
+
+    // Getters
+    public String getEmail() {
+        return email;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    @Override
+    public String toString() {
+        return "UserChange{" +
+                "email='" + email + '\'' +
+                ", version=" + version +
+                ", deleted=" + deleted +
+                '}';
+    }
+}
@@ -0,0 +1,340 @@
+package com.example.login_shared_pref.utils;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.os.SystemClock;
+import android.provider.Settings;
+import android.util.Log;
+import android.util.SparseArray;
+import android.view.Choreographer;
+import android.view.Display;
+import android.view.View;
+import android.view.animation.Animation;
+import android.view.animation.AnimationUtils;
+
+import androidx.annotation.AnimRes;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.example.login_shared_pref.R;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Plays the app's view animations within a motion budget and measures their frames
+ *
+ * Loaded Animations are cached per resource and reused once no view is playing them
+ * (finished, cleared or detached), instead of being parsed from XML on every show.
+ * Copies cut down to a budget are cached apart, so the full-length one is never shortened.
+ * Durations follow the system animator duration scale.
+ * The profile decides what plays:
+ * FULL plays everything; REDUCED (low-RAM devices, or a scale below 1) swaps entrances
+ * for a fade of at most REDUCED_BUDGET_MS and drops decorative effects such as the
+ * error shake; OFF (animations disabled in system settings) plays nothing. Each
+ * transition is watched with a Choreographer callback, and its frame count and dropped
+ * frames are logged and kept in getLastTransition().
+ *
+ * Main thread only.
+ */
+public final class AnimationManager {
+
+    private static final String TAG = "AnimationManager";
+
+    public enum Profile {
+        FULL,
+        REDUCED,
+        OFF
+    }
+
+    // Longest entrance allowed under REDUCED
+    static final long REDUCED_BUDGET_MS = 150;
+
+    private final Context appContext;
+    private final boolean lowRamDevice;
+    private final SparseArray<CachedAnimation> cache = new SparseArray<>();
+    private final SparseArray<CachedAnimation> budgetCache = new SparseArray<>();
+    private float cachedScale = -1f;
+    private Profile profileOverride;
+    private FrameMonitor monitor;
+    private TransitionStats lastTransition;
+
+    // Singleton instance
+    private static AnimationManager instance;
+
+    private AnimationManager(Context context) {
+        this.appContext = context;
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        this.lowRamDevice = activityManager != null && activityManager.isLowRamDevice();
+    }
+
+    /**
+     * Get singleton instance of AnimationManager
+     */
+    public static synchronized AnimationManager getInstance(Context context) {
+        if (instance == null) {
+            instance = new AnimationManager(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Drop the singleton, its cache and any transition being watched (tests only)
+     */
+    @VisibleForTesting
+    public static synchronized void resetInstance() {
+        instance = null;
+    }
+
+    /**
+     * Force a profile (e.g. from a user setting); null goes back to the automatic choice
+     */
+    public void setProfileOverride(@Nullable Profile profile) {
+        profileOverride = profile;
+    }
+
+    public Profile getProfile() {
+        if (profileOverride != null) {
+            return profileOverride;
+        }
+        float scale = animatorScale();
+        if (scale == 0f) {
+            return Profile.OFF;
+        }
+        return lowRamDevice || scale < 1f ? Profile.REDUCED : Profile.FULL;
+    }
+
+    /**
+     * Play an entrance on the views (one shared Animation, so they move together)
+     */
+    public void playEntrance(@AnimRes int animRes, View... views) {
+        switch (getProfile()) {
+            case FULL:
+                play(animRes, Long.MAX_VALUE, views);
+                break;
+            case REDUCED:
+                play(R.anim.fade_in, REDUCED_BUDGET_MS, views);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Play an effect that only decorates (shake, flourish); skipped outside FULL
+     */
+    public void playDecorative(@AnimRes int animRes, View view) {
+        if (getProfile() == Profile.FULL) {
+            play(animRes, Long.MAX_VALUE, view);
+        }
+    }
+
+    /**
+     * Frame stats of the most recent finished transition, or null
+     */
+    @Nullable
+    public TransitionStats getLastTransition() {
+        return lastTransition;
+    }
+
+    private void play(@AnimRes int animRes, long maxDurationMs, View... views) {
+        if (views.length == 0) {
+            return;
+        }
+        CachedAnimation cached = obtain(animRes, maxDurationMs);
+        cached.startOn(views);
+        watch(views[0], cached.animation.computeDurationHint());
+    }
+
+    /**
+     * An Animation that no view is playing, scaled to the current animator scale and cut
+     * down to maxDurationMs
+     */
+    private CachedAnimation obtain(@AnimRes int animRes, long maxDurationMs) {
+        float scale = animatorScale();
+        if (scale != cachedScale) {
+            // Durations were scaled at load time
+            cache.clear();
+            budgetCache.clear();
+            cachedScale = scale;
+        }
+        SparseArray<CachedAnimation> entries = maxDurationMs == Long.MAX_VALUE ? cache : budgetCache;
+        CachedAnimation cached = entries.get(animRes);
+        if (cached != null && !cached.isPlaying()) {
+            cached.recycle();
+            return cached;
+        }
+
+        Animation loaded = AnimationUtils.loadAnimation(appContext, animRes);
+        loaded.scaleCurrentDuration(scale);
+        if (loaded.getDuration() > maxDurationMs) {
+            loaded.setDuration(maxDurationMs);
+            loaded.setStartOffset(0);
+        }
+        CachedAnimation fresh = new CachedAnimation(loaded);
+        if (cached == null) {
+            entries.put(animRes, fresh);
+        }
+        // else the cached one is still playing elsewhere; use a throwaway copy
+        return fresh;
+    }
+
+    private float animatorScale() {
+        return Settings.Global.getFloat(appContext.getContentResolver(),
+                Settings.Global.ANIMATOR_DURATION_SCALE, 1f);
+    }
+
+    /**
+     * Count frames until the transition is over, extending a transition already being watched
+     */
+    private void watch(View view, long durationMs) {
+        // Same clock as Choreographer's frame times (CLOCK_MONOTONIC)
+        long endNanos = (SystemClock.uptimeMillis() + durationMs) * 1_000_000L;
+        if (monitor != null) {
+            monitor.endNanos = Math.max(monitor.endNanos, endNanos);
+            return;
+        }
+        Display display = view.getDisplay();
+        float refreshRate = display != null && display.getRefreshRate() > 0 ? display.getRefreshRate() : 60f;
+        monitor = new FrameMonitor((long) (1_000_000_000L / refreshRate), endNanos);
+        Choreographer.getInstance().postFrameCallback(monitor);
+    }
+
+    private void finish(TransitionStats stats) {
+        monitor = null;
+        lastTransition = stats;
+        Log.i(TAG, stats.toString());
+    }
+
+    /**
+     * A cached Animation and the views it was last started on
+     */
+    private static final class CachedAnimation {
+        final Animation animation;
+        private final List<WeakReference<View>> views = new ArrayList<>();
+
+        CachedAnimation(Animation animation) {
+            this.animation = animation;
+        }
+
+        /**
+         * Rewind for another play; views it has not started on yet keep it, and move together
+         */
+        void recycle() {
+            if (animation.hasStarted()) {
+                views.clear();
+            }
+            animation.reset();
+        }
+
+        void startOn(View[] targets) {
+            for (View view : targets) {
+                views.add(new WeakReference<>(view));
+                view.startAnimation(animation);
+            }
+        }
+
+        /**
+         * Still running on a view on screen; one interrupted by clearAnimation(), another
+         * animation or the view leaving the window never ends, so it does not count
+         */
+        boolean isPlaying() {
+            if (!animation.hasStarted() || animation.hasEnded()) {
+                return false;
+            }
+            for (WeakReference<View> ref : views) {
+                View view = ref.get();
+                if (view != null && view.getAnimation() == animation && view.isAttachedToWindow()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Frames of one transition, measured between vsync timestamps
+     */
+    public static final class TransitionStats {
+        private final Profile profile;
+        private final int frames;
+        private final int droppedFrames;
+        private final long longestFrameNanos;
+        private final long durationNanos;
+
+        TransitionStats(Profile profile, int frames, int droppedFrames, long longestFrameNanos, long durationNanos) {
+            this.profile = profile;
+            this.frames = frames;
+            this.droppedFrames = droppedFrames;
+            this.longestFrameNanos = longestFrameNanos;
+            this.durationNanos = durationNanos;
+        }
+
+        public Profile getProfile() {
+            return profile;
+        }
+
+        public int getFrames() {
+            return frames;
+        }
+
+        /**
+         * Vsyncs missed: a frame that took k intervals drops k - 1
+         */
+        public int getDroppedFrames() {
+            return droppedFrames;
+        }
+
+        public long getLongestFrameMillis() {
+            return longestFrameNanos / 1_000_000L;
+        }
+
+        public long getDurationMillis() {
+            return durationNanos / 1_000_000L;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s transition: %d frames, %d dropped, longest %d ms, %d ms",
+                    profile, frames, droppedFrames, getLongestFrameMillis(), getDurationMillis());
+        }
+    }
+
+    private final class FrameMonitor implements Choreographer.FrameCallback {
+        private final long intervalNanos;
+        private final Profile profile = getProfile();
+        long endNanos;
+        private long firstFrameNanos;
+        private long lastFrameNanos;
+        private int frames;
+        private int dropped;
+        private long longest;
+
+        FrameMonitor(long intervalNanos, long endNanos) {
+            this.intervalNanos = intervalNanos;
+            this.endNanos = endNanos;
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (lastFrameNanos == 0) {
+                firstFrameNanos = frameTimeNanos;
+            } else {
+                long frame = frameTimeNanos - lastFrameNanos;
+                longest = Math.max(longest, frame);
+                // Round so vsync jitter does not count as a drop
+                dropped += Math.max(0, (int) ((frame + intervalNanos / 2) / intervalNanos) - 1);
+                frames++;
+            }
+            lastFrameNanos = frameTimeNanos;
+
+            if (frameTimeNanos < endNanos) {
+                Choreographer.getInstance().postFrameCallback(this);
+            } else {
+                finish(new TransitionStats(profile, frames, dropped, longest, lastFrameNanos - firstFrameNanos));
+            }
+        }
+    }
+}
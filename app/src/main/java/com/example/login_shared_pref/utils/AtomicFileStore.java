@@ -0,0 +1,466 @@
+package com.example.login_shared_pref.utils;
+
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * SharedPreferences implementation backed by a single binary file
+ *
+ * Reads are served from an in-memory map loaded once in the background. Edits update
+ * the map in place and a single writer thread encodes a snapshot with BinaryPrefsCodec,
+ * writes it to a temp file, syncs it and renames it over the real file, so a crash
+ * leaves either the old or the new contents. Back-to-back apply() calls coalesce into
+ * one write, and nothing is queued on QueuedWork, so onPause/onStop never wait on it.
+ * A store created with a legacy source copies it on the writer thread, as part of the
+ * initial load, if the file does not exist yet.
+ */
+public class AtomicFileStore implements SharedPreferences {
+
+    private static final String TAG = "AtomicFileStore";
+
+    // One writer for every store keeps disk I/O ordered and off the main thread
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "AtomicFileStore-writer");
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    private final File file;
+    private final File tempFile;
+    @Nullable
+    private final SharedPreferences migrateFrom;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Guarded by lock
+    private final Object lock = new Object();
+    private final Map<String, Object> map = new HashMap<>();
+    private final Set<OnSharedPreferenceChangeListener> listeners =
+            Collections.newSetFromMap(new WeakHashMap<>());
+    private boolean loaded;
+    private boolean writeScheduled;
+    private long memoryGeneration;
+    private long diskGeneration;
+
+    public AtomicFileStore(File file) {
+        this(file, null);
+    }
+
+    /**
+     * Store that starts from migrateFrom's contents if its file does not exist yet
+     * The source is left untouched, as a fallback if the engine is switched back.
+     */
+    public AtomicFileStore(File file, @Nullable SharedPreferences migrateFrom) {
+        this.file = file;
+        this.tempFile = new File(file.getPath() + ".tmp");
+        this.migrateFrom = migrateFrom;
+        WRITER.execute(this::loadFromDisk);
+    }
+
+    /**
+     * Delete the backing file once any queued write has finished
+     * The store must not be used afterwards; open a new one instead.
+     */
+    void deleteFile() {
+        WRITER.execute(() -> {
+            if (file.exists() && !file.delete()) {
+                Log.w(TAG, "Could not delete " + file);
+            }
+        });
+    }
+
+    private void loadFromDisk() {
+        Map<String, Object> loadedMap = null;
+        boolean migrated = false;
+        try {
+            // A leftover temp file means a write died before its rename; the real file is intact
+            if (tempFile.exists() && !tempFile.delete()) {
+                Log.w(TAG, "Could not delete stale " + tempFile);
+            }
+            if (file.exists()) {
+                loadedMap = BinaryPrefsCodec.decode(readFully(file));
+            } else if (migrateFrom != null) {
+                loadedMap = copyOf(migrateFrom.getAll());
+                migrated = !loadedMap.isEmpty();
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Discarding unreadable " + file, e);
+        }
+
+        synchronized (lock) {
+            if (loadedMap != null) {
+                map.putAll(loadedMap);
+            }
+            if (migrated) {
+                memoryGeneration++;
+            }
+            loaded = true;
+            lock.notifyAll();
+        }
+
+        // Already on the writer thread, so the migrated copy is persisted before any later write
+        if (migrated) {
+            writeToDisk();
+        }
+    }
+
+    /**
+     * Copy of a getAll() result with string sets detached from the source
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> copyOf(Map<String, ?> source) {
+        Map<String, Object> copy = new HashMap<>();
+        for (Map.Entry<String, ?> entry : source.entrySet()) {
+            Object value = entry.getValue();
+            copy.put(entry.getKey(), value instanceof Set ? new HashSet<>((Set<String>) value) : value);
+        }
+        return copy;
+    }
+
+    private void awaitLoaded() {
+        boolean interrupted = false;
+        while (!loaded) {
+            try {
+                lock.wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public Map<String, ?> getAll() {
+        synchronized (lock) {
+            awaitLoaded();
+            return new HashMap<>(map);
+        }
+    }
+
+    @Nullable
+    @Override
+    public String getString(String key, @Nullable String defValue) {
+        synchronized (lock) {
+            awaitLoaded();
+            String value = (String) map.get(key);
+            return value != null ? value : defValue;
+        }
+    }
+
+    @Nullable
+    @Override
+    @SuppressWarnings("unchecked")
+    public Set<String> getStringSet(String key, @Nullable Set<String> defValues) {
+        synchronized (lock) {
+            awaitLoaded();
+            Set<String> value = (Set<String>) map.get(key);
+            return value != null ? new HashSet<>(value) : defValues;
+        }
+    }
+
+    @Override
+    public int getInt(String key, int defValue) {
+        synchronized (lock) {
+            awaitLoaded();
+            Integer value = (Integer) map.get(key);
+            return value != null ? value : defValue;
+        }
+    }
+
+    @Override
+    public long getLong(String key, long defValue) {
+        synchronized (lock) {
+            awaitLoaded();
+            Long value = (Long) map.get(key);
+            return value != null ? value : defValue;
+        }
+    }
+
+    @Override
+    public float getFloat(String key, float defValue) {
+        synchronized (lock) {
+            awaitLoaded();
+            Float value = (Float) map.get(key);
+            return value != null ? value : defValue;
+        }
+    }
+
+    @Override
+    public boolean getBoolean(String key, boolean defValue) {
+        synchronized (lock) {
+            awaitLoaded();
+            Boolean value = (Boolean) map.get(key);
+            return value != null ? value : defValue;
+        }
+    }
+
+    @Override
+    public boolean contains(String key) {
+        synchronized (lock) {
+            awaitLoaded();
+            return map.containsKey(key);
+        }
+    }
+
+    @Override
+    public Editor edit() {
+        synchronized (lock) {
+            awaitLoaded();
+        }
+        return new EditorImpl();
+    }
+
+    @Override
+    public void registerOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+        synchronized (lock) {
+            listeners.add(listener);
+        }
+    }
+
+    @Override
+    public void unregisterOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+        synchronized (lock) {
+            listeners.remove(listener);
+        }
+    }
+
+    /**
+     * Write the latest in-memory state if the disk copy is behind; runs on the writer thread
+     */
+    private boolean writeToDisk() {
+        Map<String, Object> snapshot;
+        long generation;
+        synchronized (lock) {
+            writeScheduled = false;
+            if (diskGeneration >= memoryGeneration) {
+                return true;
+            }
+            snapshot = new HashMap<>(map);
+            generation = memoryGeneration;
+        }
+
+        try {
+            writeAtomically(file, tempFile, BinaryPrefsCodec.encode(snapshot));
+        } catch (IOException e) {
+            Log.e(TAG, "Write failed", e);
+            return false;
+        }
+
+        synchronized (lock) {
+            diskGeneration = Math.max(diskGeneration, generation);
+        }
+        return true;
+    }
+
+    /**
+     * Write data to a temp file, sync it and rename it over the target
+     */
+    static void writeAtomically(File target, File temp, byte[] data) throws IOException {
+        File parent = target.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Could not create " + parent);
+        }
+        try {
+            try (FileOutputStream out = new FileOutputStream(temp)) {
+                out.write(data);
+                out.getFD().sync();
+            }
+            if (!temp.renameTo(target)) {
+                throw new IOException("Could not rename " + temp + " to " + target);
+            }
+        } catch (IOException e) {
+            temp.delete();
+            throw e;
+        }
+    }
+
+    static byte[] readFully(File source) throws IOException {
+        long length = source.length();
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("File too large: " + source);
+        }
+        byte[] data = new byte[(int) length];
+        try (FileInputStream in = new FileInputStream(source)) {
+            int offset = 0;
+            while (offset < data.length) {
+                int read = in.read(data, offset, data.length - offset);
+                if (read < 0) {
+                    throw new IOException("Unexpected end of " + source);
+                }
+                offset += read;
+            }
+        }
+        return data;
+    }
+
+    private class EditorImpl implements Editor {
+
+        private final Object removed = new Object();
+        private final Map<String, Object> modifications = new HashMap<>();
+        private boolean clear;
+
+        @Override
+        public Editor putString(String key, @Nullable String value) {
+            synchronized (this) {
+                modifications.put(key, value != null ? value : removed);
+                return this;
+            }
+        }
+
+        @Override
+        public Editor putStringSet(String key, @Nullable Set<String> values) {
+            synchronized (this) {
+                modifications.put(key, values != null ? new HashSet<>(values) : removed);
+                return this;
+            }
+        }
+
+        @Override
+        public Editor putInt(String key, int value) {
+            synchronized (this) {
+                modifications.put(key, value);
+                return this;
+            }
+        }
+
+        @Override
+        public Editor putLong(String key, long value) {
+            synchronized (this) {
+                modifications.put(key, value);
+                return this;
+            }
+        }
+
+        @Override
+        public Editor putFloat(String key, float value) {
+            synchronized (this) {
+                modifications.put(key, value);
+                return this;
+            }
+        }
+
+        @Override
+        public Editor putBoolean(String key, boolean value) {
+            synchronized (this) {
+                modifications.put(key, value);
+                return this;
+            }
+        }
+
+        @Override
+        public Editor remove(String key) {
+            synchronized (this) {
+                modifications.put(key, removed);
+                return this;
+            }
+        }
+
+        @Override
+        public Editor clear() {
+            synchronized (this) {
+                clear = true;
+                return this;
+            }
+        }
+
+        @Override
+        public boolean commit() {
+            StorageThreadGuard.getInstance().check("AtomicFileStore.commit");
+            if (!commitToMemory()) {
+                return true;
+            }
+            try {
+                return WRITER.submit(AtomicFileStore.this::writeToDisk).get();
+            } catch (ExecutionException e) {
+                Log.e(TAG, "Commit failed", e);
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        @Override
+        public void apply() {
+            if (!commitToMemory()) {
+                return;
+            }
+            synchronized (lock) {
+                if (!writeScheduled) {
+                    writeScheduled = true;
+                    WRITER.execute(AtomicFileStore.this::writeToDisk);
+                }
+            }
+        }
+
+        /**
+         * Apply the pending edits to the shared map and reset this editor for reuse
+         * Returns false if nothing changed.
+         */
+        private boolean commitToMemory() {
+            List<String> changedKeys = new ArrayList<>();
+            boolean cleared;
+            List<OnSharedPreferenceChangeListener> toNotify;
+
+            synchronized (lock) {
+                synchronized (this) {
+                    cleared = clear && !map.isEmpty();
+                    if (clear) {
+                        map.clear();
+                        clear = false;
+                    }
+                    for (Map.Entry<String, Object> entry : modifications.entrySet()) {
+                        String key = entry.getKey();
+                        Object value = entry.getValue();
+                        if (value == removed) {
+                            if (map.remove(key) != null) {
+                                changedKeys.add(key);
+                            }
+                        } else if (!value.equals(map.put(key, value))) {
+                            changedKeys.add(key);
+                        }
+                    }
+                    modifications.clear();
+                }
+
+                if (!cleared && changedKeys.isEmpty()) {
+                    return false;
+                }
+                memoryGeneration++;
+                toNotify = listeners.isEmpty() ? null : new ArrayList<>(listeners);
+            }
+
+            if (toNotify != null) {
+                mainHandler.post(() -> {
+                    for (String key : changedKeys) {
+                        for (OnSharedPreferenceChangeListener listener : toNotify) {
+                            listener.onSharedPreferenceChanged(AtomicFileStore.this, key);
+                        }
+                    }
+                });
+            }
+            return true;
+        }
+    }
+}
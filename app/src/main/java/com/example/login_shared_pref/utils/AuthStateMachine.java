@@ -0,0 +1,237 @@
+package com.example.login_shared_pref.utils;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.annotation.VisibleForTesting;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-process authentication state shared by every screen
+ *
+ * LOGGED_OUT -> AUTHENTICATING -> LOGGED_IN -> LOGGED_OUT or EXPIRED. The state lives in
+ * memory: storage is read once when the machine is created, and after that only the
+ * transitions touch the session (the session writes go through here), so screens can
+ * check getState() on every resume for free. Transitions are pushed to listeners on the
+ * main thread as they happen, whichever thread made them. EXPIRED is only reported for
+ * sessions that end while the process is alive; after a restart they read as LOGGED_OUT.
+ */
+public class AuthStateMachine {
+
+    public enum State {
+        LOGGED_OUT,
+        AUTHENTICATING,
+        LOGGED_IN,
+        EXPIRED
+    }
+
+    /**
+     * Listener notified on the main thread after every transition
+     */
+    public interface Listener {
+        void onAuthStateChanged(AuthStateMachine machine, State state);
+    }
+
+    /**
+     * Receives the outcome of restoreSessionAsync() on the main thread
+     */
+    public interface RestoreCallback {
+        void onSessionRestored(boolean maintained);
+    }
+
+    /**
+     * Receives the output of loadSavedCredentialsAsync() on the main thread; empty if none
+     */
+    public interface CredentialsCallback {
+        void onSavedCredentials(String email, String password);
+    }
+
+    private static final EnumSet<State> ANY = EnumSet.allOf(State.class);
+
+    private final SharedPrefsManager sharedPrefsManager;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Session reads and stamps that screens must not wait on, in submission order
+    private final ExecutorService storageExecutor = Executors.newSingleThreadExecutor();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    // Guarded by this
+    private State state;
+    private long lastActivityStamp;
+
+    // Singleton instance
+    private static AuthStateMachine instance;
+
+    private AuthStateMachine(Context context) {
+        sharedPrefsManager = SharedPrefsManager.getInstance(context);
+        state = sharedPrefsManager.isLoggedIn() ? State.LOGGED_IN : State.LOGGED_OUT;
+    }
+
+    /**
+     * Get singleton instance of AuthStateMachine
+     */
+    public static synchronized AuthStateMachine getInstance(Context context) {
+        if (instance == null) {
+            instance = new AuthStateMachine(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Forget the cached state so the next call reads storage again (tests only)
+     */
+    @VisibleForTesting
+    public static synchronized void resetInstance() {
+        instance = null;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public boolean isLoggedIn() {
+        return getState() == State.LOGGED_IN;
+    }
+
+    /**
+     * Resolve a stored session at app start (Remember Me or not) and publish the outcome
+     *
+     * @return true if the user stays logged in
+     */
+    public boolean restoreSession() {
+        boolean maintained = sharedPrefsManager.shouldMaintainSession();
+        moveTo(maintained ? State.LOGGED_IN : State.LOGGED_OUT, ANY);
+        return maintained;
+    }
+
+    /**
+     * restoreSession() off the main thread, for screens that must not wait on storage
+     */
+    public void restoreSessionAsync(RestoreCallback callback) {
+        storageExecutor.execute(() -> {
+            boolean maintained = restoreSession();
+            mainHandler.post(() -> callback.onSessionRestored(maintained));
+        });
+    }
+
+    /**
+     * Read what the login form may be prefilled with, off the main thread
+     * The email is only given with Remember Me on, and the password only while still logged in.
+     */
+    public void loadSavedCredentialsAsync(CredentialsCallback callback) {
+        storageExecutor.execute(() -> {
+            String email = "";
+            String password = "";
+            if (sharedPrefsManager.isRememberMeEnabled()) {
+                email = sharedPrefsManager.getUserEmail();
+                if (sharedPrefsManager.isLoggedIn()) {
+                    password = sharedPrefsManager.getSavedPassword();
+                }
+            }
+            String savedEmail = email;
+            String savedPassword = password;
+            mainHandler.post(() -> callback.onSavedCredentials(savedEmail, savedPassword));
+        });
+    }
+
+    /**
+     * Credentials were submitted and are being checked
+     */
+    public void beginAuthentication() {
+        moveTo(State.AUTHENTICATING, EnumSet.of(State.LOGGED_OUT, State.EXPIRED));
+    }
+
+    /**
+     * The check failed; back to LOGGED_OUT without touching storage
+     */
+    public void authenticationFailed() {
+        moveTo(State.LOGGED_OUT, EnumSet.of(State.AUTHENTICATING));
+    }
+
+    /**
+     * The screen that started the check went away before its result; back to LOGGED_OUT
+     * A check that already wrote the session has moved on to LOGGED_IN, which stays.
+     */
+    public void authenticationAbandoned() {
+        moveTo(State.LOGGED_OUT, EnumSet.of(State.AUTHENTICATING));
+    }
+
+    /**
+     * Write the new session and publish LOGGED_IN
+     */
+    public void loggedIn(String email, String name, String password, boolean rememberMe) {
+        sharedPrefsManager.createLoginSession(email, name, password, rememberMe);
+        synchronized (this) {
+            lastActivityStamp = SystemClock.elapsedRealtime();
+        }
+        moveTo(State.LOGGED_IN, ANY);
+    }
+
+    /**
+     * Clear the session and publish LOGGED_OUT
+     */
+    public void logout() {
+        sharedPrefsManager.logout();
+        moveTo(State.LOGGED_OUT, ANY);
+    }
+
+    /**
+     * The session was ended for inactivity (already removed from storage by the caller)
+     */
+    public void sessionExpired() {
+        moveTo(State.EXPIRED, EnumSet.of(State.LOGGED_IN));
+    }
+
+    /**
+     * Stamp the session as active; storage is only touched once per stamp interval,
+     * and off the calling thread since screens call this from onResume
+     */
+    public void onUserActive() {
+        long now = SystemClock.elapsedRealtime();
+        synchronized (this) {
+            if (state != State.LOGGED_IN || (lastActivityStamp != 0
+                    && now - lastActivityStamp < SharedPrefsManager.ACTIVITY_STAMP_INTERVAL_MS)) {
+                return;
+            }
+            lastActivityStamp = now;
+        }
+        storageExecutor.execute(sharedPrefsManager::touchSession);
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Take the transition if the current state is one of from; a no-op move is not published
+     */
+    private void moveTo(State next, EnumSet<State> from) {
+        synchronized (this) {
+            if (state == next || !from.contains(state)) {
+                return;
+            }
+            state = next;
+        }
+        notifyListeners(next);
+    }
+
+    private void notifyListeners(State next) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            for (Listener listener : listeners) {
+                listener.onAuthStateChanged(this, next);
+            }
+        } else {
+            mainHandler.post(() -> notifyListeners(next));
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.login_shared_pref.utils;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.graphics.drawable.GradientDrawable;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import androidx.annotation.VisibleForTesting;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Renders circular initials avatars on a color derived from the user's email
+ * Bitmaps are cached in memory (LruCache) and on disk, and rendered off the main thread
+ */
+public class AvatarRenderer {
+
+    private static final String DISK_CACHE_DIR = "avatars";
+
+    // Memory cache budget: 1/16 of the heap, at most 4 MB
+    private static final int MAX_CACHE_KB = 4 * 1024;
+
+    private static final int[] PALETTE = {
+            0xFF2196F3, 0xFF4CAF50, 0xFFFF9800, 0xFF9C27B0,
+            0xFF009688, 0xFFE91E63, 0xFF3F51B5, 0xFF795548
+    };
+
+    private final Context context;
+    private final LruCache<String, Bitmap> memoryCache;
+    private final File diskCacheDir;
+    private final ExecutorService renderExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Singleton instance
+    private static AvatarRenderer instance;
+
+    private AvatarRenderer(Context context) {
+        this.context = context;
+        int heapKb = (int) (Runtime.getRuntime().maxMemory() / 1024);
+        memoryCache = new LruCache<String, Bitmap>(Math.min(heapKb / 16, MAX_CACHE_KB)) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getByteCount() / 1024;
+            }
+        };
+        diskCacheDir = new File(context.getCacheDir(), DISK_CACHE_DIR);
+    }
+
+    /**
+     * Get singleton instance of AvatarRenderer
+     */
+    public static synchronized AvatarRenderer getInstance(Context context) {
+        if (instance == null) {
+            instance = new AvatarRenderer(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Drop the singleton so the next getInstance binds to a fresh context (tests only)
+     */
+    @VisibleForTesting
+    public static synchronized void resetInstance() {
+        instance = null;
+    }
+
+    /**
+     * Show the avatar in the target view
+     * A cached bitmap is set immediately; otherwise a colored placeholder is shown
+     * while the bitmap is loaded from disk or rendered in the background.
+     */
+    public void bind(ImageView target, String email, String initials, int sizePx) {
+        boolean darkTheme = isDarkTheme();
+        String key = cacheKey(email, initials, sizePx, darkTheme);
+        target.setTag(key);
+
+        Bitmap cached = memoryCache.get(key);
+        if (cached != null) {
+            target.setImageBitmap(cached);
+            return;
+        }
+
+        target.setImageDrawable(createPlaceholder(email, darkTheme));
+        renderExecutor.execute(() -> {
+            Bitmap bitmap = loadOrRender(email, initials, sizePx, darkTheme, key);
+            mainHandler.post(() -> {
+                // The view may have been rebound to another user while we were rendering
+                if (key.equals(target.getTag())) {
+                    target.setImageBitmap(bitmap);
+                }
+            });
+        });
+    }
+
+    /**
+     * Drop all cached bitmaps (e.g. on logout)
+     */
+    public void clearMemoryCache() {
+        memoryCache.evictAll();
+    }
+
+    /**
+     * Delete disk-cached avatars not written for maxAgeMs; call off the main thread
+     *
+     * @return number of files deleted
+     */
+    public int trimDiskCache(long now, long maxAgeMs) {
+        File[] files = diskCacheDir.listFiles();
+        if (files == null) {
+            return 0;
+        }
+        int deleted = 0;
+        for (File file : files) {
+            if (now - file.lastModified() >= maxAgeMs && file.delete()) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    private Bitmap loadOrRender(String email, String initials, int sizePx, boolean darkTheme, String key) {
+        Bitmap bitmap = memoryCache.get(key);
+        if (bitmap != null) {
+            return bitmap;
+        }
+
+        String filePrefix = diskPrefix(email, sizePx, darkTheme);
+        File file = new File(diskCacheDir, filePrefix + sha1(initials) + ".png");
+        if (file.exists()) {
+            bitmap = BitmapFactory.decodeFile(file.getPath());
+        }
+        if (bitmap == null) {
+            bitmap = render(email, initials, sizePx, darkTheme);
+            writeToDisk(bitmap, file, filePrefix);
+        }
+
+        memoryCache.put(key, bitmap);
+        return bitmap;
+    }
+
+    /**
+     * Draw the initials centered on a filled circle
+     */
+    private Bitmap render(String email, String initials, int sizePx, boolean darkTheme) {
+        Bitmap bitmap = Bitmap.createBitmap(sizePx, sizePx, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+
+        Paint circlePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        circlePaint.setColor(colorFor(email, darkTheme));
+        float radius = sizePx / 2f;
+        canvas.drawCircle(radius, radius, radius, circlePaint);
+
+        Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        textPaint.setColor(Color.WHITE);
+        textPaint.setTypeface(Typeface.DEFAULT_BOLD);
+        textPaint.setTextAlign(Paint.Align.CENTER);
+        textPaint.setTextSize(sizePx * 0.4f);
+        float baseline = radius - (textPaint.descent() + textPaint.ascent()) / 2f;
+        canvas.drawText(initials, radius, baseline, textPaint);
+
+        return bitmap;
+    }
+
+    private void writeToDisk(Bitmap bitmap, File file, String filePrefix) {
+        if (!diskCacheDir.exists() && !diskCacheDir.mkdirs()) {
+            return;
+        }
+
+        // Older renders for the same email/size/theme carry outdated initials
+        File[] stale = diskCacheDir.listFiles((dir, name) -> name.startsWith(filePrefix));
+        if (stale != null) {
+            for (File old : stale) {
+                old.delete();
+            }
+        }
+
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+        } catch (IOException e) {
+            // Disk cache is best effort; the bitmap is still in memory
+            file.delete();
+        }
+    }
+
+    private GradientDrawable createPlaceholder(String email, boolean darkTheme) {
+        GradientDrawable placeholder = new GradientDrawable();
+        placeholder.setShape(GradientDrawable.OVAL);
+        placeholder.setColor(colorFor(email, darkTheme));
+        return placeholder;
+    }
+
+    /**
+     * Pick a stable palette color from the email hash; darker variant for night mode
+     */
+    private static int colorFor(String email, boolean darkTheme) {
+        String normalized = email != null ? email.trim().toLowerCase(Locale.ROOT) : "";
+        int color = PALETTE[(normalized.hashCode() & 0x7FFFFFFF) % PALETTE.length];
+        if (!darkTheme) {
+            return color;
+        }
+        return Color.rgb((int) (Color.red(color) * 0.8f),
+                (int) (Color.green(color) * 0.8f),
+                (int) (Color.blue(color) * 0.8f));
+    }
+
+    private boolean isDarkTheme() {
+        int nightMode = context.getResources().getConfiguration().uiMode
+                & Configuration.UI_MODE_NIGHT_MASK;
+        return nightMode == Configuration.UI_MODE_NIGHT_YES;
+    }
+
+    /**
+     * Cache key is (email, size, theme); the initials are appended so a rename misses the cache
+     */
+    @VisibleForTesting
+    static String cacheKey(String email, String initials, int sizePx, boolean darkTheme) {
+        return email + "|" + sizePx + "|" + (darkTheme ? "dark" : "light") + "|" + initials;
+    }
+
+    private static String diskPrefix(String email, int sizePx, boolean darkTheme) {
+        return sha1(email) + "_" + sizePx + "_" + (darkTheme ? "dark" : "light") + "_";
+    }
+
+    private static String sha1(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(String.format(Locale.ROOT, "%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.login_shared_pref.utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Compact protobuf-like binary encoding for preference maps
+ *
+ * Layout: magic, version, varint entry count, then per entry a type byte, a
+ * length-prefixed UTF-8 key and the value (varints are zigzag encoded), and a
+ * trailing CRC32 of everything before it so torn or corrupt files are detected.
+ */
+final class BinaryPrefsCodec {
+
+    private static final int MAGIC = 0x4C415042; // "LAPB"
+    private static final int VERSION = 1;
+
+    private static final int TYPE_BOOLEAN = 1;
+    private static final int TYPE_INT = 2;
+    private static final int TYPE_LONG = 3;
+    private static final int TYPE_FLOAT = 4;
+    private static final int TYPE_STRING = 5;
+    private static final int TYPE_STRING_SET = 6;
+
+    private BinaryPrefsCodec() {
+    }
+
+    /**
+     * Encode a preference map; values must be the types SharedPreferences supports
+     */
+    static byte[] encode(Map<String, ?> map) {
+        Output out = new Output(64 + map.size() * 32);
+        out.writeFixed32(MAGIC);
+        out.writeByte(VERSION);
+        out.writeVarint(map.size());
+
+        for (Map.Entry<String, ?> entry : map.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof Boolean) {
+                out.writeByte(TYPE_BOOLEAN);
+                out.writeString(entry.getKey());
+                out.writeByte((Boolean) value ? 1 : 0);
+            } else if (value instanceof Integer) {
+                out.writeByte(TYPE_INT);
+                out.writeString(entry.getKey());
+                out.writeVarint(zigzag((Integer) value));
+            } else if (value instanceof Long) {
+                out.writeByte(TYPE_LONG);
+                out.writeString(entry.getKey());
+                out.writeVarint(zigzag((Long) value));
+            } else if (value instanceof Float) {
+                out.writeByte(TYPE_FLOAT);
+                out.writeString(entry.getKey());
+                out.writeFixed32(Float.floatToIntBits((Float) value));
+            } else if (value instanceof String) {
+                out.writeByte(TYPE_STRING);
+                out.writeString(entry.getKey());
+                out.writeString((String) value);
+            } else if (value instanceof Set) {
+                Set<?> set = (Set<?>) value;
+                out.writeByte(TYPE_STRING_SET);
+                out.writeString(entry.getKey());
+                out.writeVarint(set.size());
+                for (Object item : set) {
+                    out.writeString((String) item);
+                }
+            } else {
+                throw new IllegalArgumentException("Unsupported value type for " + entry.getKey());
+            }
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(out.buffer, 0, out.size);
+        out.writeFixed32((int) crc.getValue());
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode bytes written by encode
+     *
+     * @throws IOException if the data is truncated, corrupt or from an unknown version
+     */
+    static Map<String, Object> decode(byte[] data) throws IOException {
+        if (data.length < 9) {
+            throw new IOException("Truncated preference file");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length - 4);
+        Input trailer = new Input(data, data.length - 4, data.length);
+        if ((int) crc.getValue() != trailer.readFixed32()) {
+            throw new IOException("Checksum mismatch");
+        }
+
+        Input in = new Input(data, 0, data.length - 4);
+        if (in.readFixed32() != MAGIC) {
+            throw new IOException("Not a preference file");
+        }
+        int version = in.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported version " + version);
+        }
+
+        int count = (int) in.readVarint();
+        Map<String, Object> map = new HashMap<>(Math.max(16, count * 4 / 3 + 1));
+        for (int i = 0; i < count; i++) {
+            int type = in.readByte();
+            String key = in.readString();
+            switch (type) {
+                case TYPE_BOOLEAN:
+                    map.put(key, in.readByte() != 0);
+                    break;
+                case TYPE_INT:
+                    map.put(key, (int) unzigzag(in.readVarint()));
+                    break;
+                case TYPE_LONG:
+                    map.put(key, unzigzag(in.readVarint()));
+                    break;
+                case TYPE_FLOAT:
+                    map.put(key, Float.intBitsToFloat(in.readFixed32()));
+                    break;
+                case TYPE_STRING:
+                    map.put(key, in.readString());
+                    break;
+                case TYPE_STRING_SET:
+                    int size = (int) in.readVarint();
+                    Set<String> set = new HashSet<>();
+                    for (int j = 0; j < size; j++) {
+                        set.add(in.readString());
+                    }
+                    map.put(key, set);
+                    break;
+                default:
+                    throw new IOException("Unknown value type " + type);
+            }
+        }
+        return map;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Growable output buffer
+     */
+    private static final class Output {
+        byte[] buffer;
+        int size;
+
+        Output(int capacity) {
+            buffer = new byte[capacity];
+        }
+
+        void ensure(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            buffer[size++] = (byte) value;
+        }
+
+        void writeFixed32(int value) {
+            ensure(4);
+            buffer[size++] = (byte) (value >>> 24);
+            buffer[size++] = (byte) (value >>> 16);
+            buffer[size++] = (byte) (value >>> 8);
+            buffer[size++] = (byte) value;
+        }
+
+        void writeVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+    }
+
+    /**
+     * Bounds-checked reader over a byte range
+     */
+    private static final class Input {
+        final byte[] data;
+        final int limit;
+        int position;
+
+        Input(byte[] data, int offset, int limit) {
+            this.data = data;
+            this.position = offset;
+            this.limit = limit;
+        }
+
+        void require(int count) throws IOException {
+            if (count < 0 || position + count > limit) {
+                throw new IOException("Truncated preference file");
+            }
+        }
+
+        int readByte() throws IOException {
+            require(1);
+            return data[position++] & 0xFF;
+        }
+
+        int readFixed32() throws IOException {
+            require(4);
+            return ((data[position++] & 0xFF) << 24)
+                    | ((data[position++] & 0xFF) << 16)
+                    | ((data[position++] & 0xFF) << 8)
+                    | (data[position++] & 0xFF);
+        }
+
+        long readVarint() throws IOException {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        String readString() throws IOException {
+            long length = readVarint();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("String too long");
+            }
+            require((int) length);
+            String value = new String(data, position, (int) length, StandardCharsets.UTF_8);
+            position += (int) length;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.login_shared_pref.utils;
+
+import android.content.Context;
+
+/**
+ * Offline check of passwords against known breaches
+ *
+ * Looks the password's SHA-1 prefix up in a HashPrefixTable bundled as an asset and
+ * memory-mapped on first use, so no password or hash ever leaves the device. A lookup
+ * is one SHA-1 plus a few microseconds of searching, cheap enough for the main thread.
+ * Regenerate the asset with ./gradlew :app:buildBreachedTable -PbreachList=<file>.
+ */
+public final class BreachedPasswords {
+
+    private static final String ASSET_NAME = "breached_passwords.bin";
+
+    private static volatile BreachedPasswords instance;
+
+    private final HashPrefixTable table;
+
+    BreachedPasswords(HashPrefixTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Get singleton instance of BreachedPasswords, mapping the asset on first use
+     */
+    public static BreachedPasswords getInstance(Context context) {
+        BreachedPasswords local = instance;
+        if (local == null) {
+            synchronized (BreachedPasswords.class) {
+                local = instance;
+                if (local == null) {
+                    local = new BreachedPasswords(new HashPrefixTable(
+                            CommonPasswords.mapAsset(context.getApplicationContext(), ASSET_NAME)));
+                    instance = local;
+                }
+            }
+        }
+        return local;
+    }
+
+    /**
+     * Whether the password appears in the bundled breach list
+     */
+    public boolean isBreached(String password) {
+        return password != null && !password.isEmpty() && table.containsPassword(password);
+    }
+
+    public int size() {
+        return table.size();
+    }
+}
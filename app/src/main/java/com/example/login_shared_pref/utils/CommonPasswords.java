@@ -0,0 +1,183 @@
+package com.example.login_shared_pref.utils;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.util.Log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read-only dictionary of common passwords, searched in place
+ *
+ * The asset is a byte-sorted list of lower-case ASCII passwords, one per line. It is
+ * stored uncompressed in the APK (see noCompress in build.gradle) so it can be
+ * memory-mapped straight from the package: nothing is parsed or copied onto the heap,
+ * and a lookup only faults in the few pages its binary search touches. Searches work on
+ * line ranges, so a caller can narrow the range of candidates one character at a time
+ * (see narrow()) instead of searching the whole word again on every keystroke.
+ */
+public final class CommonPasswords {
+
+    private static final String TAG = "CommonPasswords";
+    private static final String ASSET_NAME = "common_passwords.txt";
+    private static final byte NEWLINE = '\n';
+
+    /**
+     * Range that matches nothing
+     */
+    public static final long NO_MATCH = -1L;
+
+    private static volatile CommonPasswords instance;
+
+    private final ByteBuffer data;
+    private final int limit;
+
+    /**
+     * Wrap a sorted, newline-terminated word list
+     */
+    CommonPasswords(ByteBuffer data) {
+        this.data = data;
+        this.limit = data.limit();
+    }
+
+    /**
+     * Get singleton instance of CommonPasswords, mapping the asset on first use
+     */
+    public static CommonPasswords getInstance(Context context) {
+        CommonPasswords local = instance;
+        if (local == null) {
+            synchronized (CommonPasswords.class) {
+                local = instance;
+                if (local == null) {
+                    local = new CommonPasswords(mapAsset(context.getApplicationContext(), ASSET_NAME));
+                    instance = local;
+                }
+            }
+        }
+        return local;
+    }
+
+    /**
+     * Map an uncompressed asset read-only, or read it if it cannot be mapped; empty if missing
+     */
+    static ByteBuffer mapAsset(Context context, String assetName) {
+        try (AssetFileDescriptor fd = context.getAssets().openFd(assetName);
+             FileInputStream input = new FileInputStream(fd.getFileDescriptor());
+             FileChannel channel = input.getChannel()) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, fd.getStartOffset(), fd.getLength());
+        } catch (IOException e) {
+            // openFd() fails if the asset was compressed; fall back to reading it
+            Log.w(TAG, "Cannot map " + assetName + ", reading it instead", e);
+        }
+        try (InputStream input = context.getAssets().open(assetName)) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+            return ByteBuffer.wrap(bytes.toByteArray());
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot read " + assetName, e);
+            return ByteBuffer.allocate(0);
+        }
+    }
+
+    /**
+     * Range of every word (the empty prefix)
+     */
+    public long all() {
+        return limit == 0 ? NO_MATCH : range(0, limit);
+    }
+
+    /**
+     * Narrow a range of words sharing a prefix of length depth to those whose next
+     * character is c. O(log n) single-byte comparisons.
+     */
+    public long narrow(long range, int depth, char c) {
+        if (range == NO_MATCH || c >= 0x80) {
+            return NO_MATCH;
+        }
+        int start = lowerBound(start(range), end(range), depth, c);
+        int end = lowerBound(start, end(range), depth, c + 1);
+        return start == end ? NO_MATCH : range(start, end);
+    }
+
+    /**
+     * Whether the range, reached after depth characters, contains that exact word
+     */
+    public boolean isWord(long range, int depth) {
+        // Shorter words sort first, so an exact match is always the first line
+        return range != NO_MATCH && keyAt(start(range), depth) == -1;
+    }
+
+    /**
+     * Whether word (case-insensitive) is in the dictionary
+     */
+    public boolean contains(CharSequence word) {
+        long range = all();
+        for (int i = 0; i < word.length() && range != NO_MATCH; i++) {
+            range = narrow(range, i, Character.toLowerCase(word.charAt(i)));
+        }
+        return isWord(range, word.length());
+    }
+
+    /**
+     * First line in [start, end) whose character at depth is at least target, given
+     * that all those lines share their first depth characters and so sort by it
+     */
+    private int lowerBound(int start, int end, int depth, int target) {
+        while (start < end) {
+            int mid = lineStart((start + end) >>> 1);
+            if (keyAt(mid, depth) < target) {
+                start = nextLine(mid + depth);
+            } else {
+                end = mid;
+            }
+        }
+        return start;
+    }
+
+    /**
+     * Character at depth of the line, or -1 past its end
+     */
+    private int keyAt(int line, int depth) {
+        int position = line + depth;
+        if (position >= limit) {
+            return -1;
+        }
+        byte b = data.get(position);
+        return b == NEWLINE ? -1 : b & 0xFF;
+    }
+
+    private int lineStart(int position) {
+        while (position > 0 && data.get(position - 1) != NEWLINE) {
+            position--;
+        }
+        return position;
+    }
+
+    private int nextLine(int position) {
+        while (position < limit && data.get(position++) != NEWLINE) {
+            // Skip to the character after the newline
+        }
+        return position;
+    }
+
+    private static long range(int start, int end) {
+        return ((long) start << 32) | end;
+    }
+
+    private static int start(long range) {
+        return (int) (range >>> 32);
+    }
+
+    private static int end(long range) {
+        return (int) range;
+    }
+}
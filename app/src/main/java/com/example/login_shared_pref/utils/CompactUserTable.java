@@ -0,0 +1,333 @@
+package com.example.login_shared_pref.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Packed, read-mostly copy of the user directory (email, name, password per account)
+ *
+ * Records are appended to one byte array as varint-length-prefixed UTF-8 fields, and an
+ * open-addressing table of int offsets (linear probing, cached hashes) finds them by
+ * email. The "user_<email>_name" / "_password" key scheme is implied by the field
+ * order, so the repeated prefixes and suffixes of the prefs keys are not stored at all.
+ * Overwritten and removed records leave dead bytes behind until compact().
+ *
+ * Not thread-safe: build it on one thread, then share it read-only.
+ */
+public final class CompactUserTable {
+
+    private static final int EMPTY = 0;
+    private static final int DELETED = -1;
+    private static final int MIN_CAPACITY = 16;
+    // Rehash above this fill (live + deleted slots), in 1/8ths
+    private static final int MAX_FILL_EIGHTHS = 5;
+
+    // Record offset + 1, or EMPTY / DELETED
+    private int[] slots;
+    private int[] hashes;
+    private byte[] arena;
+    private int arenaSize;
+    private int size;
+    private int deletedSlots;
+    private int deadBytes;
+
+    public CompactUserTable(int expectedAccounts) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * MAX_FILL_EIGHTHS / 8 < expectedAccounts) {
+            capacity <<= 1;
+        }
+        slots = new int[capacity];
+        hashes = new int[capacity];
+        arena = new byte[Math.max(64, expectedAccounts * 48)];
+    }
+
+    /**
+     * Pack the accounts found in user shard maps ("user_<email>_name" / "_password")
+     */
+    public static CompactUserTable fromShards(Iterable<? extends Map<String, ?>> shards) {
+        // Shards also hold login and version stamps, so count the accounts themselves
+        int accounts = 0;
+        for (Map<String, ?> shard : shards) {
+            for (Map.Entry<String, ?> entry : shard.entrySet()) {
+                if (isPasswordEntry(entry)) {
+                    accounts++;
+                }
+            }
+        }
+        CompactUserTable table = new CompactUserTable(accounts);
+        for (Map<String, ?> shard : shards) {
+            for (Map.Entry<String, ?> entry : shard.entrySet()) {
+                if (!isPasswordEntry(entry)) {
+                    continue;
+                }
+                String key = entry.getKey();
+                String prefix = key.substring(0, key.length() - "_password".length());
+                Object name = shard.get(prefix + "_name");
+                table.put(prefix.substring("user_".length()),
+                        name instanceof String ? (String) name : "", (String) entry.getValue());
+            }
+        }
+        table.trimToSize();
+        return table;
+    }
+
+    private static boolean isPasswordEntry(Map.Entry<String, ?> entry) {
+        String key = entry.getKey();
+        return key.startsWith("user_") && key.endsWith("_password") && entry.getValue() instanceof String;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(String email) {
+        return find(email) >= 0;
+    }
+
+    /**
+     * Name of the account, or null if there is none
+     */
+    public String getName(String email) {
+        return field(email, 1);
+    }
+
+    /**
+     * Password of the account, or null if there is none
+     */
+    public String getPassword(String email) {
+        return field(email, 2);
+    }
+
+    /**
+     * Add or replace an account
+     */
+    public void put(String email, String name, String password) {
+        byte[] emailBytes = email.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(email);
+        int slot = find(emailBytes, hash);
+        if (slot >= 0) {
+            deadBytes += recordLength(slots[slot] - 1);
+            slots[slot] = append(emailBytes, name, password) + 1;
+            compactIfWasteful();
+            return;
+        }
+
+        if ((size + deletedSlots + 1) * 8 > slots.length * MAX_FILL_EIGHTHS) {
+            rehash(size + 1 > slots.length * MAX_FILL_EIGHTHS / 16 ? slots.length << 1 : slots.length);
+        }
+        int offset = append(emailBytes, name, password);
+        insert(hash, offset);
+        size++;
+    }
+
+    public boolean remove(String email) {
+        int slot = find(email);
+        if (slot < 0) {
+            return false;
+        }
+        deadBytes += recordLength(slots[slot] - 1);
+        slots[slot] = DELETED;
+        size--;
+        deletedSlots++;
+        compactIfWasteful();
+        return true;
+    }
+
+    /**
+     * Drop dead records and deleted slots, and shrink the arrays to fit
+     */
+    public void compact() {
+        byte[] packed = new byte[Math.max(64, arenaSize - deadBytes)];
+        int packedSize = 0;
+        int[] oldSlots = slots;
+        int[] oldHashes = hashes;
+
+        int capacity = MIN_CAPACITY;
+        while (capacity * MAX_FILL_EIGHTHS / 8 < size) {
+            capacity <<= 1;
+        }
+        slots = new int[capacity];
+        hashes = new int[capacity];
+        deletedSlots = 0;
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldSlots[i] > 0) {
+                int offset = oldSlots[i] - 1;
+                int length = recordLength(offset);
+                System.arraycopy(arena, offset, packed, packedSize, length);
+                insert(oldHashes[i], packedSize);
+                packedSize += length;
+            }
+        }
+        arena = packed;
+        arenaSize = packedSize;
+        deadBytes = 0;
+    }
+
+    /**
+     * Approximate heap used by the table, including array headers
+     */
+    public long memoryBytes() {
+        return 48 + arrayBytes(slots.length * 4L) + arrayBytes(hashes.length * 4L) + arrayBytes(arena.length);
+    }
+
+    private void trimToSize() {
+        if (deadBytes > 0 || deletedSlots > 0) {
+            compact();
+        } else if (arena.length > arenaSize) {
+            arena = Arrays.copyOf(arena, Math.max(64, arenaSize));
+        }
+    }
+
+    private void compactIfWasteful() {
+        if (deadBytes > 4096 && deadBytes > arenaSize / 2) {
+            compact();
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] oldSlots = slots;
+        int[] oldHashes = hashes;
+        slots = new int[capacity];
+        hashes = new int[capacity];
+        deletedSlots = 0;
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldSlots[i] > 0) {
+                insert(oldHashes[i], oldSlots[i] - 1);
+            }
+        }
+    }
+
+    private void insert(int hash, int offset) {
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] > 0) {
+            slot = (slot + 1) & mask;
+        }
+        if (slots[slot] == DELETED) {
+            deletedSlots--;
+        }
+        slots[slot] = offset + 1;
+        hashes[slot] = hash;
+    }
+
+    private int find(String email) {
+        return find(email.getBytes(StandardCharsets.UTF_8), hash(email));
+    }
+
+    /**
+     * Slot holding the email, or -1
+     */
+    private int find(byte[] emailBytes, int hash) {
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        for (int probes = 0; probes < slots.length; probes++) {
+            int entry = slots[slot];
+            if (entry == EMPTY) {
+                return -1;
+            }
+            if (entry > 0 && hashes[slot] == hash && emailEquals(entry - 1, emailBytes)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private boolean emailEquals(int offset, byte[] emailBytes) {
+        int length = readVarint(offset);
+        if (length != emailBytes.length) {
+            return false;
+        }
+        int start = offset + varintSize(length);
+        for (int i = 0; i < length; i++) {
+            if (arena[start + i] != emailBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Field 0 (email), 1 (name) or 2 (password) of the email's record
+     */
+    private String field(String email, int field) {
+        int slot = find(email);
+        if (slot < 0) {
+            return null;
+        }
+        int position = slots[slot] - 1;
+        for (int i = 0; i < field; i++) {
+            int length = readVarint(position);
+            position += varintSize(length) + length;
+        }
+        int length = readVarint(position);
+        return new String(arena, position + varintSize(length), length, StandardCharsets.UTF_8);
+    }
+
+    private int recordLength(int offset) {
+        int position = offset;
+        for (int i = 0; i < 3; i++) {
+            int length = readVarint(position);
+            position += varintSize(length) + length;
+        }
+        return position - offset;
+    }
+
+    private int append(byte[] emailBytes, String name, String password) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        byte[] passwordBytes = password.getBytes(StandardCharsets.UTF_8);
+        int needed = varintSize(emailBytes.length) + emailBytes.length
+                + varintSize(nameBytes.length) + nameBytes.length
+                + varintSize(passwordBytes.length) + passwordBytes.length;
+        if (arenaSize + needed > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaSize + needed));
+        }
+        int offset = arenaSize;
+        writeField(emailBytes);
+        writeField(nameBytes);
+        writeField(passwordBytes);
+        return offset;
+    }
+
+    private void writeField(byte[] bytes) {
+        int value = bytes.length;
+        while ((value & ~0x7F) != 0) {
+            arena[arenaSize++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        arena[arenaSize++] = (byte) value;
+        System.arraycopy(bytes, 0, arena, arenaSize, bytes.length);
+        arenaSize += bytes.length;
+    }
+
+    private int readVarint(int position) {
+        int result = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = arena[position++];
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+    }
+
+    private static int varintSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    // Spread String.hashCode so sequential emails do not cluster under linear probing
+    private static int hash(String email) {
+        int h = email.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static long arrayBytes(long payload) {
+        return (16 + payload + 7) & ~7L;
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.login_shared_pref.utils;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Small bounded pool for credential work the user is waiting on (login, registration,
+ * password changes and resets)
+ *
+ * Queued tasks run FIFO. The pool has a fixed number of slots, held from submit until
+ * the task finishes: a submission that finds none free gets back a task that has
+ * already failed with RejectedExecutionException. Tasks are Futures and can be
+ * cancelled; a cancelled task leaves the queue and frees its slot at once. UI callers
+ * should not block on a task: whenDone() hands completion to an executor of theirs,
+ * such as a main-thread Handler.
+ */
+public final class CryptoExecutor {
+
+    // Tasks queue by priority, then FIFO; only interactive work uses the pool today
+    public enum Priority {
+        INTERACTIVE(16);
+
+        final int slots;
+
+        Priority(int slots) {
+            this.slots = slots;
+        }
+    }
+
+    private static final Priority[] PRIORITIES = Priority.values();
+    // Leave a core for the UI thread; hashing is CPU-bound, so more threads only add contention
+    private static final int THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+    private static CryptoExecutor instance;
+
+    private final ThreadPoolExecutor executor;
+    private final Semaphore[] slots = new Semaphore[PRIORITIES.length];
+    private final AtomicInteger[] queued = new AtomicInteger[PRIORITIES.length];
+    private final LatencyHistogram[] waitTimes = new LatencyHistogram[PRIORITIES.length];
+    private final AtomicLongArray completed = new AtomicLongArray(PRIORITIES.length);
+    private final AtomicLongArray rejected = new AtomicLongArray(PRIORITIES.length);
+    private final AtomicLong sequence = new AtomicLong();
+
+    CryptoExecutor(int threads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "CryptoExecutor-" + threadCount.incrementAndGet());
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        for (Priority priority : PRIORITIES) {
+            slots[priority.ordinal()] = new Semaphore(priority.slots);
+            queued[priority.ordinal()] = new AtomicInteger();
+            waitTimes[priority.ordinal()] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Get singleton instance of CryptoExecutor
+     */
+    public static synchronized CryptoExecutor getInstance() {
+        if (instance == null) {
+            instance = new CryptoExecutor(THREADS);
+        }
+        return instance;
+    }
+
+    /**
+     * Queue work a user is waiting on
+     * If every interactive slot is taken, or the pool is shut down, the returned task has
+     * already failed with RejectedExecutionException; it never throws.
+     */
+    public <T> Task<T> submitInteractive(Callable<T> work) {
+        if (!slots[Priority.INTERACTIVE.ordinal()].tryAcquire()) {
+            rejected.incrementAndGet(Priority.INTERACTIVE.ordinal());
+            return rejectedTask(new RejectedExecutionException("Interactive crypto queue is full"), work);
+        }
+        try {
+            return enqueue(Priority.INTERACTIVE, work);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet(Priority.INTERACTIVE.ordinal());
+            return rejectedTask(e, work);
+        }
+    }
+
+    private <T> Task<T> enqueue(Priority priority, Callable<T> work) {
+        Task<T> task = new Task<>(priority, sequence.getAndIncrement(), work);
+        queued[priority.ordinal()].incrementAndGet();
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.cancel(false);
+            throw e;
+        }
+        return task;
+    }
+
+    private <T> Task<T> rejectedTask(RejectedExecutionException cause, Callable<T> work) {
+        Task<T> task = new Task<>(Priority.INTERACTIVE, sequence.getAndIncrement(), work);
+        task.reject(cause);
+        return task;
+    }
+
+    /**
+     * Tasks waiting to start at this priority
+     */
+    public int getQueueDepth(Priority priority) {
+        return queued[priority.ordinal()].get();
+    }
+
+    /**
+     * Time from submission to start for tasks of this priority
+     */
+    public LatencyHistogram getWaitTimes(Priority priority) {
+        return waitTimes[priority.ordinal()];
+    }
+
+    public long getCompletedCount(Priority priority) {
+        return completed.get(priority.ordinal());
+    }
+
+    public long getRejectedCount(Priority priority) {
+        return rejected.get(priority.ordinal());
+    }
+
+    /**
+     * A queued or running piece of work; cancel() removes it from the queue
+     */
+    public final class Task<T> extends FutureTask<T> implements Comparable<Task<?>> {
+        private final Priority priority;
+        private final long order;
+        private final long submittedNanos = System.nanoTime();
+        // Set once the task has left the queue, by running or by being cancelled
+        private final AtomicInteger dequeued = new AtomicInteger();
+        // False only for a task rejected at submit, which never took a slot
+        private boolean holdsSlot = true;
+        // Guarded by this
+        private final List<Runnable> completionCallbacks = new ArrayList<>();
+        private boolean finished;
+
+        Task(Priority priority, long order, Callable<T> work) {
+            super(work);
+            this.priority = priority;
+            this.order = order;
+        }
+
+        public Priority getPriority() {
+            return priority;
+        }
+
+        /**
+         * Wait for the result, or return fallback if the work failed or was cancelled
+         */
+        public T await(T fallback) {
+            try {
+                return get();
+            } catch (ExecutionException | CancellationException e) {
+                return fallback;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return fallback;
+            }
+        }
+
+        /**
+         * Run callback on callbackExecutor once the task has finished, failed or been
+         * cancelled; at once if it already has
+         */
+        public void whenDone(Executor callbackExecutor, Runnable callback) {
+            synchronized (this) {
+                if (!finished) {
+                    completionCallbacks.add(() -> callbackExecutor.execute(callback));
+                    return;
+                }
+            }
+            callbackExecutor.execute(callback);
+        }
+
+        /**
+         * Fail the task without running it (before it was queued)
+         */
+        void reject(RejectedExecutionException cause) {
+            holdsSlot = false;
+            dequeued.set(1);
+            setException(cause);
+        }
+
+        @Override
+        public void run() {
+            if (leaveQueue()) {
+                waitTimes[priority.ordinal()].record(System.nanoTime() - submittedNanos);
+            }
+            super.run();
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled && leaveQueue()) {
+                executor.remove(this);
+            }
+            return cancelled;
+        }
+
+        @Override
+        protected void done() {
+            if (holdsSlot) {
+                if (!isCancelled()) {
+                    completed.incrementAndGet(priority.ordinal());
+                }
+                slots[priority.ordinal()].release();
+            }
+
+            List<Runnable> callbacks;
+            synchronized (this) {
+                finished = true;
+                callbacks = new ArrayList<>(completionCallbacks);
+                completionCallbacks.clear();
+            }
+            for (Runnable callback : callbacks) {
+                callback.run();
+            }
+        }
+
+        private boolean leaveQueue() {
+            if (dequeued.compareAndSet(0, 1)) {
+                queued[priority.ordinal()].decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public int compareTo(@NonNull Task<?> other) {
+            if (priority != other.priority) {
+                return Integer.compare(priority.ordinal(), other.priority.ordinal());
+            }
+            return Long.compare(order, other.order);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.login_shared_pref.utils;
+
+import com.example.login_shared_pref.models.DashboardViewState;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the dashboard view state so a resume with unchanged data rebuilds nothing
+ * Date formatting uses immutable, thread-safe java.time formatters, created once per locale.
+ */
+public class DashboardStateCache {
+
+    private static final String LAST_LOGIN_PATTERN = "MMM dd, yyyy";
+    private static final ConcurrentHashMap<Locale, DateTimeFormatter> FORMATTERS = new ConcurrentHashMap<>();
+
+    private DashboardViewState cachedState;
+    private Locale cachedLocale;
+    private ZoneId cachedZone;
+
+    // Singleton instance
+    private static DashboardStateCache instance;
+
+    private DashboardStateCache() {
+    }
+
+    /**
+     * Get singleton instance of DashboardStateCache
+     */
+    public static synchronized DashboardStateCache getInstance() {
+        if (instance == null) {
+            instance = new DashboardStateCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Return the cached state if every input is unchanged, otherwise build and cache a new one
+     * Callers can compare the result by identity to skip rebinding.
+     */
+    public DashboardViewState get(String email, String name, long lastLoginMillis) {
+        return get(email, name, lastLoginMillis, Locale.getDefault(), ZoneId.systemDefault());
+    }
+
+    synchronized DashboardViewState get(String email, String name, long lastLoginMillis,
+                                        Locale locale, ZoneId zone) {
+        DashboardViewState state = cachedState;
+        if (state != null
+                && Objects.equals(state.getEmail(), email)
+                && Objects.equals(state.getName(), name)
+                && state.getLastLoginMillis() == lastLoginMillis
+                && locale.equals(cachedLocale)
+                && zone.equals(cachedZone)) {
+            return state;
+        }
+
+        String lastLoginText = lastLoginMillis > 0 ? formatDate(lastLoginMillis, locale, zone) : null;
+        cachedState = new DashboardViewState(email, name, lastLoginMillis, lastLoginText);
+        cachedLocale = locale;
+        cachedZone = zone;
+        return cachedState;
+    }
+
+    /**
+     * Drop the cached state (e.g. on logout)
+     */
+    public synchronized void clear() {
+        cachedState = null;
+    }
+
+    static String formatDate(long epochMillis, Locale locale, ZoneId zone) {
+        DateTimeFormatter formatter = FORMATTERS.computeIfAbsent(locale,
+                l -> DateTimeFormatter.ofPattern(LAST_LOGIN_PATTERN, l));
+        return formatter.format(Instant.ofEpochMilli(epochMillis).atZone(zone));
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.login_shared_pref.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Compressed, sorted set of 64-bit SHA-1 prefixes, searched in place
+ *
+ * Layout (big-endian): magic "HPT1", count, block size, block count; then per block
+ * its first prefix (8 B) and the offset of its deltas (4 B); then, per block, the gaps
+ * to each following prefix as unsigned varints. Sorted 64-bit prefixes of n hashes are
+ * about 2^64/n apart, so a gap takes ~(64 - log2 n) / 7 bytes instead of 8 and the
+ * table shrinks by a third to a half. A lookup binary searches the block heads and
+ * decodes at most one block, touching two or three pages of a mapped file.
+ *
+ * Keeping 64 of SHA-1's 160 bits makes a false positive (an unbreached password
+ * rejected) about n / 2^64 likely. Tables are produced by HashPrefixTableBuilder, which
+ * lives in the tool source set (src/tool/java) with the buildBreachedTable task, so
+ * only this reader ships in the app.
+ */
+public final class HashPrefixTable {
+
+    static final int MAGIC = 0x48505431; // "HPT1"
+    private static final int HEADER_BYTES = 16;
+    private static final int BLOCK_HEAD_BYTES = 12;
+    static final int DEFAULT_BLOCK_SIZE = 64;
+
+    private final ByteBuffer data;
+    private final int count;
+    private final int blockSize;
+    private final int blocks;
+    private final int deltasStart;
+
+    /**
+     * Read a table written by HashPrefixTableBuilder; the buffer is used in place, not copied
+     */
+    public HashPrefixTable(ByteBuffer data) {
+        if (data.limit() == 0) {
+            // Missing table: matches nothing
+            this.data = data;
+            count = 0;
+            blockSize = 1;
+            blocks = 0;
+            deltasStart = 0;
+            return;
+        }
+        if (data.limit() < HEADER_BYTES || data.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a hash prefix table");
+        }
+        this.data = data;
+        count = data.getInt(4);
+        blockSize = data.getInt(8);
+        blocks = data.getInt(12);
+        deltasStart = HEADER_BYTES + blocks * BLOCK_HEAD_BYTES;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Whether the password's SHA-1 prefix is in the table
+     */
+    public boolean containsPassword(String password) {
+        return contains(prefixOf(password));
+    }
+
+    /**
+     * Whether the 64-bit prefix is in the table. O(log(n / block size) + block size)
+     */
+    public boolean contains(long prefix) {
+        // Last block whose head is <= prefix
+        int low = 0;
+        int high = blocks - 1;
+        int block = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int order = Long.compareUnsigned(head(mid), prefix);
+            if (order == 0) {
+                return true;
+            }
+            if (order < 0) {
+                block = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (block < 0) {
+            return false;
+        }
+
+        long value = head(block);
+        int position = deltasStart + data.getInt(HEADER_BYTES + block * BLOCK_HEAD_BYTES + 8);
+        int entries = Math.min(blockSize, count - block * blockSize);
+        for (int i = 1; i < entries; i++) {
+            long gap = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = data.get(position++);
+                gap |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    break;
+                }
+            }
+            value += gap;
+            int order = Long.compareUnsigned(value, prefix);
+            if (order >= 0) {
+                return order == 0;
+            }
+        }
+        return false;
+    }
+
+    private long head(int block) {
+        return data.getLong(HEADER_BYTES + block * BLOCK_HEAD_BYTES);
+    }
+
+    /**
+     * First 64 bits of the SHA-1 of the password's UTF-8 bytes
+     */
+    public static long prefixOf(String password) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(password.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+    }
+
+    /**
+     * First 64 bits of a hex SHA-1, as in breach corpora ("5BAA61E4C9B93F3F...")
+     */
+    public static long prefixOfHash(String hexSha1) {
+        if (hexSha1.length() < 16) {
+            throw new IllegalArgumentException("Hash too short: " + hexSha1);
+        }
+        return Long.parseUnsignedLong(hexSha1.substring(0, 16), 16);
+    }
+}
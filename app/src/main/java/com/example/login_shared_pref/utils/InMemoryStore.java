@@ -0,0 +1,234 @@
+package com.example.login_shared_pref.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Thread-safe SharedPreferences held in memory, with nothing written to disk
+ *
+ * Backs the IN_MEMORY engine for JVM tests and benchmarks. Behaves like the disk
+ * engines: each Editor's changes land atomically, and listeners hear about keys whose
+ * value actually changed, on the main thread. No Android API is touched until a
+ * listener is registered.
+ */
+public class InMemoryStore implements VersionedPreferences {
+
+    private final Object lock = new Object();
+    private final Map<String, Object> map = new HashMap<>();
+    private final List<OnSharedPreferenceChangeListener> listeners = new ArrayList<>();
+    private Handler mainHandler;
+    private long version;
+
+    /**
+     * Count of edits committed so far
+     */
+    @Override
+    public long getVersion() {
+        synchronized (lock) {
+            return version;
+        }
+    }
+
+    /**
+     * Edits land in memory when committed, so there is nothing to wait for
+     */
+    @Override
+    public void awaitWrites() {
+    }
+
+    @Override
+    public Map<String, ?> getAll() {
+        synchronized (lock) {
+            return new HashMap<>(map);
+        }
+    }
+
+    @Nullable
+    @Override
+    public String getString(String key, @Nullable String defValue) {
+        Object value = get(key);
+        return value != null ? (String) value : defValue;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable
+    @Override
+    public Set<String> getStringSet(String key, @Nullable Set<String> defValues) {
+        Object value = get(key);
+        return value != null ? new HashSet<>((Set<String>) value) : defValues;
+    }
+
+    @Override
+    public int getInt(String key, int defValue) {
+        Object value = get(key);
+        return value != null ? (Integer) value : defValue;
+    }
+
+    @Override
+    public long getLong(String key, long defValue) {
+        Object value = get(key);
+        return value != null ? (Long) value : defValue;
+    }
+
+    @Override
+    public float getFloat(String key, float defValue) {
+        Object value = get(key);
+        return value != null ? (Float) value : defValue;
+    }
+
+    @Override
+    public boolean getBoolean(String key, boolean defValue) {
+        Object value = get(key);
+        return value != null ? (Boolean) value : defValue;
+    }
+
+    @Override
+    public boolean contains(String key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public Editor edit() {
+        return new EditorImpl();
+    }
+
+    @Override
+    public void registerOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+        synchronized (lock) {
+            if (mainHandler == null) {
+                mainHandler = new Handler(Looper.getMainLooper());
+            }
+            if (!listeners.contains(listener)) {
+                listeners.add(listener);
+            }
+        }
+    }
+
+    @Override
+    public void unregisterOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+        synchronized (lock) {
+            listeners.remove(listener);
+        }
+    }
+
+    private Object get(String key) {
+        synchronized (lock) {
+            return map.get(key);
+        }
+    }
+
+    private void notifyListeners(List<OnSharedPreferenceChangeListener> toNotify, List<String> changedKeys) {
+        if (Looper.myLooper() != Looper.getMainLooper()) {
+            mainHandler.post(() -> notifyListeners(toNotify, changedKeys));
+            return;
+        }
+        for (String key : changedKeys) {
+            for (OnSharedPreferenceChangeListener listener : toNotify) {
+                listener.onSharedPreferenceChanged(this, key);
+            }
+        }
+    }
+
+    private class EditorImpl implements Editor {
+
+        private final Object removed = new Object();
+        private final Map<String, Object> modifications = new HashMap<>();
+        private boolean clear;
+
+        @Override
+        public synchronized Editor putString(String key, @Nullable String value) {
+            modifications.put(key, value != null ? value : removed);
+            return this;
+        }
+
+        @Override
+        public synchronized Editor putStringSet(String key, @Nullable Set<String> values) {
+            modifications.put(key, values != null ? new HashSet<>(values) : removed);
+            return this;
+        }
+
+        @Override
+        public synchronized Editor putInt(String key, int value) {
+            modifications.put(key, value);
+            return this;
+        }
+
+        @Override
+        public synchronized Editor putLong(String key, long value) {
+            modifications.put(key, value);
+            return this;
+        }
+
+        @Override
+        public synchronized Editor putFloat(String key, float value) {
+            modifications.put(key, value);
+            return this;
+        }
+
+        @Override
+        public synchronized Editor putBoolean(String key, boolean value) {
+            modifications.put(key, value);
+            return this;
+        }
+
+        @Override
+        public synchronized Editor remove(String key) {
+            modifications.put(key, removed);
+            return this;
+        }
+
+        @Override
+        public synchronized Editor clear() {
+            clear = true;
+            return this;
+        }
+
+        @Override
+        public boolean commit() {
+            List<String> changedKeys = new ArrayList<>();
+            List<OnSharedPreferenceChangeListener> toNotify;
+            synchronized (lock) {
+                synchronized (this) {
+                    // As with the platform, clear() applies first whatever the call order
+                    if (clear) {
+                        map.clear();
+                        clear = false;
+                    }
+                    for (Map.Entry<String, Object> entry : modifications.entrySet()) {
+                        String key = entry.getKey();
+                        Object value = entry.getValue();
+                        if (value == removed) {
+                            if (map.remove(key) != null) {
+                                changedKeys.add(key);
+                            }
+                        } else if (!value.equals(map.put(key, value))) {
+                            changedKeys.add(key);
+                        }
+                    }
+                    modifications.clear();
+                }
+                version++;
+                toNotify = listeners.isEmpty() ? null : new ArrayList<>(listeners);
+            }
+
+            if (toNotify != null && !changedKeys.isEmpty()) {
+                notifyListeners(toNotify, changedKeys);
+            }
+            return true;
+        }
+
+        @Override
+        public void apply() {
+            commit();
+        }
+    }
+}
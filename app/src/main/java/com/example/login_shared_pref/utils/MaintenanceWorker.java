@@ -0,0 +1,145 @@
+package com.example.login_shared_pref.utils;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Daily storage maintenance: expires idle sessions, compacts the user shards, purges
+ * abandoned accounts and trims the avatar disk cache
+ *
+ * Work is done one shard per slice with a pause between slices, and the run stops
+ * early (keeping its place for next time) if the app comes to the foreground or the
+ * run budget is spent, so it never competes with a login in progress.
+ */
+public class MaintenanceWorker extends Worker {
+
+    private static final String TAG = "MaintenanceWorker";
+    private static final String WORK_NAME = "storage-maintenance";
+
+    // Policy
+    static final long SESSION_IDLE_LIMIT_MS = TimeUnit.DAYS.toMillis(30);
+    static final long ACCOUNT_RETENTION_MS = TimeUnit.DAYS.toMillis(365);
+    static final long AVATAR_MAX_AGE_MS = TimeUnit.DAYS.toMillis(30);
+
+    // Time slicing
+    private static final long SLICE_PAUSE_MS = 50;
+    private static final long RUN_BUDGET_MS = 2_000;
+
+    public MaintenanceWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Schedule the daily run; safe to call repeatedly, an existing schedule is kept
+     */
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiresBatteryNotLow(true)
+                .setRequiresDeviceIdle(true)
+                .build();
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(MaintenanceWorker.class, 1, TimeUnit.DAYS)
+                .setConstraints(constraints)
+                .build();
+        WorkManager.getInstance(context)
+                .enqueueUniquePeriodicWork(WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        Report report = runMaintenance(getApplicationContext(), System.currentTimeMillis(), this::shouldYield);
+        Log.i(TAG, report.toString());
+        return Result.success();
+    }
+
+    private boolean shouldYield() {
+        return isStopped() || isAppInForeground();
+    }
+
+    private static boolean isAppInForeground() {
+        ActivityManager.RunningAppProcessInfo info = new ActivityManager.RunningAppProcessInfo();
+        ActivityManager.getMyMemoryState(info);
+        return info.importance <= ActivityManager.RunningAppProcessInfo.IMPORTANCE_FOREGROUND;
+    }
+
+    /**
+     * One maintenance pass; yield is checked before every slice
+     */
+    @VisibleForTesting
+    static Report runMaintenance(Context context, long now, YieldSignal yield) {
+        SharedPrefsManager prefsManager = SharedPrefsManager.getInstance(context);
+        Report report = new Report();
+        long deadline = SystemClock.elapsedRealtime() + RUN_BUDGET_MS;
+
+        if (yield.shouldYield()) {
+            report.yielded = true;
+            return report;
+        }
+        report.sessionExpired = prefsManager.expireIdleSession(now, SESSION_IDLE_LIMIT_MS);
+        if (report.sessionExpired) {
+            // Open screens leave for login right away instead of on their next resume
+            AuthStateMachine.getInstance(context).sessionExpired();
+        }
+        PasswordResetManager.getInstance(context).pruneExpired();
+
+        int shardCount = prefsManager.getUserShardCount();
+        int shard = prefsManager.getMaintenanceCursor() % shardCount;
+        while (report.shardsVisited < shardCount) {
+            if (yield.shouldYield() || SystemClock.elapsedRealtime() >= deadline) {
+                report.yielded = true;
+                break;
+            }
+            report.keysRemoved += prefsManager.pruneUserShard(shard, now, ACCOUNT_RETENTION_MS);
+            report.shardsVisited++;
+            shard = (shard + 1) % shardCount;
+            prefsManager.setMaintenanceCursor(shard);
+            SystemClock.sleep(SLICE_PAUSE_MS);
+        }
+
+        if (!report.yielded) {
+            prefsManager.deleteLegacyStorage();
+            report.avatarsDeleted = AvatarRenderer.getInstance(context).trimDiskCache(now, AVATAR_MAX_AGE_MS);
+        }
+        return report;
+    }
+
+    /**
+     * Asked before each slice whether to stop for now
+     */
+    interface YieldSignal {
+        boolean shouldYield();
+    }
+
+    /**
+     * What one pass did
+     */
+    static class Report {
+        boolean sessionExpired;
+        int shardsVisited;
+        int keysRemoved;
+        int avatarsDeleted;
+        boolean yielded;
+
+        @Override
+        public String toString() {
+            return "Maintenance: sessionExpired=" + sessionExpired
+                    + ", shards=" + shardsVisited
+                    + ", keysRemoved=" + keysRemoved
+                    + ", avatarsDeleted=" + avatarsDeleted
+                    + (yielded ? ", yielded" : "");
+        }
+    }
+}
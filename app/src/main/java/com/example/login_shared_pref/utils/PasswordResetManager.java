@@ -0,0 +1,277 @@
+package com.example.login_shared_pref.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.annotation.VisibleForTesting;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+/**
+ * Forgot-password flow: issues short-lived numeric reset codes and redeems them
+ *
+ * Codes are CODE_DIGITS random digits valid for CODE_TTL_MS. Only a salted SHA-256 of
+ * the pending code is kept, with its expiry and failed attempts, in the small
+ * PasswordResets store rather than the session or user shards. Requests are throttled
+ * per email (MIN_REQUEST_INTERVAL_MS apart, at most MAX_REQUESTS_PER_WINDOW per
+ * REQUEST_WINDOW_MS), a code dies after MAX_ATTEMPTS wrong guesses, and codes are
+ * compared in constant time. Requests for unknown emails are throttled and answered
+ * the same way as real ones but send nothing, so the flow does not reveal accounts.
+ *
+ * Delivery goes through a ResetCodeSender. The app has no mail backend, so the default
+ * comes from the build type's ResetCodeDelivery: an in-process stand-in in debug builds
+ * and none in release builds, where canSendCodes() is false. Swap it with setSender().
+ */
+public class PasswordResetManager {
+
+    public static final int CODE_DIGITS = 6;
+    public static final long CODE_TTL_MS = 10 * 60 * 1000L;
+    public static final int MAX_ATTEMPTS = 5;
+    public static final long MIN_REQUEST_INTERVAL_MS = 60 * 1000L;
+    public static final long REQUEST_WINDOW_MS = 60 * 60 * 1000L;
+    public static final int MAX_REQUESTS_PER_WINDOW = 3;
+
+    static final String PREF_NAME = "PasswordResets";
+
+    /**
+     * Delivers a reset code to the owner of an email address
+     */
+    public interface ResetCodeSender {
+        void send(String email, String code);
+    }
+
+    public enum Result {
+        SUCCESS,
+        INVALID_CODE,
+        EXPIRED,
+        TOO_MANY_ATTEMPTS,
+        NO_ACCOUNT
+    }
+
+    private final SharedPreferences store;
+    private final SharedPrefsManager accounts;
+    private final LongSupplier clock;
+    private final SecureRandom random = new SecureRandom();
+    private ResetCodeSender sender;
+
+    // Singleton instance
+    private static PasswordResetManager instance;
+
+    @VisibleForTesting
+    PasswordResetManager(SharedPreferences store, SharedPrefsManager accounts,
+                         ResetCodeSender sender, LongSupplier clock) {
+        this.store = store;
+        this.accounts = accounts;
+        this.sender = sender;
+        this.clock = clock;
+    }
+
+    /**
+     * Get singleton instance of PasswordResetManager
+     */
+    public static synchronized PasswordResetManager getInstance(Context context) {
+        if (instance == null) {
+            Context appContext = context.getApplicationContext();
+            instance = new PasswordResetManager(StorageEngine.current().open(appContext, PREF_NAME),
+                    SharedPrefsManager.getInstance(appContext), ResetCodeDelivery.createSender(),
+                    System::currentTimeMillis);
+        }
+        return instance;
+    }
+
+    public synchronized void setSender(ResetCodeSender sender) {
+        this.sender = sender;
+    }
+
+    public synchronized ResetCodeSender getSender() {
+        return sender;
+    }
+
+    /**
+     * Whether codes can be delivered at all; false in release builds until a backend exists
+     */
+    public synchronized boolean canSendCodes() {
+        return sender != null;
+    }
+
+    /**
+     * Issue a new code for the email, replacing any pending one
+     *
+     * @return 0 if the request was accepted, otherwise milliseconds until it may be retried
+     * @throws IllegalStateException if there is no sender (see canSendCodes())
+     */
+    public synchronized long requestReset(String email) {
+        if (sender == null) {
+            throw new IllegalStateException("No reset code sender in this build");
+        }
+        email = SharedPrefsManager.normalizeEmail(email);
+        long now = clock.getAsLong();
+        String prefix = "reset_" + email;
+
+        long windowStart = store.getLong(prefix + "_windowStart", 0L);
+        int requests = store.getInt(prefix + "_requests", 0);
+        long lastRequest = store.getLong(prefix + "_lastRequest", 0L);
+        if (requests == 0 || now - windowStart >= REQUEST_WINDOW_MS) {
+            windowStart = now;
+            requests = 0;
+        }
+        long retryAfter = 0;
+        if (lastRequest > 0 && now - lastRequest < MIN_REQUEST_INTERVAL_MS) {
+            retryAfter = MIN_REQUEST_INTERVAL_MS - (now - lastRequest);
+        }
+        if (requests >= MAX_REQUESTS_PER_WINDOW) {
+            retryAfter = Math.max(retryAfter, windowStart + REQUEST_WINDOW_MS - now);
+        }
+        if (retryAfter > 0) {
+            return retryAfter;
+        }
+
+        SharedPreferences.Editor editor = store.edit()
+                .putLong(prefix + "_windowStart", windowStart)
+                .putInt(prefix + "_requests", requests + 1)
+                .putLong(prefix + "_lastRequest", now);
+        if (!accounts.isUserExists(email)) {
+            editor.apply();
+            return 0;
+        }
+
+        String code = newCode();
+        byte[] salt = new byte[16];
+        random.nextBytes(salt);
+        editor.putString(prefix + "_salt", toHex(salt))
+                .putString(prefix + "_hash", toHex(hash(salt, code)))
+                .putLong(prefix + "_expires", now + CODE_TTL_MS)
+                .putInt(prefix + "_attempts", 0)
+                .apply();
+        sender.send(email, code);
+        return 0;
+    }
+
+    /**
+     * Redeem a code and set the new password; the code is used up on success
+     */
+    public synchronized Result resetPassword(String email, String code, String newPassword) {
+        email = SharedPrefsManager.normalizeEmail(email);
+        String prefix = "reset_" + email;
+        String storedHash = store.getString(prefix + "_hash", null);
+        if (storedHash == null) {
+            return Result.INVALID_CODE;
+        }
+        if (clock.getAsLong() >= store.getLong(prefix + "_expires", 0L)) {
+            clearCode(prefix);
+            return Result.EXPIRED;
+        }
+        int attempts = store.getInt(prefix + "_attempts", 0);
+        if (attempts >= MAX_ATTEMPTS) {
+            return Result.TOO_MANY_ATTEMPTS;
+        }
+
+        byte[] salt = fromHex(store.getString(prefix + "_salt", ""));
+        if (!constantTimeEquals(fromHex(storedHash), hash(salt, code == null ? "" : code.trim()))) {
+            attempts++;
+            if (attempts >= MAX_ATTEMPTS) {
+                // Burn the code; the user has to request a new one
+                clearCode(prefix);
+                return Result.TOO_MANY_ATTEMPTS;
+            }
+            store.edit().putInt(prefix + "_attempts", attempts).apply();
+            return Result.INVALID_CODE;
+        }
+
+        clearCode(prefix);
+        return accounts.resetPassword(email, newPassword) ? Result.SUCCESS : Result.NO_ACCOUNT;
+    }
+
+    /**
+     * Whether the email has a code that is neither used, burned nor expired
+     */
+    public synchronized boolean hasPendingCode(String email) {
+        String prefix = "reset_" + SharedPrefsManager.normalizeEmail(email);
+        return store.contains(prefix + "_hash")
+                && clock.getAsLong() < store.getLong(prefix + "_expires", 0L);
+    }
+
+    /**
+     * Drop expired codes and throttle windows that have run out
+     */
+    public synchronized void pruneExpired() {
+        long now = clock.getAsLong();
+        SharedPreferences.Editor editor = store.edit();
+        for (String key : store.getAll().keySet()) {
+            if (key.endsWith("_expires") && now >= store.getLong(key, 0L)) {
+                String prefix = key.substring(0, key.length() - "_expires".length());
+                removeCode(editor, prefix);
+            } else if (key.endsWith("_windowStart") && now - store.getLong(key, 0L) >= REQUEST_WINDOW_MS) {
+                String prefix = key.substring(0, key.length() - "_windowStart".length());
+                editor.remove(prefix + "_windowStart").remove(prefix + "_requests").remove(prefix + "_lastRequest");
+            }
+        }
+        editor.apply();
+    }
+
+    private void clearCode(String prefix) {
+        SharedPreferences.Editor editor = store.edit();
+        removeCode(editor, prefix);
+        editor.apply();
+    }
+
+    private static void removeCode(SharedPreferences.Editor editor, String prefix) {
+        editor.remove(prefix + "_salt")
+                .remove(prefix + "_hash")
+                .remove(prefix + "_expires")
+                .remove(prefix + "_attempts");
+    }
+
+    private String newCode() {
+        int bound = 1;
+        for (int i = 0; i < CODE_DIGITS; i++) {
+            bound *= 10;
+        }
+        return String.format(Locale.ROOT, "%0" + CODE_DIGITS + "d", random.nextInt(bound));
+    }
+
+    private static byte[] hash(byte[] salt, String code) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(salt);
+            return digest.digest(code.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Compare without an early exit, so timing does not reveal how much of a guess matched
+     */
+    static boolean constantTimeEquals(byte[] a, byte[] b) {
+        if (a.length != b.length) {
+            return false;
+        }
+        int difference = 0;
+        for (int i = 0; i < a.length; i++) {
+            difference |= a[i] ^ b[i];
+        }
+        return difference == 0;
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static byte[] fromHex(String hex) {
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.login_shared_pref.utils;
+
+import java.util.Arrays;
+
+/**
+ * Live password strength estimate, updated per keystroke
+ *
+ * The score looks at character classes, and discounts characters that are part of a
+ * repeat ("aaa"), an alphabetic or numeric sequence ("abc", "4321"), a run of adjacent
+ * keys on a QWERTY keyboard ("qwer", "asdf") or a common password. Every pattern is
+ * tracked as running state that one appended character advances in O(1) (O(log n) for
+ * the dictionary), and the state after each character is kept, so backspace just pops
+ * it. Only an edit in the middle of the text replays the characters after it.
+ *
+ * Not thread-safe; feed it from the TextWatcher on the main thread.
+ */
+public final class PasswordStrengthMeter {
+
+    public static final int VERY_WEAK = 0;
+    public static final int WEAK = 1;
+    public static final int FAIR = 2;
+    public static final int GOOD = 3;
+    public static final int STRONG = 4;
+
+    // Shortest repeat, sequence or keyboard run that counts as a pattern
+    private static final int MIN_PATTERN = 3;
+    private static final int MIN_LENGTH = 6;
+
+    private static final int LOWER = 1;
+    private static final int UPPER = 1 << 1;
+    private static final int DIGIT = 1 << 2;
+    private static final int SYMBOL = 1 << 3;
+
+    private static final String[] KEYBOARD_ROWS = {"1234567890", "qwertyuiop", "asdfghjkl", "zxcvbnm"};
+    // Row * 16 + column of each ASCII key, or -1
+    private static final int[] KEY_POSITIONS = new int[128];
+
+    static {
+        Arrays.fill(KEY_POSITIONS, -1);
+        for (int row = 0; row < KEYBOARD_ROWS.length; row++) {
+            for (int column = 0; column < KEYBOARD_ROWS[row].length(); column++) {
+                KEY_POSITIONS[KEYBOARD_ROWS[row].charAt(column)] = row * 16 + column;
+            }
+        }
+    }
+
+    private final CommonPasswords dictionary;
+    // State after each character; state[0] is the empty password
+    private State[] states = new State[32];
+    private int length;
+
+    public PasswordStrengthMeter(CommonPasswords dictionary) {
+        this.dictionary = dictionary;
+        states[0] = new State(dictionary == null ? CommonPasswords.NO_MATCH : dictionary.all());
+    }
+
+    /**
+     * Apply an edit as reported by TextWatcher.onTextChanged(): count characters of text
+     * starting at start replaced before characters
+     */
+    public void onTextChanged(CharSequence text, int start, int before, int count) {
+        if (start > length) {
+            // Out of step with the field; rebuild from scratch
+            start = 0;
+        }
+        length = start;
+        for (int i = start; i < text.length(); i++) {
+            append(text.charAt(i));
+        }
+    }
+
+    /**
+     * Add one character to the end of the password
+     */
+    public void append(char c) {
+        if (length + 1 == states.length) {
+            states = Arrays.copyOf(states, states.length * 2);
+        }
+        states[length + 1] = states[length].next(c, length, dictionary);
+        length++;
+    }
+
+    /**
+     * Remove the last character
+     */
+    public void removeLast() {
+        if (length > 0) {
+            length--;
+        }
+    }
+
+    public void clear() {
+        length = 0;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Whether the password so far is on the common password list
+     */
+    public boolean isCommonPassword() {
+        return dictionary != null && dictionary.isWord(states[length].dictionaryRange, length);
+    }
+
+    /**
+     * Estimated bits of entropy, counting each patterned character as one bit
+     */
+    public double getEntropyBits() {
+        State state = states[length];
+        if (isCommonPassword()) {
+            return 0;
+        }
+        int pool = 0;
+        if ((state.classes & LOWER) != 0) pool += 26;
+        if ((state.classes & UPPER) != 0) pool += 26;
+        if ((state.classes & DIGIT) != 0) pool += 10;
+        if ((state.classes & SYMBOL) != 0) pool += 33;
+        if (pool == 0) {
+            return 0;
+        }
+        int random = length - state.patterned;
+        return random * (Math.log(pool) / Math.log(2)) + state.patterned;
+    }
+
+    /**
+     * Score from VERY_WEAK to STRONG
+     */
+    public int getScore() {
+        double bits = getEntropyBits();
+        int score;
+        if (bits < 28) {
+            score = VERY_WEAK;
+        } else if (bits < 36) {
+            score = WEAK;
+        } else if (bits < 60) {
+            score = FAIR;
+        } else if (bits < 80) {
+            score = GOOD;
+        } else {
+            score = STRONG;
+        }
+        // Too short to be accepted at all
+        return length < MIN_LENGTH ? Math.min(score, WEAK) : score;
+    }
+
+    /**
+     * Running pattern state up to and including one character
+     */
+    private static final class State {
+        final char last;
+        final int classes;
+        final int repeatRun;
+        // Direction (+1 / -1) and length of the current alphabetic or numeric sequence
+        final int sequenceStep;
+        final int sequenceRun;
+        final int keyboardRun;
+        // Characters covered by some pattern, and the end of the last covered stretch
+        final int patterned;
+        final int patternedUntil;
+        final long dictionaryRange;
+
+        State(long dictionaryRange) {
+            this('\0', 0, 0, 0, 0, 0, 0, 0, dictionaryRange);
+        }
+
+        State(char last, int classes, int repeatRun, int sequenceStep, int sequenceRun, int keyboardRun,
+              int patterned, int patternedUntil, long dictionaryRange) {
+            this.last = last;
+            this.classes = classes;
+            this.repeatRun = repeatRun;
+            this.sequenceStep = sequenceStep;
+            this.sequenceRun = sequenceRun;
+            this.keyboardRun = keyboardRun;
+            this.patterned = patterned;
+            this.patternedUntil = patternedUntil;
+            this.dictionaryRange = dictionaryRange;
+        }
+
+        /**
+         * State after appending c at index
+         */
+        State next(char c, int index, CommonPasswords dictionary) {
+            char lower = Character.toLowerCase(c);
+            boolean first = index == 0;
+
+            int repeat = !first && lower == Character.toLowerCase(last) ? repeatRun + 1 : 1;
+
+            int step = first ? 0 : sequenceStep(Character.toLowerCase(last), lower);
+            int sequence = step == 0 ? 1 : step == sequenceStep ? sequenceRun + 1 : 2;
+
+            int keyboard = !first && adjacentKeys(Character.toLowerCase(last), lower) ? keyboardRun + 1 : 1;
+
+            // The longest pattern ending here covers a suffix of the password; only
+            // count the characters of it not already covered
+            int run = Math.max(repeat, Math.max(sequence, keyboard));
+            int newPatterned = patterned;
+            int newPatternedUntil = patternedUntil;
+            if (run >= MIN_PATTERN) {
+                int end = index + 1;
+                newPatterned += end - Math.max(patternedUntil, end - run);
+                newPatternedUntil = end;
+            }
+
+            long range = dictionary == null ? CommonPasswords.NO_MATCH
+                    : dictionary.narrow(dictionaryRange, index, lower);
+
+            return new State(c, classes | classOf(c), repeat, step, sequence, keyboard,
+                    newPatterned, newPatternedUntil, range);
+        }
+
+        private static int classOf(char c) {
+            if (Character.isLowerCase(c)) return LOWER;
+            if (Character.isUpperCase(c)) return UPPER;
+            if (Character.isDigit(c)) return DIGIT;
+            return SYMBOL;
+        }
+
+        /**
+         * +1 or -1 if b follows or precedes a within the alphabet or the digits, else 0
+         */
+        private static int sequenceStep(char a, char b) {
+            boolean letters = a >= 'a' && a <= 'z' && b >= 'a' && b <= 'z';
+            boolean digits = a >= '0' && a <= '9' && b >= '0' && b <= '9';
+            if (!letters && !digits) {
+                return 0;
+            }
+            int delta = b - a;
+            return delta == 1 || delta == -1 ? delta : 0;
+        }
+
+        private static boolean adjacentKeys(char a, char b) {
+            if (a >= 128 || b >= 128 || a == b) {
+                return false;
+            }
+            int from = KEY_POSITIONS[a];
+            int to = KEY_POSITIONS[b];
+            if (from < 0 || to < 0) {
+                return false;
+            }
+            int rows = Math.abs((from >> 4) - (to >> 4));
+            int columns = Math.abs((from & 15) - (to & 15));
+            return rows == 0 ? columns == 1 : rows == 1 && columns <= 1;
+        }
+    }
+}
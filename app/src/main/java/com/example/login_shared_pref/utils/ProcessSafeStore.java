@@ -0,0 +1,535 @@
+package com.example.login_shared_pref.utils;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * SharedPreferences implementation that stays consistent across processes
+ *
+ * The contents live in a BinaryPrefsCodec file replaced by temp-file-and-rename; a
+ * companion lock file holds an 8-byte version counter and is the target of fcntl locks
+ * (shared for reads, exclusive for writes). The counter is also memory-mapped, so a read
+ * compares it with the version last loaded without a lock or a system call, and takes
+ * the shared lock to reload only when another process has bumped it. Writes re-read the
+ * file under the exclusive lock and apply just the edited keys, so concurrent writers in
+ * different processes do not overwrite each other's keys. Local edits are visible to readers in
+ * this process immediately (read-your-writes) while they wait for the writer thread.
+ */
+public class ProcessSafeStore implements VersionedPreferences {
+
+    private static final String TAG = "ProcessSafeStore";
+
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ProcessSafeStore-writer");
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    // One instance per file per process (keyed by path); FileChannel locks are not reentrant
+    private static final Map<String, ProcessSafeStore> STORES = new HashMap<>();
+
+    private final File dataFile;
+    private final File tempFile;
+    private final FileChannel lockChannel;
+    // The version counter, mapped for lock-free staleness checks
+    private final MappedByteBuffer versionMap;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Serializes file locking in this process; always taken before the monitor on this
+    private final Object ioLock = new Object();
+
+    // Guarded by this
+    private Map<String, Object> disk = new HashMap<>();
+    private long diskVersion = -1;
+    private Map<String, Object> view = Collections.emptyMap();
+    private final ArrayDeque<Edit> pending = new ArrayDeque<>();
+    private final Set<OnSharedPreferenceChangeListener> listeners =
+            Collections.newSetFromMap(new WeakHashMap<>());
+
+    ProcessSafeStore(File dataFile, File lockFile) {
+        this.dataFile = dataFile;
+        this.tempFile = new File(dataFile.getPath() + ".tmp");
+        File parent = dataFile.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            Log.w(TAG, "Could not create " + parent);
+        }
+        try {
+            lockChannel = new RandomAccessFile(lockFile, "rw").getChannel();
+            // Grows a new lock file to 8 zero bytes, i.e. version 0
+            versionMap = lockChannel.map(FileChannel.MapMode.READ_WRITE, 0, 8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open " + lockFile, e);
+        }
+    }
+
+    /**
+     * Open the named store under files/prefs_store, importing the engine's file of the
+     * same name the first time so existing sessions survive the switch
+     * A first open maps and may import files, so it counts as storage work for the guard.
+     */
+    public static synchronized ProcessSafeStore open(Context context, String name) {
+        StorageThreadGuard.getInstance().check("ProcessSafeStore.open");
+        File dir = new File(context.getFilesDir(), "prefs_store");
+        File dataFile = new File(dir, name + ".mp");
+        ProcessSafeStore store = STORES.get(dataFile.getAbsolutePath());
+        if (store == null) {
+            store = new ProcessSafeStore(dataFile, new File(dir, name + ".lock"));
+            if (!dataFile.exists()) {
+                store.importIfMissing(StorageEngine.current().open(context, name).getAll());
+            }
+            STORES.put(dataFile.getAbsolutePath(), store);
+        }
+        return store;
+    }
+
+    /**
+     * Version counter of the file as last seen by this process; it changes on every
+     * write from any process
+     */
+    @Override
+    public long getVersion() {
+        current();
+        synchronized (this) {
+            return diskVersion;
+        }
+    }
+
+    @Override
+    public Map<String, ?> getAll() {
+        return new HashMap<>(current());
+    }
+
+    @Nullable
+    @Override
+    public String getString(String key, @Nullable String defValue) {
+        String value = (String) current().get(key);
+        return value != null ? value : defValue;
+    }
+
+    @Nullable
+    @Override
+    @SuppressWarnings("unchecked")
+    public Set<String> getStringSet(String key, @Nullable Set<String> defValues) {
+        Set<String> value = (Set<String>) current().get(key);
+        return value != null ? new HashSet<>(value) : defValues;
+    }
+
+    @Override
+    public int getInt(String key, int defValue) {
+        Integer value = (Integer) current().get(key);
+        return value != null ? value : defValue;
+    }
+
+    @Override
+    public long getLong(String key, long defValue) {
+        Long value = (Long) current().get(key);
+        return value != null ? value : defValue;
+    }
+
+    @Override
+    public float getFloat(String key, float defValue) {
+        Float value = (Float) current().get(key);
+        return value != null ? value : defValue;
+    }
+
+    @Override
+    public boolean getBoolean(String key, boolean defValue) {
+        Boolean value = (Boolean) current().get(key);
+        return value != null ? value : defValue;
+    }
+
+    @Override
+    public boolean contains(String key) {
+        return current().containsKey(key);
+    }
+
+    @Override
+    public Editor edit() {
+        return new EditorImpl();
+    }
+
+    @Override
+    public void registerOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+        synchronized (this) {
+            listeners.add(listener);
+        }
+    }
+
+    @Override
+    public void unregisterOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+        synchronized (this) {
+            listeners.remove(listener);
+        }
+    }
+
+    /**
+     * Current view of the contents; reloads from disk only if another process wrote since
+     * The returned map is never mutated, edits replace it.
+     */
+    private Map<String, Object> current() {
+        synchronized (this) {
+            // Our own pending edits are newer than anything on disk, and an unchanged
+            // counter means nobody else wrote either
+            if (!pending.isEmpty() || peekVersion() == diskVersion) {
+                return view;
+            }
+        }
+        synchronized (ioLock) {
+            refreshIfStale();
+        }
+        synchronized (this) {
+            return view;
+        }
+    }
+
+    /**
+     * Compare the version counter and reload if it moved; caller holds ioLock
+     */
+    private void refreshIfStale() {
+        StorageThreadGuard.getInstance().check("ProcessSafeStore.refresh");
+        List<String> changedKeys = null;
+        try (FileLock ignored = lockChannel.lock(0, Long.MAX_VALUE, true)) {
+            long version = readVersion();
+            synchronized (this) {
+                if (version == diskVersion) {
+                    return;
+                }
+            }
+            Map<String, Object> loaded = readData();
+            synchronized (this) {
+                if (!pending.isEmpty()) {
+                    // An edit arrived meanwhile; the writer will merge with disk instead
+                    return;
+                }
+                disk = loaded;
+                diskVersion = version;
+                changedKeys = replaceView(new HashMap<>(loaded));
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Could not refresh " + dataFile, e);
+        }
+        notifyListeners(changedKeys);
+    }
+
+    private void importIfMissing(Map<String, ?> values) {
+        synchronized (ioLock) {
+            try (FileLock ignored = lockChannel.lock()) {
+                // Another process may have imported while we waited for the lock
+                if (dataFile.exists() || readVersion() != 0) {
+                    return;
+                }
+                Map<String, Object> contents = new HashMap<>(values);
+                AtomicFileStore.writeAtomically(dataFile, tempFile, BinaryPrefsCodec.encode(contents));
+                writeVersion(1);
+            } catch (IOException e) {
+                Log.e(TAG, "Could not import into " + dataFile, e);
+            }
+        }
+    }
+
+    private void enqueue(Edit edit) {
+        List<String> changedKeys;
+        synchronized (this) {
+            pending.add(edit);
+            Map<String, Object> next = new HashMap<>(view);
+            edit.applyTo(next);
+            changedKeys = replaceView(next);
+        }
+        notifyListeners(changedKeys);
+    }
+
+    /**
+     * Merge every queued edit into the file under the exclusive lock; runs on the writer thread
+     */
+    private boolean writePending() {
+        synchronized (ioLock) {
+            List<Edit> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return true;
+                }
+                batch = new ArrayList<>(pending);
+            }
+
+            boolean written = false;
+            Map<String, Object> contents = null;
+            long version = 0;
+            try (FileLock ignored = lockChannel.lock()) {
+                version = readVersion();
+                synchronized (this) {
+                    if (version == diskVersion) {
+                        contents = new HashMap<>(disk);
+                    }
+                }
+                if (contents == null) {
+                    contents = readData();
+                }
+                for (Edit edit : batch) {
+                    edit.applyTo(contents);
+                }
+                AtomicFileStore.writeAtomically(dataFile, tempFile, BinaryPrefsCodec.encode(contents));
+                writeVersion(++version);
+                written = true;
+            } catch (IOException e) {
+                Log.e(TAG, "Write failed for " + dataFile, e);
+            }
+
+            List<String> changedKeys;
+            synchronized (this) {
+                for (int i = 0; i < batch.size(); i++) {
+                    pending.poll();
+                }
+                if (written) {
+                    disk = contents;
+                    diskVersion = version;
+                } else {
+                    // Force a reload so the view falls back to what is really on disk
+                    diskVersion = -1;
+                }
+                Map<String, Object> next = new HashMap<>(disk);
+                for (Edit edit : pending) {
+                    edit.applyTo(next);
+                }
+                changedKeys = replaceView(next);
+            }
+            notifyListeners(changedKeys);
+            return written;
+        }
+    }
+
+    /**
+     * Swap in a new view and return the keys whose values changed; caller holds this
+     */
+    private List<String> replaceView(Map<String, Object> next) {
+        List<String> changedKeys = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : next.entrySet()) {
+            if (!Objects.equals(entry.getValue(), view.get(entry.getKey()))) {
+                changedKeys.add(entry.getKey());
+            }
+        }
+        for (String key : view.keySet()) {
+            if (!next.containsKey(key)) {
+                changedKeys.add(key);
+            }
+        }
+        view = next;
+        return changedKeys;
+    }
+
+    private void notifyListeners(@Nullable List<String> changedKeys) {
+        if (changedKeys == null || changedKeys.isEmpty()) {
+            return;
+        }
+        List<OnSharedPreferenceChangeListener> toNotify;
+        synchronized (this) {
+            if (listeners.isEmpty()) {
+                return;
+            }
+            toNotify = new ArrayList<>(listeners);
+        }
+        mainHandler.post(() -> {
+            for (String key : changedKeys) {
+                for (OnSharedPreferenceChangeListener listener : toNotify) {
+                    listener.onSharedPreferenceChanged(this, key);
+                }
+            }
+        });
+    }
+
+    /**
+     * Block until every edit queued so far has reached the file (tests only)
+     */
+    @Override
+    @VisibleForTesting
+    public void awaitWrites() {
+        try {
+            WRITER.submit(() -> { }).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Version counter read through the memory map, without taking the file lock
+     * A torn read only sends the caller to the locked path, which reads it properly.
+     */
+    private long peekVersion() {
+        return versionMap.getLong(0);
+    }
+
+    private long readVersion() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        while (buffer.hasRemaining()) {
+            if (lockChannel.read(buffer, buffer.position()) < 0) {
+                return 0;
+            }
+        }
+        buffer.flip();
+        return buffer.getLong();
+    }
+
+    private void writeVersion(long version) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.putLong(version).flip();
+        while (buffer.hasRemaining()) {
+            lockChannel.write(buffer, buffer.position());
+        }
+        lockChannel.force(false);
+    }
+
+    private Map<String, Object> readData() {
+        if (!dataFile.exists()) {
+            return new HashMap<>();
+        }
+        try {
+            return BinaryPrefsCodec.decode(AtomicFileStore.readFully(dataFile));
+        } catch (IOException e) {
+            Log.e(TAG, "Discarding unreadable " + dataFile, e);
+            return new HashMap<>();
+        }
+    }
+
+    /**
+     * One editor's changes; applied to the view at once and to the file by the writer
+     */
+    private static class Edit {
+        final Map<String, Object> modifications;
+        final Set<String> removals;
+        final boolean clear;
+
+        Edit(Map<String, Object> modifications, Set<String> removals, boolean clear) {
+            this.modifications = modifications;
+            this.removals = removals;
+            this.clear = clear;
+        }
+
+        void applyTo(Map<String, Object> map) {
+            if (clear) {
+                map.clear();
+            }
+            for (String key : removals) {
+                map.remove(key);
+            }
+            map.putAll(modifications);
+        }
+    }
+
+    private class EditorImpl implements Editor {
+
+        private final Map<String, Object> modifications = new HashMap<>();
+        private final Set<String> removals = new HashSet<>();
+        private boolean clear;
+
+        private synchronized Editor put(String key, @Nullable Object value) {
+            if (value == null) {
+                return remove(key);
+            }
+            removals.remove(key);
+            modifications.put(key, value);
+            return this;
+        }
+
+        @Override
+        public Editor putString(String key, @Nullable String value) {
+            return put(key, value);
+        }
+
+        @Override
+        public Editor putStringSet(String key, @Nullable Set<String> values) {
+            return put(key, values != null ? new HashSet<>(values) : null);
+        }
+
+        @Override
+        public Editor putInt(String key, int value) {
+            return put(key, value);
+        }
+
+        @Override
+        public Editor putLong(String key, long value) {
+            return put(key, value);
+        }
+
+        @Override
+        public Editor putFloat(String key, float value) {
+            return put(key, value);
+        }
+
+        @Override
+        public Editor putBoolean(String key, boolean value) {
+            return put(key, value);
+        }
+
+        @Override
+        public synchronized Editor remove(String key) {
+            modifications.remove(key);
+            removals.add(key);
+            return this;
+        }
+
+        @Override
+        public synchronized Editor clear() {
+            clear = true;
+            return this;
+        }
+
+        @Override
+        public boolean commit() {
+            StorageThreadGuard.getInstance().check("ProcessSafeStore.commit");
+            enqueue(takeEdit());
+            try {
+                return WRITER.submit(ProcessSafeStore.this::writePending).get();
+            } catch (ExecutionException e) {
+                Log.e(TAG, "Commit failed", e);
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        @Override
+        public void apply() {
+            enqueue(takeEdit());
+            WRITER.execute(ProcessSafeStore.this::writePending);
+        }
+
+        /**
+         * Snapshot the pending changes and reset this editor for reuse
+         */
+        private synchronized Edit takeEdit() {
+            Edit edit = new Edit(new HashMap<>(modifications), new HashSet<>(removals), clear);
+            modifications.clear();
+            removals.clear();
+            clear = false;
+            return edit;
+        }
+    }
+}
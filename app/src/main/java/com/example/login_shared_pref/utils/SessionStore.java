@@ -0,0 +1,96 @@
+package com.example.login_shared_pref.utils;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.VisibleForTesting;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Read-only view of the hot session shard, used by the launcher before any layout is inflated
+ * SharedPrefsManager owns and writes this file; it holds only the session keys, so it
+ * loads much faster than the user directory shards. On the disk engines it is a
+ * ProcessSafeStore, so it also sees logins and logouts made by other processes of the app.
+ */
+public class SessionStore {
+
+    private static final String KEY_IS_LOGGED_IN = "isLoggedIn";
+    private static final String KEY_REMEMBER_ME = "rememberMe";
+
+    /**
+     * Receives the outcome of resolveAsync() on the main thread
+     */
+    public interface ResolveCallback {
+        void onSessionResolved(boolean maintainSession);
+    }
+
+    private static final ExecutorService RESOLVER = Executors.newSingleThreadExecutor();
+
+    private final VersionedPreferences sessionPreferences;
+
+    // Singleton instance
+    private static SessionStore instance;
+
+    private SessionStore(Context context) {
+        sessionPreferences = SharedPrefsManager.openSessionStore(context);
+    }
+
+    /**
+     * Get singleton instance of SessionStore
+     */
+    public static synchronized SessionStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new SessionStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Open the store and answer shouldMaintainSession() off the main thread
+     * Opening maps the session file, and imports it on first run, so the launcher must not
+     * do it on the UI thread.
+     */
+    public static void resolveAsync(Context context, ResolveCallback callback) {
+        Context appContext = context.getApplicationContext();
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        RESOLVER.execute(() -> {
+            boolean maintainSession = getInstance(appContext).shouldMaintainSession();
+            mainHandler.post(() -> callback.onSessionResolved(maintainSession));
+        });
+    }
+
+    /**
+     * Drop the singleton so the next getInstance binds to a fresh context (tests only)
+     */
+    @VisibleForTesting
+    public static synchronized void resetInstance() {
+        instance = null;
+    }
+
+    /**
+     * Version of the session file; changes whenever any process updates the session
+     * Cheap to poll, so callers can cache derived state until it moves.
+     */
+    public long getVersion() {
+        return sessionPreferences.getVersion();
+    }
+
+    /**
+     * Block until the session edits queued so far are on disk (tests only)
+     */
+    @VisibleForTesting
+    public void awaitWrites() {
+        sessionPreferences.awaitWrites();
+    }
+
+    /**
+     * Same rule as SharedPrefsManager.shouldMaintainSession: logged in with Remember Me
+     */
+    public boolean shouldMaintainSession() {
+        return sessionPreferences.getBoolean(KEY_IS_LOGGED_IN, false)
+                && sessionPreferences.getBoolean(KEY_REMEMBER_ME, false);
+    }
+}
@@ -3,31 +3,117 @@ package com.example.login_shared_pref.utils;
 import android.content.Context;
 import android.content.SharedPreferences;
 
+import androidx.annotation.VisibleForTesting;
+
+import com.example.login_shared_pref.models.User;
+import com.example.login_shared_pref.models.UserChange;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
 /**
  * Manages user session data using SharedPreferences
  * Handles login state, user credentials, and preferences
+ *
+ * Storage is split so small, frequent session writes never rewrite account data:
+ * the session keys live in the hot LoginSession shard (a ProcessSafeStore, also read by
+ * SessionStore and safe to share with other processes), and
+ * "user_<email>_*" records are spread over USER_SHARD_COUNT files by email hash, each
+ * opened on first use.
+ *
+ * Emails are normalized (trimmed, lower case) before they become keys, so lookups are
+ * case-insensitive. Display names have an in-memory secondary index for prefix search,
+ * built on the first search and updated by every write that changes a name.
+ *
+ * Safe to call from any thread. Every operation writes through its own Editor, so
+ * concurrent calls never share half-built edits. Read-modify-write sequences hold
+ * sessionLock for the session shard and the shard's stripe of shardLocks for user
+ * records; when both are needed sessionLock is taken first.
  */
-public class SharedPrefsManager {
+public class SharedPrefsManager implements UserDirectorySync.LocalStore {
+
+    private static final String LEGACY_PREF_NAME = "LoginAppPrefs";
+    static final String SESSION_PREF_NAME = "LoginSession";
+    private static final String USER_SHARD_PREFIX = "LoginUsers_";
+    private static final int USER_SHARD_COUNT = 8;
+    private static final int STORAGE_VERSION = 2;
 
-    private static final String PREF_NAME = "LoginAppPrefs";
     private static final String KEY_IS_LOGGED_IN = "isLoggedIn";
     private static final String KEY_USER_EMAIL = "userEmail";
     private static final String KEY_USER_NAME = "userName";
     private static final String KEY_USER_PASSWORD = "userPassword"; // Note: In real apps, never store passwords in plain text
     private static final String KEY_REMEMBER_ME = "rememberMe";
     private static final String KEY_FIRST_TIME = "firstTime";
+    private static final String KEY_SYNC_CURSOR = "syncCursor";
+    private static final String KEY_STORAGE_VERSION = "storageVersion";
+    private static final String KEY_LAST_ACTIVE = "lastActive";
+    private static final String KEY_LAST_LOGIN = "lastLogin";
+    private static final String KEY_MAINTENANCE_CURSOR = "maintenanceCursor";
+
+    // Account fields dropped by pruning once the account's password is gone; version
+    // stamps are deliberately not listed, they must outlive the account
+    private static final List<String> ORPHANABLE_SUFFIXES = Arrays.asList("_name", "_lastLogin");
+
+    // Activity stamps closer together than this are skipped to avoid a write per resume
+    static final long ACTIVITY_STAMP_INTERVAL_MS = 60 * 60 * 1000L;
 
     private SharedPreferences sharedPreferences;
-    private SharedPreferences.Editor editor;
+    private final SharedPreferences[] userShards = new SharedPreferences[USER_SHARD_COUNT];
+    private final Object sessionLock = new Object();
+    private final Object[] shardLocks = new Object[USER_SHARD_COUNT];
+    private final StorageMetrics metrics = StorageMetrics.getInstance();
+    private final StoreFactory stores;
+    private UserNameIndex nameIndex;
     private Context context;
 
     // Singleton instance
     private static SharedPrefsManager instance;
 
+    /**
+     * Opens the store behind a preference file
+     */
+    interface StoreFactory {
+        SharedPreferences open(Context context, String name);
+    }
+
+    // The session is shared with other processes; user shards follow the configured engine
+    private static final StoreFactory DEFAULT_STORES = (context, name) -> SESSION_PREF_NAME.equals(name)
+            ? openSessionStore(context)
+            : StorageEngine.current().open(context, name);
+
+    /**
+     * Store behind the session file, shared with SessionStore
+     * A ProcessSafeStore on the disk engines; on IN_MEMORY the engine's own store, so
+     * nothing touches the disk.
+     */
+    static VersionedPreferences openSessionStore(Context context) {
+        StorageEngine engine = StorageEngine.current();
+        // IN_MEMORY always hands out InMemoryStore instances
+        return engine == StorageEngine.IN_MEMORY
+                ? (InMemoryStore) engine.open(context, SESSION_PREF_NAME)
+                : ProcessSafeStore.open(context, SESSION_PREF_NAME);
+    }
+
     private SharedPrefsManager(Context context) {
+        this(context, DEFAULT_STORES);
+    }
+
+    /**
+     * Manager over custom stores, e.g. in-memory ones for concurrency tests
+     */
+    @VisibleForTesting
+    SharedPrefsManager(Context context, StoreFactory stores) {
         this.context = context;
-        sharedPreferences = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
-        editor = sharedPreferences.edit();
+        this.stores = stores;
+        for (int i = 0; i < USER_SHARD_COUNT; i++) {
+            shardLocks[i] = new Object();
+        }
+        sharedPreferences = stores.open(context, SESSION_PREF_NAME);
+        migrateStorage();
     }
 
     /**
@@ -40,178 +126,919 @@ public class SharedPrefsManager {
         return instance;
     }
 
+    /**
+     * Drop the singleton so the next getInstance binds to a fresh context (tests only)
+     */
+    @VisibleForTesting
+    public static synchronized void resetInstance() {
+        instance = null;
+    }
+
+    /**
+     * Canonical form of an email used in storage keys: trimmed and lower case
+     */
+    public static String normalizeEmail(String email) {
+        return email != null ? email.trim().toLowerCase(Locale.ROOT) : "";
+    }
+
     /**
      * Save user login session
      */
     public void createLoginSession(String email, String name, String password, boolean rememberMe) {
-        editor.putBoolean(KEY_IS_LOGGED_IN, true);
-        editor.putString(KEY_USER_EMAIL, email);
-        editor.putString(KEY_USER_NAME, name);
+        long start = metrics.begin(StorageMetrics.Operation.CREATE_LOGIN_SESSION);
+        try {
+            email = normalizeEmail(email);
+            long now = System.currentTimeMillis();
+            synchronized (sessionLock) {
+                SharedPreferences.Editor editor = sharedPreferences.edit();
+                editor.putBoolean(KEY_IS_LOGGED_IN, true);
+                editor.putString(KEY_USER_EMAIL, email);
+                editor.putString(KEY_USER_NAME, name);
+
+                // Only store password if "Remember Me" is checked
+                if (rememberMe) {
+                    editor.putString(KEY_USER_PASSWORD, password);
+                    editor.putBoolean(KEY_REMEMBER_ME, true);
+                } else {
+                    editor.remove(KEY_USER_PASSWORD);
+                    editor.putBoolean(KEY_REMEMBER_ME, false);
+                }
 
-        // Only store password if "Remember Me" is checked
-        if (rememberMe) {
-            editor.putString(KEY_USER_PASSWORD, password);
-            editor.putBoolean(KEY_REMEMBER_ME, true);
-        } else {
-            editor.remove(KEY_USER_PASSWORD);
-            editor.putBoolean(KEY_REMEMBER_ME, false);
+                editor.putLong(KEY_LAST_LOGIN, now);
+                editor.putLong(KEY_LAST_ACTIVE, now);
+                editor.apply();
+
+                // Under the shard lock too, so a pruning pass cannot drop the fresh stamp
+                synchronized (shardLock(email)) {
+                    userShard(email).edit().putLong("user_" + email + "_lastLogin", now).apply();
+                }
+            }
+        } finally {
+            metrics.end(StorageMetrics.Operation.CREATE_LOGIN_SESSION, start);
         }
+    }
 
-        editor.apply();
+    /**
+     * Record that the logged-in user is active, at most once per ACTIVITY_STAMP_INTERVAL_MS
+     */
+    public void touchSession() {
+        long start = metrics.begin(StorageMetrics.Operation.TOUCH_SESSION);
+        try {
+            long now = System.currentTimeMillis();
+            synchronized (sessionLock) {
+                if (isLoggedIn() && now - sharedPreferences.getLong(KEY_LAST_ACTIVE, 0L) >= ACTIVITY_STAMP_INTERVAL_MS) {
+                    sharedPreferences.edit().putLong(KEY_LAST_ACTIVE, now).apply();
+                }
+            }
+        } finally {
+            metrics.end(StorageMetrics.Operation.TOUCH_SESSION, start);
+        }
     }
 
     /**
      * Check if user is logged in
      */
     public boolean isLoggedIn() {
-        return sharedPreferences.getBoolean(KEY_IS_LOGGED_IN, false);
+        long start = metrics.begin(StorageMetrics.Operation.IS_LOGGED_IN);
+        try {
+            return sharedPreferences.getBoolean(KEY_IS_LOGGED_IN, false);
+        } finally {
+            metrics.end(StorageMetrics.Operation.IS_LOGGED_IN, start);
+        }
     }
 
     /**
      * Get current user's email
      */
     public String getUserEmail() {
-        return sharedPreferences.getString(KEY_USER_EMAIL, "");
+        long start = metrics.begin(StorageMetrics.Operation.GET_USER_EMAIL);
+        try {
+            return sharedPreferences.getString(KEY_USER_EMAIL, "");
+        } finally {
+            metrics.end(StorageMetrics.Operation.GET_USER_EMAIL, start);
+        }
+    }
+
+    /**
+     * Get the time of the current session's login in ms, 0 if it was never recorded
+     */
+    public long getLastLoginTime() {
+        long start = metrics.begin(StorageMetrics.Operation.GET_LAST_LOGIN_TIME);
+        try {
+            return sharedPreferences.getLong(KEY_LAST_LOGIN, 0L);
+        } finally {
+            metrics.end(StorageMetrics.Operation.GET_LAST_LOGIN_TIME, start);
+        }
     }
 
     /**
      * Get current user's name
      */
     public String getUserName() {
-        return sharedPreferences.getString(KEY_USER_NAME, "");
+        long start = metrics.begin(StorageMetrics.Operation.GET_USER_NAME);
+        try {
+            return sharedPreferences.getString(KEY_USER_NAME, "");
+        } finally {
+            metrics.end(StorageMetrics.Operation.GET_USER_NAME, start);
+        }
     }
 
     /**
      * Get saved password (only if remember me was enabled)
      */
     public String getSavedPassword() {
-        return sharedPreferences.getString(KEY_USER_PASSWORD, "");
+        long start = metrics.begin(StorageMetrics.Operation.GET_SAVED_PASSWORD);
+        try {
+            return sharedPreferences.getString(KEY_USER_PASSWORD, "");
+        } finally {
+            metrics.end(StorageMetrics.Operation.GET_SAVED_PASSWORD, start);
+        }
     }
 
     /**
      * Check if remember me was enabled
      */
     public boolean isRememberMeEnabled() {
-        return sharedPreferences.getBoolean(KEY_REMEMBER_ME, false);
+        long start = metrics.begin(StorageMetrics.Operation.IS_REMEMBER_ME_ENABLED);
+        try {
+            return sharedPreferences.getBoolean(KEY_REMEMBER_ME, false);
+        } finally {
+            metrics.end(StorageMetrics.Operation.IS_REMEMBER_ME_ENABLED, start);
+        }
     }
 
     /**
      * Register a new user
      */
     public boolean registerUser(String email, String name, String password) {
-        // Check if user already exists
-        if (isUserExists(email)) {
-            return false;
-        }
+        long start = metrics.begin(StorageMetrics.Operation.REGISTER_USER);
+        try {
+            email = normalizeEmail(email);
 
-        // Save user data
-        editor.putString("user_" + email + "_name", name);
-        editor.putString("user_" + email + "_password", password);
-        editor.apply();
+            synchronized (shardLock(email)) {
+                // Check if user already exists
+                if (isUserExists(email)) {
+                    return false;
+                }
+
+                // Save user data
+                userShard(email).edit()
+                        .putString("user_" + email + "_name", name)
+                        .putString("user_" + email + "_password", password)
+                        .apply();
+                indexName(email, name);
+            }
 
-        return true;
+            return true;
+        } finally {
+            metrics.end(StorageMetrics.Operation.REGISTER_USER, start);
+        }
     }
 
     /**
      * Check if user exists
      */
     public boolean isUserExists(String email) {
-        return sharedPreferences.contains("user_" + email + "_password");
+        long start = metrics.begin(StorageMetrics.Operation.IS_USER_EXISTS);
+        try {
+            email = normalizeEmail(email);
+            return userShard(email).contains("user_" + email + "_password");
+        } finally {
+            metrics.end(StorageMetrics.Operation.IS_USER_EXISTS, start);
+        }
     }
 
     /**
      * Validate user credentials
      */
     public boolean validateUser(String email, String password) {
-        String savedPassword = sharedPreferences.getString("user_" + email + "_password", "");
-        return !savedPassword.isEmpty() && savedPassword.equals(password);
+        long start = metrics.begin(StorageMetrics.Operation.VALIDATE_USER);
+        try {
+            email = normalizeEmail(email);
+            String savedPassword = userShard(email).getString("user_" + email + "_password", "");
+            return !savedPassword.isEmpty() && savedPassword.equals(password);
+        } finally {
+            metrics.end(StorageMetrics.Operation.VALIDATE_USER, start);
+        }
     }
 
     /**
      * Get user's name by email
      */
     public String getUserNameByEmail(String email) {
-        return sharedPreferences.getString("user_" + email + "_name", "");
+        long start = metrics.begin(StorageMetrics.Operation.GET_USER_NAME_BY_EMAIL);
+        try {
+            email = normalizeEmail(email);
+            return userShard(email).getString("user_" + email + "_name", "");
+        } finally {
+            metrics.end(StorageMetrics.Operation.GET_USER_NAME_BY_EMAIL, start);
+        }
+    }
+
+    /**
+     * Find accounts whose name, or a later word of it, starts with query
+     * Matching ignores case and accents; at most limit users are returned.
+     */
+    public List<User> findUsersByName(String query, int limit) {
+        long start = metrics.begin(StorageMetrics.Operation.FIND_USERS_BY_NAME);
+        try {
+            List<User> users = new ArrayList<>();
+            for (String email : nameIndex().search(query, limit)) {
+                users.add(new User(userShard(email).getString("user_" + email + "_name", ""), email));
+            }
+            return users;
+        } finally {
+            metrics.end(StorageMetrics.Operation.FIND_USERS_BY_NAME, start);
+        }
     }
 
     /**
      * Logout user and clear session
      */
     public void logout() {
-        editor.putBoolean(KEY_IS_LOGGED_IN, false);
-
-        // If Remember Me is enabled, keep email for auto-fill but remove password for security
-        if (isRememberMeEnabled()) {
-            // Keep email and name for convenience
-            // Keep remember me flag
-            // Remove password for security (user will need to re-enter)
-            editor.remove(KEY_USER_PASSWORD);
-        } else {
-            // If Remember Me is disabled, clear everything
-            editor.remove(KEY_USER_EMAIL);
-            editor.remove(KEY_USER_NAME);
-            editor.remove(KEY_USER_PASSWORD);
-            editor.putBoolean(KEY_REMEMBER_ME, false);
-        }
+        long start = metrics.begin(StorageMetrics.Operation.LOGOUT);
+        try {
+            synchronized (sessionLock) {
+                SharedPreferences.Editor editor = sharedPreferences.edit();
+                editor.putBoolean(KEY_IS_LOGGED_IN, false);
+                boolean rememberMe = isRememberMeEnabled();
 
-        editor.apply();
+                // If Remember Me is enabled, keep email for auto-fill but remove password for security
+                if (rememberMe) {
+                    // Keep email and name for convenience
+                    // Keep remember me flag
+                    // Remove password for security (user will need to re-enter)
+                    editor.remove(KEY_USER_PASSWORD);
+                } else {
+                    // If Remember Me is disabled, clear everything
+                    editor.remove(KEY_USER_EMAIL);
+                    editor.remove(KEY_USER_NAME);
+                    editor.remove(KEY_USER_PASSWORD);
+                    editor.putBoolean(KEY_REMEMBER_ME, false);
+                }
+
+                editor.apply();
+            }
+        } finally {
+            metrics.end(StorageMetrics.Operation.LOGOUT, start);
+        }
     }
 
     /**
      * Clear all user data (complete logout)
      */
     public void clearAllData() {
-        editor.clear();
-        editor.apply();
+        long start = metrics.begin(StorageMetrics.Operation.CLEAR_ALL_DATA);
+        try {
+            synchronized (sessionLock) {
+                sharedPreferences.edit()
+                        .clear()
+                        .putInt(KEY_STORAGE_VERSION, STORAGE_VERSION)
+                        .apply();
+                for (int i = 0; i < USER_SHARD_COUNT; i++) {
+                    synchronized (shardLocks[i]) {
+                        userShard(i).edit().clear().apply();
+                    }
+                }
+                clearNameIndex();
+            }
+        } finally {
+            metrics.end(StorageMetrics.Operation.CLEAR_ALL_DATA, start);
+        }
     }
 
     public boolean shouldMaintainSession() {
-        // If user is logged in but Remember Me is disabled, clear session
-        if (isLoggedIn() && !isRememberMeEnabled()) {
-            logout();
-            return false;
-        }
+        long start = metrics.begin(StorageMetrics.Operation.SHOULD_MAINTAIN_SESSION);
+        try {
+            synchronized (sessionLock) {
+                // If user is logged in but Remember Me is disabled, clear session
+                if (isLoggedIn() && !isRememberMeEnabled()) {
+                    logout();
+                    return false;
+                }
 
-        return isLoggedIn();
+                return isLoggedIn();
+            }
+        } finally {
+            metrics.end(StorageMetrics.Operation.SHOULD_MAINTAIN_SESSION, start);
+        }
     }
     /**
      * Check if this is the first time opening the app
      */
     public boolean isFirstTime() {
-        return sharedPreferences.getBoolean(KEY_FIRST_TIME, true);
+        long start = metrics.begin(StorageMetrics.Operation.IS_FIRST_TIME);
+        try {
+            return sharedPreferences.getBoolean(KEY_FIRST_TIME, true);
+        } finally {
+            metrics.end(StorageMetrics.Operation.IS_FIRST_TIME, start);
+        }
     }
 
     /**
      * Set first time flag to false
      */
     public void setFirstTimeLaunch(boolean isFirstTime) {
-        editor.putBoolean(KEY_FIRST_TIME, isFirstTime);
-        editor.apply();
+        long start = metrics.begin(StorageMetrics.Operation.SET_FIRST_TIME_LAUNCH);
+        try {
+            sharedPreferences.edit().putBoolean(KEY_FIRST_TIME, isFirstTime).apply();
+        } finally {
+            metrics.end(StorageMetrics.Operation.SET_FIRST_TIME_LAUNCH, start);
+        }
     }
 
     /**
      * Update user profile
      */
     public void updateUserProfile(String name) {
-        String currentEmail = getUserEmail();
-        editor.putString(KEY_USER_NAME, name);
-        editor.putString("user_" + currentEmail + "_name", name);
-        editor.apply();
+        long start = metrics.begin(StorageMetrics.Operation.UPDATE_USER_PROFILE);
+        try {
+            synchronized (sessionLock) {
+                String currentEmail = getUserEmail();
+                sharedPreferences.edit().putString(KEY_USER_NAME, name).apply();
+                if (!currentEmail.isEmpty()) {
+                    synchronized (shardLock(currentEmail)) {
+                        userShard(currentEmail).edit().putString("user_" + currentEmail + "_name", name).apply();
+                        indexName(currentEmail, name);
+                    }
+                }
+            }
+        } finally {
+            metrics.end(StorageMetrics.Operation.UPDATE_USER_PROFILE, start);
+        }
+    }
+
+    /**
+     * Save profile and settings changes as one batched write
+     * Pass null for a value that did not change.
+     */
+    public void savePreferences(String name, Boolean rememberMe) {
+        long start = metrics.begin(StorageMetrics.Operation.SAVE_PREFERENCES);
+        try {
+            synchronized (sessionLock) {
+                SharedPreferences.Editor editor = sharedPreferences.edit();
+                if (name != null) {
+                    String email = getUserEmail();
+                    editor.putString(KEY_USER_NAME, name);
+                    if (!email.isEmpty()) {
+                        synchronized (shardLock(email)) {
+                            userShard(email).edit().putString("user_" + email + "_name", name).apply();
+                            indexName(email, name);
+                        }
+                    }
+                }
+                if (rememberMe != null) {
+                    editor.putBoolean(KEY_REMEMBER_ME, rememberMe);
+                    if (!rememberMe) {
+                        editor.remove(KEY_USER_PASSWORD);
+                    }
+                }
+                editor.apply();
+            }
+        } finally {
+            metrics.end(StorageMetrics.Operation.SAVE_PREFERENCES, start);
+        }
     }
 
     /**
      * Change password
      */
     public boolean changePassword(String currentPassword, String newPassword) {
-        String email = getUserEmail();
-        if (validateUser(email, currentPassword)) {
-            editor.putString("user_" + email + "_password", newPassword);
-            if (isRememberMeEnabled()) {
-                editor.putString(KEY_USER_PASSWORD, newPassword);
+        long start = metrics.begin(StorageMetrics.Operation.CHANGE_PASSWORD);
+        try {
+            synchronized (sessionLock) {
+                String email = getUserEmail();
+                synchronized (shardLock(email)) {
+                    if (!validateUser(email, currentPassword)) {
+                        return false;
+                    }
+                    userShard(email).edit().putString("user_" + email + "_password", newPassword).apply();
+                }
+                if (isLoggedIn() && isRememberMeEnabled()) {
+                    sharedPreferences.edit().putString(KEY_USER_PASSWORD, newPassword).apply();
+                }
+                return true;
             }
-            editor.apply();
-            return true;
+        } finally {
+            metrics.end(StorageMetrics.Operation.CHANGE_PASSWORD, start);
+        }
+    }
+
+    /**
+     * Set a new password for an account without the current one (after a verified reset)
+     * A password saved by Remember Me for that account is dropped, since it no longer works.
+     */
+    public boolean resetPassword(String email, String newPassword) {
+        long start = metrics.begin(StorageMetrics.Operation.RESET_PASSWORD);
+        try {
+            email = normalizeEmail(email);
+            synchronized (sessionLock) {
+                synchronized (shardLock(email)) {
+                    if (!isUserExists(email)) {
+                        return false;
+                    }
+                    userShard(email).edit().putString("user_" + email + "_password", newPassword).apply();
+                }
+                if (email.equals(getUserEmail())) {
+                    sharedPreferences.edit().remove(KEY_USER_PASSWORD).apply();
+                }
+                return true;
+            }
+        } finally {
+            metrics.end(StorageMetrics.Operation.RESET_PASSWORD, start);
+        }
+    }
+
+    /**
+     * Get the cursor of the last applied user directory sync page
+     */
+    @Override
+    public long getSyncCursor() {
+        long start = metrics.begin(StorageMetrics.Operation.GET_SYNC_CURSOR);
+        try {
+            return sharedPreferences.getLong(KEY_SYNC_CURSOR, 0L);
+        } finally {
+            metrics.end(StorageMetrics.Operation.GET_SYNC_CURSOR, start);
+        }
+    }
+
+    /**
+     * Get the version stamp of a user record (0 if never synced)
+     */
+    @Override
+    public long getUserVersion(String email) {
+        long start = metrics.begin(StorageMetrics.Operation.GET_USER_VERSION);
+        try {
+            email = normalizeEmail(email);
+            return userShard(email).getLong("user_" + email + "_version", 0L);
+        } finally {
+            metrics.end(StorageMetrics.Operation.GET_USER_VERSION, start);
+        }
+    }
+
+    /**
+     * Apply a page of user directory changes with one batched write per touched shard,
+     * then advance the cursor
+     * Each shard is written under its own lock, one shard at a time. The shards and the cursor
+     * are separate files, so a crash can land the records without the cursor; the page is then
+     * fetched and skipped by version again.
+     */
+    @Override
+    public void applyUserChanges(List<UserChange> changes, long newCursor) {
+        long start = metrics.begin(StorageMetrics.Operation.APPLY_USER_CHANGES);
+        try {
+            List<List<UserChange>> byShard = new ArrayList<>(USER_SHARD_COUNT);
+            for (int i = 0; i < USER_SHARD_COUNT; i++) {
+                byShard.add(new ArrayList<>());
+            }
+            for (UserChange change : changes) {
+                byShard.get(shardIndex(normalizeEmail(change.getEmail()))).add(change);
+            }
+
+            for (int shard = 0; shard < USER_SHARD_COUNT; shard++) {
+                List<UserChange> shardChanges = byShard.get(shard);
+                if (shardChanges.isEmpty()) {
+                    continue;
+                }
+                synchronized (shardLocks[shard]) {
+                    SharedPreferences.Editor shardEditor = userShard(shard).edit();
+                    Map<String, String> names = new HashMap<>();
+                    for (UserChange change : shardChanges) {
+                        String email = normalizeEmail(change.getEmail());
+                        String prefix = "user_" + email;
+                        if (change.isDeleted()) {
+                            shardEditor.remove(prefix + "_name");
+                            shardEditor.remove(prefix + "_password");
+                            names.put(email, null);
+                        } else {
+                            shardEditor.putString(prefix + "_name", change.getName());
+                            shardEditor.putString(prefix + "_password", change.getPassword());
+                            names.put(email, change.getName());
+                        }
+                        // Keep the stamp for deletions too so an older upsert cannot resurrect the record
+                        shardEditor.putLong(prefix + "_version", change.getVersion());
+                    }
+                    shardEditor.apply();
+
+                    for (Map.Entry<String, String> entry : names.entrySet()) {
+                        if (entry.getValue() != null) {
+                            indexName(entry.getKey(), entry.getValue());
+                        } else {
+                            unindexName(entry.getKey());
+                        }
+                    }
+                }
+            }
+            // Applies run in order, so the cursor never lands before the records it covers
+            sharedPreferences.edit().putLong(KEY_SYNC_CURSOR, newCursor).apply();
+        } finally {
+            metrics.end(StorageMetrics.Operation.APPLY_USER_CHANGES, start);
+        }
+    }
+
+    /**
+     * Number of user shards, for maintenance passes that walk them one at a time
+     */
+    public int getUserShardCount() {
+        return USER_SHARD_COUNT;
+    }
+
+    /**
+     * Shard the next maintenance pass should start from
+     */
+    public int getMaintenanceCursor() {
+        long start = metrics.begin(StorageMetrics.Operation.GET_MAINTENANCE_CURSOR);
+        try {
+            return sharedPreferences.getInt(KEY_MAINTENANCE_CURSOR, 0);
+        } finally {
+            metrics.end(StorageMetrics.Operation.GET_MAINTENANCE_CURSOR, start);
+        }
+    }
+
+    public void setMaintenanceCursor(int shard) {
+        long start = metrics.begin(StorageMetrics.Operation.SET_MAINTENANCE_CURSOR);
+        try {
+            sharedPreferences.edit().putInt(KEY_MAINTENANCE_CURSOR, shard).apply();
+        } finally {
+            metrics.end(StorageMetrics.Operation.SET_MAINTENANCE_CURSOR, start);
+        }
+    }
+
+    /**
+     * End a session that has been idle longer than maxIdleMs and drop the email and name
+     * a Remember Me logout keeps for autofill once they are that old too
+     *
+     * @return true if anything was removed
+     */
+    public boolean expireIdleSession(long now, long maxIdleMs) {
+        long start = metrics.begin(StorageMetrics.Operation.EXPIRE_IDLE_SESSION);
+        try {
+            synchronized (sessionLock) {
+                long lastActive = sharedPreferences.getLong(KEY_LAST_ACTIVE, 0L);
+                if (lastActive == 0L) {
+                    // Sessions from before activity stamps existed start their idle clock now
+                    sharedPreferences.edit().putLong(KEY_LAST_ACTIVE, now).apply();
+                    return false;
+                }
+                if (now - lastActive < maxIdleMs) {
+                    return false;
+                }
+                if (!isLoggedIn() && !sharedPreferences.contains(KEY_USER_EMAIL)
+                        && !sharedPreferences.contains(KEY_USER_NAME)) {
+                    return false;
+                }
+
+                sharedPreferences.edit()
+                        .putBoolean(KEY_IS_LOGGED_IN, false)
+                        .remove(KEY_USER_EMAIL)
+                        .remove(KEY_USER_NAME)
+                        .remove(KEY_USER_PASSWORD)
+                        .apply();
+                return true;
+            }
+        } finally {
+            metrics.end(StorageMetrics.Operation.EXPIRE_IDLE_SESSION, start);
+        }
+    }
+
+    /**
+     * Compact one user shard and purge accounts not logged into for retentionMs
+     * The current session's account is never purged, records without a password
+     * are dropped as orphans, and version stamps are kept so sync cannot resurrect
+     * a purged record. Accounts without a login stamp get one now as a grace period.
+     * Writes the shard at most once. Holds sessionLock as well as the shard's lock, so the
+     * current session cannot change while its account is being judged.
+     *
+     * @return number of keys removed
+     */
+    public int pruneUserShard(int shard, long now, long retentionMs) {
+        long start = metrics.begin(StorageMetrics.Operation.PRUNE_USER_SHARD);
+        try {
+            synchronized (sessionLock) {
+                synchronized (shardLocks[shard]) {
+                    SharedPreferences preferences = userShard(shard);
+                    Map<String, ?> all = preferences.getAll();
+                    String currentEmail = getUserEmail();
+
+                    SharedPreferences.Editor shardEditor = null;
+                    List<String> purged = new ArrayList<>();
+                    int removed = 0;
+                    for (String key : all.keySet()) {
+                        int suffix = key.lastIndexOf('_');
+                        if (!key.startsWith("user_") || suffix <= "user_".length() || !key.endsWith("_password")) {
+                            continue;
+                        }
+                        String prefix = key.substring(0, suffix);
+                        String email = prefix.substring("user_".length());
+                        if (email.equals(currentEmail)) {
+                            continue;
+                        }
+
+                        Object lastLogin = all.get(prefix + "_lastLogin");
+                        if (!(lastLogin instanceof Long)) {
+                            if (shardEditor == null) {
+                                shardEditor = preferences.edit();
+                            }
+                            shardEditor.putLong(prefix + "_lastLogin", now);
+                        } else if (now - (Long) lastLogin >= retentionMs) {
+                            if (shardEditor == null) {
+                                shardEditor = preferences.edit();
+                            }
+                            shardEditor.remove(prefix + "_name").remove(key).remove(prefix + "_lastLogin");
+                            removed += all.containsKey(prefix + "_name") ? 3 : 2;
+                            purged.add(email);
+                        }
+                    }
+
+                    // Orphans: names or stamps left behind without a password; keys of any
+                    // other shape are not ours to judge and are left alone
+                    for (String key : all.keySet()) {
+                        String prefix = orphanableRecordPrefix(key);
+                        if (prefix != null && !all.containsKey(prefix + "_password")) {
+                            if (shardEditor == null) {
+                                shardEditor = preferences.edit();
+                            }
+                            shardEditor.remove(key);
+                            removed++;
+                        }
+                    }
+
+                    if (shardEditor != null) {
+                        shardEditor.apply();
+                    }
+                    for (String email : purged) {
+                        unindexName(email);
+                    }
+                    return removed;
+                }
+            }
+        } finally {
+            metrics.end(StorageMetrics.Operation.PRUNE_USER_SHARD, start);
+        }
+    }
+
+    /**
+     * "user_<email>" part of an account field that is meaningless without the account's
+     * password, or null for any other key (passwords, version stamps, unknown keys)
+     */
+    private static String orphanableRecordPrefix(String key) {
+        if (!key.startsWith("user_")) {
+            return null;
+        }
+        for (String suffix : ORPHANABLE_SUFFIXES) {
+            if (key.endsWith(suffix) && key.length() > "user_".length() + suffix.length()) {
+                return key.substring(0, key.length() - suffix.length());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Size of the user shards on disk and in memory, and of the same accounts packed
+     * into a CompactUserTable
+     */
+    public UserStoreFootprint measureUserStore() {
+        long start = metrics.begin(StorageMetrics.Operation.MEASURE_USER_STORE);
+        try {
+            List<Map<String, ?>> shards = snapshotUserShards();
+            int accounts = 0;
+            int entries = 0;
+            long diskBytes = 0;
+            long mapHeapBytes = 0;
+            for (int i = 0; i < USER_SHARD_COUNT; i++) {
+                Map<String, ?> shard = shards.get(i);
+                for (String key : shard.keySet()) {
+                    if (key.startsWith("user_") && key.endsWith("_password")) {
+                        accounts++;
+                    }
+                }
+                entries += shard.size();
+                mapHeapBytes += UserStoreFootprint.estimateMapHeap(shard);
+                diskBytes += StorageEngine.current().fileFor(context, USER_SHARD_PREFIX + i).length();
+            }
+            long compactBytes = CompactUserTable.fromShards(shards).memoryBytes();
+            return new UserStoreFootprint(accounts, entries, diskBytes, mapHeapBytes, compactBytes);
+        } finally {
+            metrics.end(StorageMetrics.Operation.MEASURE_USER_STORE, start);
+        }
+    }
+
+    /**
+     * Every account's name and password packed into a CompactUserTable, for callers that
+     * keep a large directory in memory for read-mostly lookups
+     */
+    public CompactUserTable compactUserDirectory() {
+        long start = metrics.begin(StorageMetrics.Operation.COMPACT_USER_DIRECTORY);
+        try {
+            return CompactUserTable.fromShards(snapshotUserShards());
+        } finally {
+            metrics.end(StorageMetrics.Operation.COMPACT_USER_DIRECTORY, start);
+        }
+    }
+
+    /**
+     * Delete the pre-shard LoginAppPrefs file once its contents have been migrated
+     * The migration read it through the configured engine, so that engine deletes it.
+     */
+    public void deleteLegacyStorage() {
+        long start = metrics.begin(StorageMetrics.Operation.DELETE_LEGACY_STORAGE);
+        try {
+            if (sharedPreferences.getInt(KEY_STORAGE_VERSION, 0) >= STORAGE_VERSION) {
+                StorageEngine.current().delete(context, LEGACY_PREF_NAME);
+            }
+        } finally {
+            metrics.end(StorageMetrics.Operation.DELETE_LEGACY_STORAGE, start);
+        }
+    }
+
+    private List<Map<String, ?>> snapshotUserShards() {
+        List<Map<String, ?>> shards = new ArrayList<>(USER_SHARD_COUNT);
+        for (int i = 0; i < USER_SHARD_COUNT; i++) {
+            shards.add(userShard(i).getAll());
+        }
+        return shards;
+    }
+
+    private static int shardIndex(String email) {
+        return Math.floorMod(email.hashCode(), USER_SHARD_COUNT);
+    }
+
+    private SharedPreferences userShard(String email) {
+        return userShard(shardIndex(email));
+    }
+
+    private Object shardLock(String email) {
+        return shardLocks[shardIndex(email)];
+    }
+
+    /**
+     * Open a user shard on first access
+     */
+    private synchronized SharedPreferences userShard(int index) {
+        if (userShards[index] == null) {
+            userShards[index] = stores.open(context, USER_SHARD_PREFIX + index);
+        }
+        return userShards[index];
+    }
+
+    /**
+     * Name index, built from the user shards on first use
+     */
+    private synchronized UserNameIndex nameIndex() {
+        if (nameIndex == null) {
+            UserNameIndex index = new UserNameIndex();
+            for (int i = 0; i < USER_SHARD_COUNT; i++) {
+                Map<String, ?> all = userShard(i).getAll();
+                for (String key : all.keySet()) {
+                    if (!key.startsWith("user_") || !key.endsWith("_password")) {
+                        continue;
+                    }
+                    String prefix = key.substring(0, key.length() - "_password".length());
+                    Object name = all.get(prefix + "_name");
+                    if (name instanceof String) {
+                        index.put(prefix.substring("user_".length()), (String) name);
+                    }
+                }
+            }
+            nameIndex = index;
+        }
+        return nameIndex;
+    }
+
+    // Writers hold the lock too, so a change made while the index is being built is not lost
+
+    private synchronized void indexName(String email, String name) {
+        if (nameIndex != null) {
+            nameIndex.put(email, name);
+        }
+    }
+
+    private synchronized void unindexName(String email) {
+        if (nameIndex != null) {
+            nameIndex.remove(email);
+        }
+    }
+
+    private synchronized void clearNameIndex() {
+        if (nameIndex != null) {
+            nameIndex.clear();
+        }
+    }
+
+    /**
+     * Bring storage written by older versions up to STORAGE_VERSION
+     */
+    private void migrateStorage() {
+        int version = sharedPreferences.getInt(KEY_STORAGE_VERSION, 0);
+        if (version >= STORAGE_VERSION) {
+            return;
+        }
+        SharedPreferences.Editor editor = sharedPreferences.edit();
+        if (version < 1) {
+            splitLegacyPrefs(editor);
+        }
+        if (version < 2) {
+            normalizeStoredEmails(editor);
+        }
+
+        // Written last; applies run in order, so an interrupted migration simply repeats
+        editor.putInt(KEY_STORAGE_VERSION, STORAGE_VERSION);
+        editor.apply();
+    }
+
+    /**
+     * One-time split of the old single LoginAppPrefs file into the session and user shards
+     */
+    private void splitLegacyPrefs(SharedPreferences.Editor editor) {
+        SharedPreferences legacy = stores.open(context, LEGACY_PREF_NAME);
+        Map<String, ?> legacyValues = legacy.getAll();
+        if (!legacyValues.isEmpty()) {
+            SharedPreferences.Editor[] shardEditors = new SharedPreferences.Editor[USER_SHARD_COUNT];
+            for (Map.Entry<String, ?> entry : legacyValues.entrySet()) {
+                String key = entry.getKey();
+                int suffix = key.lastIndexOf('_');
+                if (key.startsWith("user_") && suffix > "user_".length()) {
+                    int shard = shardIndex(key.substring("user_".length(), suffix));
+                    if (shardEditors[shard] == null) {
+                        shardEditors[shard] = userShard(shard).edit();
+                    }
+                    StorageEngine.putValue(shardEditors[shard], key, entry.getValue());
+                } else {
+                    StorageEngine.putValue(editor, key, entry.getValue());
+                }
+            }
+            for (SharedPreferences.Editor shardEditor : shardEditors) {
+                if (shardEditor != null) {
+                    shardEditor.apply();
+                }
+            }
+            legacy.edit().clear().apply();
+        }
+    }
+
+    /**
+     * One-time move of records stored under mixed-case emails to their normalized keys
+     * An account already stored under the normalized email wins and the variant is
+     * dropped; among several variants only the first one found is kept.
+     */
+    private void normalizeStoredEmails(SharedPreferences.Editor editor) {
+        List<Map<String, ?>> snapshots = new ArrayList<>();
+        Map<String, String> owners = new HashMap<>();
+        for (int i = 0; i < USER_SHARD_COUNT; i++) {
+            Map<String, ?> all = userShard(i).getAll();
+            snapshots.add(all);
+            for (String key : all.keySet()) {
+                if (key.startsWith("user_") && key.endsWith("_password")) {
+                    String email = key.substring("user_".length(), key.length() - "_password".length());
+                    if (email.equals(normalizeEmail(email))) {
+                        owners.put(email, email);
+                    }
+                }
+            }
+        }
+
+        SharedPreferences.Editor[] shardEditors = new SharedPreferences.Editor[USER_SHARD_COUNT];
+        for (int i = 0; i < USER_SHARD_COUNT; i++) {
+            for (Map.Entry<String, ?> entry : snapshots.get(i).entrySet()) {
+                String key = entry.getKey();
+                int suffix = key.lastIndexOf('_');
+                if (!key.startsWith("user_") || suffix <= "user_".length()) {
+                    continue;
+                }
+                String email = key.substring("user_".length(), suffix);
+                String normalized = normalizeEmail(email);
+                if (email.equals(normalized)) {
+                    continue;
+                }
+
+                shardEditor(shardEditors, i).remove(key);
+                String owner = owners.get(normalized);
+                if (owner == null) {
+                    owner = email;
+                    owners.put(normalized, email);
+                }
+                if (owner.equals(email)) {
+                    StorageEngine.putValue(shardEditor(shardEditors, shardIndex(normalized)),
+                            "user_" + normalized + key.substring(suffix), entry.getValue());
+                }
+            }
+        }
+        for (SharedPreferences.Editor shardEditor : shardEditors) {
+            if (shardEditor != null) {
+                shardEditor.apply();
+            }
+        }
+
+        String sessionEmail = sharedPreferences.getString(KEY_USER_EMAIL, null);
+        if (sessionEmail != null) {
+            editor.putString(KEY_USER_EMAIL, normalizeEmail(sessionEmail));
+        }
+    }
+
+    private SharedPreferences.Editor shardEditor(SharedPreferences.Editor[] shardEditors, int shard) {
+        if (shardEditors[shard] == null) {
+            shardEditors[shard] = userShard(shard).edit();
         }
-        return false;
+        return shardEditors[shard];
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,156 @@
+package com.example.login_shared_pref.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.example.login_shared_pref.BuildConfig;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Storage backends for the app's preference files
+ *
+ * The engine is picked at build time with -PstorageEngine=ATOMIC_FILE (see app/build.gradle);
+ * callers only see the SharedPreferences interface. Every engine passes the same
+ * conformance suite (StorageEngineConformanceTest), so tests and benchmarks can run the
+ * login logic on IN_MEMORY and expect the disk engines to behave the same.
+ */
+public enum StorageEngine {
+
+    /**
+     * Platform XML SharedPreferences
+     */
+    SHARED_PREFERENCES {
+        @Override
+        public SharedPreferences open(Context context, String name) {
+            return context.getSharedPreferences(name, Context.MODE_PRIVATE);
+        }
+
+        @Override
+        public File fileFor(Context context, String name) {
+            return new File(new File(context.getDataDir(), "shared_prefs"), name + ".xml");
+        }
+
+        @Override
+        public void delete(Context context, String name) {
+            context.deleteSharedPreferences(name);
+        }
+    },
+
+    /**
+     * Binary AtomicFileStore under files/prefs_store, migrated once from the XML file
+     *
+     * The migration runs on the store's writer thread as part of its initial load, so
+     * open() never reads or writes a file on the caller's thread.
+     */
+    ATOMIC_FILE {
+        private final Map<String, AtomicFileStore> stores = new HashMap<>();
+
+        @Override
+        public synchronized SharedPreferences open(Context context, String name) {
+            AtomicFileStore store = stores.get(name);
+            if (store == null) {
+                // getSharedPreferences only starts loading the XML; the store reads it later
+                store = new AtomicFileStore(fileFor(context, name),
+                        context.getSharedPreferences(name, Context.MODE_PRIVATE));
+                stores.put(name, store);
+            }
+            return store;
+        }
+
+        @Override
+        public File fileFor(Context context, String name) {
+            return new File(new File(context.getFilesDir(), "prefs_store"), name + ".bin");
+        }
+
+        @Override
+        public synchronized void delete(Context context, String name) {
+            AtomicFileStore store = stores.remove(name);
+            File file = fileFor(context, name);
+            if (store != null) {
+                // Behind any write still queued for the open store
+                store.deleteFile();
+            } else if (file.exists() && !file.delete()) {
+                Log.w(TAG, "Could not delete " + file);
+            }
+            // The XML file kept as a fallback by the migration goes too
+            context.deleteSharedPreferences(name);
+        }
+    },
+
+    /**
+     * InMemoryStore per name for the life of the process; nothing persists (tests and benchmarks)
+     */
+    IN_MEMORY {
+        private final Map<String, InMemoryStore> stores = new HashMap<>();
+
+        @Override
+        public synchronized SharedPreferences open(Context context, String name) {
+            InMemoryStore store = stores.get(name);
+            if (store == null) {
+                store = new InMemoryStore();
+                stores.put(name, store);
+            }
+            return store;
+        }
+
+        @Override
+        public File fileFor(Context context, String name) {
+            // Never created, so footprint measurements see zero bytes on disk
+            return new File(new File(context.getCacheDir(), "in_memory"), name);
+        }
+
+        @Override
+        public synchronized void delete(Context context, String name) {
+            stores.remove(name);
+        }
+    };
+
+    private static final String TAG = "StorageEngine";
+
+    /**
+     * Open (or return the cached instance of) the named preference file
+     */
+    public abstract SharedPreferences open(Context context, String name);
+
+    /**
+     * File the named preferences are stored in; it may not exist yet
+     */
+    public abstract File fileFor(Context context, String name);
+
+    /**
+     * Delete the named preference file; a later open() starts empty
+     */
+    public abstract void delete(Context context, String name);
+
+    /**
+     * Engine selected for this build
+     */
+    public static StorageEngine current() {
+        return valueOf(BuildConfig.STORAGE_ENGINE);
+    }
+
+    /**
+     * Put a value read from getAll() into an editor, whatever its type
+     */
+    @SuppressWarnings("unchecked")
+    static void putValue(SharedPreferences.Editor editor, String key, Object value) {
+        if (value instanceof String) {
+            editor.putString(key, (String) value);
+        } else if (value instanceof Boolean) {
+            editor.putBoolean(key, (Boolean) value);
+        } else if (value instanceof Integer) {
+            editor.putInt(key, (Integer) value);
+        } else if (value instanceof Long) {
+            editor.putLong(key, (Long) value);
+        } else if (value instanceof Float) {
+            editor.putFloat(key, (Float) value);
+        } else if (value instanceof Set) {
+            editor.putStringSet(key, (Set<String>) value);
+        }
+    }
+}
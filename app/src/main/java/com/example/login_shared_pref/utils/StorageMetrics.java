@@ -0,0 +1,178 @@
+package com.example.login_shared_pref.utils;
+
+import android.os.Looper;
+
+import com.example.login_shared_pref.BuildConfig;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Optional latency, call-count and main-thread instrumentation for SharedPrefsManager
+ *
+ * Each operation brackets its body with begin()/end(); begin() also runs the
+ * StorageThreadGuard check. Only the outermost operation on a thread is recorded: an
+ * operation called from inside another one (registerUser checking isUserExists, say)
+ * is part of its caller's latency and is neither timed nor counted again. When
+ * disabled (the default in release builds) begin() returns 0 and end() returns at
+ * once; when enabled, recording touches only preallocated counters and a per-thread
+ * depth counter, and never allocates after a thread's first call. Read the results
+ * with getHistogram() and getMainThreadCalls() in tests or dump() on a debug screen.
+ */
+public final class StorageMetrics {
+
+    /**
+     * Instrumented SharedPrefsManager operations
+     */
+    public enum Operation {
+        CREATE_LOGIN_SESSION,
+        TOUCH_SESSION,
+        IS_LOGGED_IN,
+        GET_USER_EMAIL,
+        GET_LAST_LOGIN_TIME,
+        GET_USER_NAME,
+        GET_SAVED_PASSWORD,
+        IS_REMEMBER_ME_ENABLED,
+        REGISTER_USER,
+        IS_USER_EXISTS,
+        VALIDATE_USER,
+        GET_USER_NAME_BY_EMAIL,
+        FIND_USERS_BY_NAME,
+        LOGOUT,
+        CLEAR_ALL_DATA,
+        SHOULD_MAINTAIN_SESSION,
+        IS_FIRST_TIME,
+        SET_FIRST_TIME_LAUNCH,
+        UPDATE_USER_PROFILE,
+        SAVE_PREFERENCES,
+        CHANGE_PASSWORD,
+        RESET_PASSWORD,
+        GET_SYNC_CURSOR,
+        GET_USER_VERSION,
+        APPLY_USER_CHANGES,
+        GET_MAINTENANCE_CURSOR,
+        SET_MAINTENANCE_CURSOR,
+        EXPIRE_IDLE_SESSION,
+        PRUNE_USER_SHARD,
+        DELETE_LEGACY_STORAGE,
+        MEASURE_USER_STORE,
+        COMPACT_USER_DIRECTORY
+    }
+
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final StorageMetrics INSTANCE = new StorageMetrics();
+
+    // Returned by begin() for an operation nested in another; end() then only unwinds
+    private static final long NESTED = Long.MIN_VALUE;
+
+    // Operations currently open on this thread
+    private final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[OPERATIONS.length];
+    private final AtomicLongArray mainThreadCalls = new AtomicLongArray(OPERATIONS.length);
+    private volatile boolean enabled = BuildConfig.DEBUG;
+
+    private StorageMetrics() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Get singleton instance of StorageMetrics
+     */
+    public static StorageMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Start timing an operation; pass the result to end()
+     */
+    public long begin(Operation operation) {
+        if (!enabled) {
+            StorageThreadGuard.getInstance().check(operation.name());
+            return 0L;
+        }
+        int[] open = depth.get();
+        if (open[0] > 0) {
+            open[0]++;
+            return NESTED;
+        }
+        // Checked before the depth is raised: in FAIL_FAST mode this throws and end() never runs
+        StorageThreadGuard.getInstance().check(operation.name());
+        open[0] = 1;
+        return System.nanoTime();
+    }
+
+    /**
+     * Finish timing an operation started with begin()
+     */
+    public void end(Operation operation, long start) {
+        if (start == 0L) {
+            return;
+        }
+        depth.get()[0]--;
+        if (start == NESTED) {
+            return;
+        }
+        histograms[operation.ordinal()].record(System.nanoTime() - start);
+        if (Looper.getMainLooper().isCurrentThread()) {
+            mainThreadCalls.incrementAndGet(operation.ordinal());
+        }
+    }
+
+    public LatencyHistogram getHistogram(Operation operation) {
+        return histograms[operation.ordinal()];
+    }
+
+    public long getCallCount(Operation operation) {
+        return histograms[operation.ordinal()].getCount();
+    }
+
+    /**
+     * Calls of this operation made on the main thread
+     */
+    public long getMainThreadCalls(Operation operation) {
+        return mainThreadCalls.get(operation.ordinal());
+    }
+
+    public void reset() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i].reset();
+            mainThreadCalls.set(i, 0);
+        }
+    }
+
+    /**
+     * Table of every operation that has been called: count, main-thread calls and
+     * p50/p90/p99/max latency in microseconds
+     */
+    public String dump() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format(Locale.US, "%-24s %7s %5s %8s %8s %8s %8s%n",
+                "operation", "calls", "main", "p50us", "p90us", "p99us", "maxus"));
+        for (Operation operation : OPERATIONS) {
+            LatencyHistogram histogram = histograms[operation.ordinal()];
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            builder.append(String.format(Locale.US, "%-24s %7d %5d %8.1f %8.1f %8.1f %8.1f%n",
+                    operation.name().toLowerCase(Locale.US),
+                    histogram.getCount(),
+                    mainThreadCalls.get(operation.ordinal()),
+                    histogram.getValueAtPercentile(50) / 1e3,
+                    histogram.getValueAtPercentile(90) / 1e3,
+                    histogram.getValueAtPercentile(99) / 1e3,
+                    histogram.getMaxNanos() / 1e3));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.login_shared_pref.utils;
+
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.login_shared_pref.BuildConfig;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * StrictMode-style detector for persistence calls made on the main looper
+ *
+ * Stores call check() at the start of every operation that may touch disk. In LOG mode
+ * (the debug default) the stack is only captured for the first main-thread call of each
+ * operation and then one call in every SAMPLE_INTERVAL, so a hot path costs a counter
+ * increment; each sampled call site is logged once with the calling activity and method
+ * and a short stack sample, and recent samples are kept for inspection. In FAIL_FAST mode
+ * (for tests) every call throws instead. Release builds default to OFF, where check() is
+ * a single volatile read.
+ */
+public final class StorageThreadGuard {
+
+    private static final String TAG = "StorageThreadGuard";
+    private static final String APP_PACKAGE = "com.example.login_shared_pref.";
+    private static final String ACTIVITIES_PACKAGE = APP_PACKAGE + "activities.";
+
+    // The guard itself and the stores that call it; skipped when looking for the caller
+    private static final Set<String> STORAGE_LAYER = new HashSet<>(Arrays.asList(
+            StorageThreadGuard.class.getName(),
+            StorageMetrics.class.getName(),
+            SharedPrefsManager.class.getName(),
+            ProcessSafeStore.class.getName(),
+            AtomicFileStore.class.getName()));
+
+    private static final int STACK_SAMPLE_DEPTH = 8;
+    private static final int MAX_RECENT_VIOLATIONS = 50;
+    static final int SAMPLE_INTERVAL = 64;
+
+    public enum Mode {
+        OFF,
+        LOG,
+        FAIL_FAST
+    }
+
+    private static final StorageThreadGuard INSTANCE = new StorageThreadGuard();
+
+    private volatile Mode mode = BuildConfig.DEBUG ? Mode.LOG : Mode.OFF;
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<String, AtomicLong> mainThreadCalls = new ConcurrentHashMap<>();
+    private final ArrayDeque<Violation> recentViolations = new ArrayDeque<>();
+
+    private StorageThreadGuard() {
+    }
+
+    /**
+     * Get singleton instance of StorageThreadGuard
+     */
+    public static StorageThreadGuard getInstance() {
+        return INSTANCE;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Report the operation if it is running on the main looper
+     *
+     * @throws StorageOnMainThreadException in FAIL_FAST mode
+     */
+    public void check(String operation) {
+        Mode current = mode;
+        if (current == Mode.OFF || !Looper.getMainLooper().isCurrentThread()) {
+            return;
+        }
+
+        if (current == Mode.FAIL_FAST) {
+            throw new StorageOnMainThreadException(
+                    new Violation(operation, new Throwable().getStackTrace()));
+        }
+        if (!isSampled(operation)) {
+            return;
+        }
+
+        Violation violation = new Violation(operation, new Throwable().getStackTrace());
+        synchronized (recentViolations) {
+            if (recentViolations.size() == MAX_RECENT_VIOLATIONS) {
+                recentViolations.removeFirst();
+            }
+            recentViolations.addLast(violation);
+        }
+        if (reportedSites.add(violation.getCaller() + "/" + operation)) {
+            Log.w(TAG, violation.toString(), new StorageOnMainThreadException(violation));
+        }
+    }
+
+    /**
+     * Whether this main-thread call of the operation should capture a stack
+     */
+    private boolean isSampled(String operation) {
+        AtomicLong calls = mainThreadCalls.get(operation);
+        if (calls == null) {
+            AtomicLong created = new AtomicLong();
+            calls = mainThreadCalls.putIfAbsent(operation, created);
+            if (calls == null) {
+                calls = created;
+            }
+        }
+        return calls.getAndIncrement() % SAMPLE_INTERVAL == 0;
+    }
+
+    /**
+     * Most recent violations recorded in LOG mode, oldest first
+     */
+    public List<Violation> getRecentViolations() {
+        synchronized (recentViolations) {
+            return new ArrayList<>(recentViolations);
+        }
+    }
+
+    public void clearViolations() {
+        synchronized (recentViolations) {
+            recentViolations.clear();
+        }
+        reportedSites.clear();
+        mainThreadCalls.clear();
+    }
+
+    /**
+     * One storage call observed on the main thread
+     */
+    public static class Violation {
+        private final String operation;
+        private final String caller;
+        private final StackTraceElement[] stackSample;
+
+        Violation(String operation, StackTraceElement[] stack) {
+            this.operation = operation;
+
+            // Skip the guard and the store layers to find who asked for storage
+            int first = 0;
+            while (first < stack.length && isStorageLayer(stack[first].getClassName())) {
+                first++;
+            }
+            this.stackSample = Arrays.copyOfRange(stack, Math.min(first, stack.length),
+                    Math.min(first + STACK_SAMPLE_DEPTH, stack.length));
+            this.caller = findCaller(stack, first);
+        }
+
+        private static boolean isStorageLayer(String className) {
+            int inner = className.indexOf('$');
+            return STORAGE_LAYER.contains(inner < 0 ? className : className.substring(0, inner));
+        }
+
+        private static String findCaller(StackTraceElement[] stack, int first) {
+            for (int i = first; i < stack.length; i++) {
+                if (stack[i].getClassName().startsWith(ACTIVITIES_PACKAGE)) {
+                    return describe(stack[i]);
+                }
+            }
+            return first < stack.length ? describe(stack[first]) : "unknown";
+        }
+
+        private static String describe(StackTraceElement frame) {
+            String className = frame.getClassName();
+            String simpleName = className.substring(className.lastIndexOf('.') + 1);
+            return simpleName + "." + frame.getMethodName();
+        }
+
+        public String getOperation() {
+            return operation;
+        }
+
+        /**
+         * Calling activity and method, e.g. "LoginActivity.authenticateUser"
+         */
+        public String getCaller() {
+            return caller;
+        }
+
+        public StackTraceElement[] getStackSample() {
+            return stackSample.clone();
+        }
+
+        @Override
+        public String toString() {
+            return "Storage call " + operation + " on main thread from " + caller;
+        }
+    }
+
+    /**
+     * Thrown in FAIL_FAST mode, and attached to LOG mode reports for the stack sample
+     */
+    public static class StorageOnMainThreadException extends IllegalStateException {
+        private final Violation violation;
+
+        StorageOnMainThreadException(Violation violation) {
+            super(violation.toString());
+            this.violation = violation;
+            setStackTrace(violation.stackSample);
+        }
+
+        public Violation getViolation() {
+            return violation;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.login_shared_pref.utils;
+
+import com.example.login_shared_pref.models.UserChange;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Incremental delta sync of the local user directory
+ * Pulls pages of changes newer than the stored sync cursor and applies each page as one local batch
+ *
+ * Runs blocking I/O, so call syncNow() from a background thread.
+ */
+public class UserDirectorySync {
+
+    public static final int DEFAULT_PAGE_SIZE = 500;
+
+    /**
+     * Server side of the protocol: returns changes with a sequence number greater than the cursor
+     */
+    public interface RemoteSource {
+        ChangePage fetchChanges(long cursor, int limit) throws IOException;
+    }
+
+    /**
+     * Local side of the protocol, implemented by SharedPrefsManager
+     */
+    public interface LocalStore {
+        long getSyncCursor();
+
+        long getUserVersion(String email);
+
+        /**
+         * Apply the changes, then advance the cursor
+         * Not atomic: a crash in between keeps the old cursor, and the page is fetched again.
+         * Re-applying is idempotent, since syncNow() skips changes at or below the stored version.
+         */
+        void applyUserChanges(List<UserChange> changes, long newCursor);
+    }
+
+    private final RemoteSource remoteSource;
+    private final LocalStore localStore;
+    private final int pageSize;
+
+    public UserDirectorySync(RemoteSource remoteSource, LocalStore localStore) {
+        this(remoteSource, localStore, DEFAULT_PAGE_SIZE);
+    }
+
+    public UserDirectorySync(RemoteSource remoteSource, LocalStore localStore, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive");
+        }
+        this.remoteSource = remoteSource;
+        this.localStore = localStore;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Fetch and apply every page since the stored cursor
+     * The cursor is persisted after each page, so an interrupted sync resumes where it stopped.
+     */
+    public SyncResult syncNow() throws IOException {
+        SyncResult result = new SyncResult();
+        long cursor = localStore.getSyncCursor();
+
+        while (true) {
+            ChangePage page = remoteSource.fetchChanges(cursor, pageSize);
+            result.pagesFetched++;
+
+            List<UserChange> accepted = new ArrayList<>(page.getChanges().size());
+            Map<String, Long> pageVersions = new HashMap<>();
+            for (UserChange change : page.getChanges()) {
+                // Per-record version stamps make replayed or out-of-order changes harmless;
+                // keyed like the store, so case variants of one address are one record
+                String email = SharedPrefsManager.normalizeEmail(change.getEmail());
+                Long seen = pageVersions.get(email);
+                long current = seen != null ? seen : localStore.getUserVersion(email);
+                if (change.getVersion() > current) {
+                    accepted.add(change);
+                    pageVersions.put(email, change.getVersion());
+                } else {
+                    result.changesSkipped++;
+                }
+            }
+
+            if (!accepted.isEmpty() || page.getNextCursor() != cursor) {
+                localStore.applyUserChanges(accepted, page.getNextCursor());
+                result.changesApplied += accepted.size();
+            }
+            cursor = page.getNextCursor();
+
+            if (!page.hasMore()) {
+                break;
+            }
+        }
+
+        result.cursor = cursor;
+        return result;
+    }
+
+    /**
+     * One page of changes returned by the server
+     */
+    public static class ChangePage {
+        private final List<UserChange> changes;
+        private final long nextCursor;
+        private final boolean hasMore;
+
+        public ChangePage(List<UserChange> changes, long nextCursor, boolean hasMore) {
+            this.changes = changes != null ? changes : Collections.<UserChange>emptyList();
+            this.nextCursor = nextCursor;
+            this.hasMore = hasMore;
+        }
+
+        public List<UserChange> getChanges() { return changes; }
+        public long getNextCursor() { return nextCursor; }
+        public boolean hasMore() { return hasMore; }
+    }
+
+    /**
+     * Summary of a completed sync run
+     */
+    public static class SyncResult {
+        private int pagesFetched;
+        private int changesApplied;
+        private int changesSkipped;
+        private long cursor;
+
+        public int getPagesFetched() { return pagesFetched; }
+        public int getChangesApplied() { return changesApplied; }
+        public int getChangesSkipped() { return changesSkipped; }
+        public long getCursor() { return cursor; }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.login_shared_pref.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * In-memory secondary index from display name to account email
+ *
+ * Names are folded to lower case without accents, and every word suffix is indexed,
+ * so "Jane Doe" is found by "ja", "jane d" and "doe". Prefix queries are a TreeMap
+ * range scan, O(log n + matches). Updates are incremental; SharedPrefsManager builds
+ * the index from the user shards on first search and keeps it in step afterwards.
+ */
+final class UserNameIndex {
+
+    // Sorted search keys to the emails whose names produce them
+    private final TreeMap<String, Set<String>> keys = new TreeMap<>();
+    private final Map<String, String> namesByEmail = new HashMap<>();
+
+    /**
+     * Index email under name, replacing any name it had before
+     */
+    synchronized void put(String email, String name) {
+        remove(email);
+        String normalized = normalizeName(name);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        namesByEmail.put(email, normalized);
+        for (String key : searchKeys(normalized)) {
+            Set<String> emails = keys.get(key);
+            if (emails == null) {
+                emails = new TreeSet<>();
+                keys.put(key, emails);
+            }
+            emails.add(email);
+        }
+    }
+
+    synchronized void remove(String email) {
+        String normalized = namesByEmail.remove(email);
+        if (normalized == null) {
+            return;
+        }
+        for (String key : searchKeys(normalized)) {
+            Set<String> emails = keys.get(key);
+            if (emails != null && emails.remove(email) && emails.isEmpty()) {
+                keys.remove(key);
+            }
+        }
+    }
+
+    synchronized void clear() {
+        keys.clear();
+        namesByEmail.clear();
+    }
+
+    synchronized int size() {
+        return namesByEmail.size();
+    }
+
+    /**
+     * Emails whose name or one of its later words starts with query, in key order
+     */
+    synchronized List<String> search(String query, int limit) {
+        String prefix = normalizeName(query);
+        if (prefix.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        Set<String> matches = new LinkedHashSet<>();
+        SortedMap<String, Set<String>> range = keys.subMap(prefix, prefix + Character.MAX_VALUE);
+        for (Set<String> emails : range.values()) {
+            for (String email : emails) {
+                matches.add(email);
+                if (matches.size() == limit) {
+                    return new ArrayList<>(matches);
+                }
+            }
+        }
+        return new ArrayList<>(matches);
+    }
+
+    /**
+     * Case- and accent-insensitive form of a name with single spaces between words
+     */
+    static String normalizeName(String name) {
+        if (name == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(name, Normalizer.Form.NFKD)
+                .replaceAll("\\p{M}+", "");
+        return decomposed.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The whole name and every suffix that starts at a word
+     */
+    private static List<String> searchKeys(String normalized) {
+        List<String> result = new ArrayList<>();
+        result.add(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            result.add(normalized.substring(i + 1));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.login_shared_pref.utils;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Observable in-memory model of the signed-in user's profile and settings
+ * Screens read and edit this model; changes are pushed to listeners immediately
+ * and written to SharedPreferences in the background as one batched write.
+ */
+public class UserPreferencesModel {
+
+    public static final String KEY_NAME = "name";
+    public static final String KEY_REMEMBER_ME = "rememberMe";
+
+    // Edits made within this window are coalesced into one write
+    static final long WRITE_DELAY_MS = 300;
+
+    /**
+     * Listener notified on the main thread when a preference changes
+     */
+    public interface Listener {
+        void onPreferenceChanged(UserPreferencesModel model, String key);
+    }
+
+    private final SharedPrefsManager sharedPrefsManager;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ScheduledExecutorService writeExecutor;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    // Current values, guarded by this
+    private String email;
+    private String name;
+    private boolean rememberMe;
+    private long lastLoginTime;
+
+    // Pending batch, guarded by this
+    private boolean nameDirty;
+    private boolean rememberMeDirty;
+    private ScheduledFuture<?> pendingWrite;
+
+    // Singleton instance
+    private static UserPreferencesModel instance;
+
+    private UserPreferencesModel(Context context) {
+        this(SharedPrefsManager.getInstance(context), Executors.newSingleThreadScheduledExecutor());
+    }
+
+    /**
+     * Model over a given manager and write executor, e.g. in-memory stores and a manually
+     * stepped executor (tests only); the executor must run tasks one at a time, in order
+     */
+    @VisibleForTesting
+    UserPreferencesModel(SharedPrefsManager sharedPrefsManager, ScheduledExecutorService writeExecutor) {
+        this.sharedPrefsManager = sharedPrefsManager;
+        this.writeExecutor = writeExecutor;
+        reload();
+    }
+
+    /**
+     * Get singleton instance of UserPreferencesModel
+     */
+    public static synchronized UserPreferencesModel getInstance(Context context) {
+        if (instance == null) {
+            instance = new UserPreferencesModel(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Reload values from storage (e.g. after a new login session was created)
+     */
+    public synchronized void reload() {
+        email = sharedPrefsManager.getUserEmail();
+        name = sharedPrefsManager.getUserName();
+        rememberMe = sharedPrefsManager.isRememberMeEnabled();
+        lastLoginTime = sharedPrefsManager.getLastLoginTime();
+    }
+
+    /**
+     * reload() on the write executor, after any pending batch, then run onLoaded on the main thread
+     */
+    public void reloadAsync(Runnable onLoaded) {
+        writeExecutor.execute(() -> {
+            writePending();
+            reload();
+            mainHandler.post(onLoaded);
+        });
+    }
+
+    public synchronized String getEmail() {
+        return email;
+    }
+
+    public synchronized String getName() {
+        return name;
+    }
+
+    public synchronized boolean isRememberMe() {
+        return rememberMe;
+    }
+
+    public synchronized long getLastLoginTime() {
+        return lastLoginTime;
+    }
+
+    /**
+     * Update the display name; listeners see the change before it is written
+     */
+    public void setName(String newName) {
+        synchronized (this) {
+            if (newName == null || newName.equals(name)) {
+                return;
+            }
+            name = newName;
+            nameDirty = true;
+            scheduleWrite();
+        }
+        notifyListeners(KEY_NAME);
+    }
+
+    /**
+     * Update the Remember Me setting
+     */
+    public void setRememberMe(boolean enabled) {
+        synchronized (this) {
+            if (enabled == rememberMe) {
+                return;
+            }
+            rememberMe = enabled;
+            rememberMeDirty = true;
+            scheduleWrite();
+        }
+        notifyListeners(KEY_REMEMBER_ME);
+    }
+
+    /**
+     * Hand pending changes to the write executor now instead of waiting for the batch window
+     * Returns at once, so screens can call it from onPause.
+     */
+    public void flush() {
+        submitFlush(null);
+    }
+
+    /**
+     * flush(), then run next on the write executor once the batch is written
+     * For anything else that edits the session (e.g. logout), so the batch cannot land after it.
+     */
+    public void flushThen(Runnable next) {
+        submitFlush(next);
+    }
+
+    /**
+     * flush() and block until the batch is written; never from the main thread
+     */
+    public void flushAndWait() {
+        try {
+            submitFlush(null).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private Future<?> submitFlush(@Nullable Runnable next) {
+        synchronized (this) {
+            if (pendingWrite != null) {
+                pendingWrite.cancel(false);
+                pendingWrite = null;
+            }
+        }
+        return writeExecutor.submit(() -> {
+            writePending();
+            if (next != null) {
+                next.run();
+            }
+        });
+    }
+
+    private void scheduleWrite() {
+        if (pendingWrite == null) {
+            pendingWrite = writeExecutor.schedule(this::writePending, WRITE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Runs on the write executor; snapshots the batch and writes it in one apply()
+     */
+    private void writePending() {
+        String nameToWrite;
+        Boolean rememberMeToWrite;
+        synchronized (this) {
+            pendingWrite = null;
+            nameToWrite = nameDirty ? name : null;
+            rememberMeToWrite = rememberMeDirty ? rememberMe : null;
+            nameDirty = false;
+            rememberMeDirty = false;
+        }
+        if (nameToWrite != null || rememberMeToWrite != null) {
+            sharedPrefsManager.savePreferences(nameToWrite, rememberMeToWrite);
+        }
+    }
+
+    private void notifyListeners(String key) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            for (Listener listener : listeners) {
+                listener.onPreferenceChanged(this, key);
+            }
+        } else {
+            mainHandler.post(() -> notifyListeners(key));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.login_shared_pref.utils;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Disk and heap size of the user directory, as stored and as a CompactUserTable
+ *
+ * Heap numbers are estimates from a 64-bit, compressed-reference object model
+ * (HashMap node 32 B plus its table slot, String 24 B plus a byte-per-char array,
+ * boxed Long/Integer 16 B), which matches ART and HotSpot closely enough to compare
+ * layouts. Android has no portable way to measure retained size at runtime.
+ */
+public final class UserStoreFootprint {
+
+    private final int accounts;
+    private final int entries;
+    private final long diskBytes;
+    private final long mapHeapBytes;
+    private final long compactHeapBytes;
+
+    UserStoreFootprint(int accounts, int entries, long diskBytes, long mapHeapBytes, long compactHeapBytes) {
+        this.accounts = accounts;
+        this.entries = entries;
+        this.diskBytes = diskBytes;
+        this.mapHeapBytes = mapHeapBytes;
+        this.compactHeapBytes = compactHeapBytes;
+    }
+
+    public int getAccounts() {
+        return accounts;
+    }
+
+    /**
+     * Key/value pairs across all user shards
+     */
+    public int getEntries() {
+        return entries;
+    }
+
+    public long getDiskBytes() {
+        return diskBytes;
+    }
+
+    /**
+     * Estimated heap held by the shard maps
+     */
+    public long getMapHeapBytes() {
+        return mapHeapBytes;
+    }
+
+    /**
+     * Heap the same accounts take packed into a CompactUserTable
+     */
+    public long getCompactHeapBytes() {
+        return compactHeapBytes;
+    }
+
+    public long getMapHeapBytesPerAccount() {
+        return accounts == 0 ? 0 : mapHeapBytes / accounts;
+    }
+
+    public long getCompactHeapBytesPerAccount() {
+        return accounts == 0 ? 0 : compactHeapBytes / accounts;
+    }
+
+    /**
+     * Estimated heap of a preference map: entries, keys, values and the bucket table
+     */
+    static long estimateMapHeap(Map<String, ?> map) {
+        int buckets = Integer.highestOneBit(Math.max(1, (int) (map.size() / 0.75f)) * 2 - 1);
+        long total = 48 + align(16 + 4L * buckets);
+        for (Map.Entry<String, ?> entry : map.entrySet()) {
+            total += 32 + estimateStringHeap(entry.getKey()) + estimateValueHeap(entry.getValue());
+        }
+        return total;
+    }
+
+    private static long estimateValueHeap(Object value) {
+        if (value instanceof String) {
+            return estimateStringHeap((String) value);
+        }
+        if (value instanceof Boolean) {
+            // Boolean.TRUE/FALSE are shared
+            return 0;
+        }
+        if (value instanceof Set) {
+            long total = 48 + align(16 + 4L * Math.max(16, ((Set<?>) value).size() * 2));
+            for (Object element : (Set<?>) value) {
+                total += 32 + estimateStringHeap(String.valueOf(element));
+            }
+            return total;
+        }
+        return 16;
+    }
+
+    private static long estimateStringHeap(String value) {
+        boolean latin1 = true;
+        for (int i = 0; i < value.length() && latin1; i++) {
+            latin1 = value.charAt(i) < 0x100;
+        }
+        return 24 + align(16 + (long) value.length() * (latin1 ? 1 : 2));
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "%d accounts, %d entries: disk %d B, heap %d B (%d B/account), compact %d B (%d B/account)",
+                accounts, entries, diskBytes, mapHeapBytes, getMapHeapBytesPerAccount(),
+                compactHeapBytes, getCompactHeapBytesPerAccount());
+    }
+}
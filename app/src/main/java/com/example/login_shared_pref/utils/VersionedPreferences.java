@@ -0,0 +1,24 @@
+package com.example.login_shared_pref.utils;
+
+import android.content.SharedPreferences;
+
+import androidx.annotation.VisibleForTesting;
+
+/**
+ * SharedPreferences with a version counter that moves on every write
+ * Lets a reader cache state derived from the store until the version changes. The session
+ * store is always one of these, whichever engine is configured.
+ */
+public interface VersionedPreferences extends SharedPreferences {
+
+    /**
+     * Current version; changes whenever the contents are written
+     */
+    long getVersion();
+
+    /**
+     * Block until the edits queued so far are durable (tests only)
+     */
+    @VisibleForTesting
+    void awaitWrites();
+}
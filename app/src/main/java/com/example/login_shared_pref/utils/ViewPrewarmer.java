@@ -0,0 +1,149 @@
+package com.example.login_shared_pref.utils;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.MutableContextWrapper;
+import android.os.Looper;
+import android.util.AttributeSet;
+import android.util.Log;
+import android.view.InflateException;
+import android.view.LayoutInflater;
+import android.view.View;
+
+import androidx.annotation.LayoutRes;
+import androidx.annotation.VisibleForTesting;
+import androidx.appcompat.view.ContextThemeWrapper;
+import androidx.appcompat.widget.AppCompatImageButton;
+import androidx.appcompat.widget.AppCompatImageView;
+import androidx.appcompat.widget.AppCompatTextView;
+
+import com.example.login_shared_pref.R;
+
+/**
+ * Inflates the next likely screen's layout while the current screen is idle, and hands
+ * the ready view hierarchy to that activity's onCreate
+ *
+ * Inflation runs from a main-thread idle handler rather than a background thread: the
+ * Material widgets in our layouts create Handlers and read the Looper, so they must be
+ * built on the main thread, and an idle handler only runs once the current screen has
+ * drawn and has no pending work. The inflater maps the framework widgets used in our
+ * layouts to their AppCompat versions so attributes such as app:tint still apply.
+ * Only one hierarchy is cached at a time.
+ */
+public class ViewPrewarmer {
+
+    private static final String TAG = "ViewPrewarmer";
+
+    private final Context appContext;
+
+    // Single cache slot, only touched on the main thread
+    private int cachedLayoutId;
+    private View cachedView;
+    private MutableContextWrapper cachedContext;
+    private int scheduledLayoutId;
+
+    // Singleton instance
+    private static ViewPrewarmer instance;
+
+    private ViewPrewarmer(Context context) {
+        this.appContext = context;
+    }
+
+    /**
+     * Get singleton instance of ViewPrewarmer
+     */
+    public static synchronized ViewPrewarmer getInstance(Context context) {
+        if (instance == null) {
+            instance = new ViewPrewarmer(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Drop the singleton and its cached hierarchy (tests only)
+     */
+    @VisibleForTesting
+    public static synchronized void resetInstance() {
+        instance = null;
+    }
+
+    /**
+     * Inflate the layout once the main thread has no pending work
+     * Call from the main thread; does nothing if the layout is already cached or scheduled.
+     */
+    public void prewarmWhenIdle(@LayoutRes int layoutId) {
+        if (layoutId == cachedLayoutId || layoutId == scheduledLayoutId) {
+            return;
+        }
+        scheduledLayoutId = layoutId;
+        Looper.myQueue().addIdleHandler(() -> {
+            inflate(layoutId);
+            return false;
+        });
+    }
+
+    /**
+     * Take the pre-inflated hierarchy for this layout, rebound to the activity
+     * Returns null if nothing is ready; the caller then inflates normally.
+     */
+    public View take(Activity activity, @LayoutRes int layoutId) {
+        if (cachedView == null || cachedLayoutId != layoutId) {
+            return null;
+        }
+        View view = cachedView;
+        cachedContext.setBaseContext(activity);
+
+        cachedView = null;
+        cachedContext = null;
+        cachedLayoutId = 0;
+        return view;
+    }
+
+    private void inflate(@LayoutRes int layoutId) {
+        if (layoutId != scheduledLayoutId) {
+            // A later request replaced this one
+            return;
+        }
+        scheduledLayoutId = 0;
+
+        // Views keep this wrapper as their context; take() points it at the real activity
+        MutableContextWrapper context = new MutableContextWrapper(
+                new ContextThemeWrapper(appContext, R.style.Theme_LoginApp));
+        LayoutInflater inflater = LayoutInflater.from(context).cloneInContext(context);
+        inflater.setFactory2(new AppCompatFactory());
+
+        try {
+            cachedView = inflater.inflate(layoutId, null, false);
+            cachedContext = context;
+            cachedLayoutId = layoutId;
+        } catch (InflateException e) {
+            // The activity will inflate the layout itself
+            Log.w(TAG, "Prewarm inflation failed", e);
+        }
+    }
+
+    /**
+     * Minimal stand-in for AppCompat's view inflater covering the widgets used in our layouts
+     */
+    private static class AppCompatFactory implements LayoutInflater.Factory2 {
+
+        @Override
+        public View onCreateView(View parent, String name, Context context, AttributeSet attrs) {
+            switch (name) {
+                case "TextView":
+                    return new AppCompatTextView(context, attrs);
+                case "ImageView":
+                    return new AppCompatImageView(context, attrs);
+                case "ImageButton":
+                    return new AppCompatImageButton(context, attrs);
+                default:
+                    return null;
+            }
+        }
+
+        @Override
+        public View onCreateView(String name, Context context, AttributeSet attrs) {
+            return onCreateView(null, name, context, attrs);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.login_shared_pref.utils;
+
+/**
+ * Reset code delivery of release builds: the app has no mail backend, so there is no
+ * sender and the forgot-password flow is not offered
+ *
+ * The debug source set has its own ResetCodeDelivery with an in-process sender.
+ */
+public final class ResetCodeDelivery {
+
+    private ResetCodeDelivery() {
+    }
+
+    /**
+     * Sender PasswordResetManager starts with; none until a real backend exists
+     */
+    static PasswordResetManager.ResetCodeSender createSender() {
+        return null;
+    }
+
+    /**
+     * Codes are never readable in release builds
+     */
+    public static String peekLastCode(PasswordResetManager.ResetCodeSender sender, String email) {
+        return null;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.login_shared_pref.activities;
+
+import android.content.Intent;
+import android.widget.EditText;
+
+import androidx.lifecycle.ViewModelProvider;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.login_shared_pref.R;
+import com.example.login_shared_pref.utils.AuthStateMachine;
+import com.example.login_shared_pref.utils.SessionStore;
+import com.example.login_shared_pref.utils.SharedPrefsManager;
+import com.google.android.material.textfield.TextInputLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.LooperMode;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Recreates the auth screens while a request is in flight and checks that the result
+ * reaches the new instance exactly once
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = FlowTestApplication.class)
+@LooperMode(LooperMode.Mode.PAUSED)
+public class AuthFormRecreationTest {
+
+    private static final String EMAIL = "jane@example.com";
+    private static final String PASSWORD = "secret1";
+
+    private FlowTestApplication app;
+
+    @Before
+    public void setUp() {
+        SharedPrefsManager.resetInstance();
+        SessionStore.resetInstance();
+        AuthStateMachine.resetInstance();
+        app = ApplicationProvider.getApplicationContext();
+        SharedPrefsManager.getInstance(app).registerUser(EMAIL, "Jane Doe", PASSWORD);
+    }
+
+    @Test
+    public void login_resultSurvivesRecreation() {
+        ActivityController<LoginActivity> controller = Robolectric.buildActivity(LoginActivity.class).setup();
+        submitLogin(controller.get(), PASSWORD);
+        new MainLooperRunner().runFor(500);
+
+        controller.recreate();
+        LoginActivity recreated = controller.get();
+        assertFalse("Still loading after recreation", recreated.findViewById(R.id.btn_login).isEnabled());
+
+        new MainLooperRunner().runUntil(700, () -> recreated.findViewById(R.id.btn_login).isEnabled());
+        Intent next = shadowOf(recreated).getNextStartedActivity();
+        assertNotNull(next);
+        assertEquals(MainActivity.class.getName(), next.getComponent().getClassName());
+        assertTrue(SharedPrefsManager.getInstance(app).isLoggedIn());
+    }
+
+    @Test
+    public void login_failureIsShownOnceOnTheNewInstance() {
+        ActivityController<LoginActivity> controller = Robolectric.buildActivity(LoginActivity.class).setup();
+        submitLogin(controller.get(), "wrong-password");
+        controller.recreate();
+        LoginActivity recreated = controller.get();
+        new MainLooperRunner().runUntil(1_100, () -> recreated.findViewById(R.id.btn_login).isEnabled());
+
+        TextInputLayout tilEmail = recreated.findViewById(R.id.til_email);
+        assertNotNull(tilEmail.getError());
+        assertTrue(recreated.findViewById(R.id.btn_login).isEnabled());
+
+        // The result was consumed, so a second recreation does not replay it
+        controller.recreate();
+        AuthFormViewModel formState = new ViewModelProvider(controller.get()).get(AuthFormViewModel.class);
+        assertEquals(AuthFormViewModel.Status.IDLE, formState.getStatus().getValue());
+    }
+
+    @Test
+    public void register_resultSurvivesRecreation() {
+        ActivityController<RegisterActivity> controller = Robolectric.buildActivity(RegisterActivity.class).setup();
+        RegisterActivity activity = controller.get();
+        ((EditText) activity.findViewById(R.id.et_full_name)).setText("New User");
+        ((EditText) activity.findViewById(R.id.et_email)).setText("new.user@example.com");
+        ((EditText) activity.findViewById(R.id.et_password)).setText(PASSWORD);
+        ((EditText) activity.findViewById(R.id.et_confirm_password)).setText(PASSWORD);
+        activity.findViewById(R.id.btn_register).performClick();
+
+        controller.recreate();
+        RegisterActivity recreated = controller.get();
+        new MainLooperRunner().runUntil(1_600, () -> recreated.findViewById(R.id.btn_register).isEnabled());
+
+        Intent next = shadowOf(controller.get()).getNextStartedActivity();
+        assertNotNull(next);
+        assertEquals(MainActivity.class.getName(), next.getComponent().getClassName());
+        assertEquals("New User", SharedPrefsManager.getInstance(app).getUserName());
+    }
+
+    private static void submitLogin(LoginActivity activity, String password) {
+        ((EditText) activity.findViewById(R.id.et_email)).setText(EMAIL);
+        ((EditText) activity.findViewById(R.id.et_password)).setText(password);
+        activity.findViewById(R.id.btn_login).performClick();
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.login_shared_pref.activities;
+
+import androidx.lifecycle.SavedStateHandle;
+
+import com.example.login_shared_pref.utils.CryptoExecutor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Result timing of AuthFormViewModel: after both the delay and the check, never blocking
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(LooperMode.Mode.PAUSED)
+public class AuthFormViewModelTest {
+
+    private static final long DELAY_MS = 1_000;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch abandoned = new CountDownLatch(1);
+    private AuthFormViewModel formState;
+
+    @Before
+    public void setUp() {
+        formState = new AuthFormViewModel(new SavedStateHandle());
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        formState.onCleared();
+    }
+
+    @Test
+    public void fastCheck_waitsForTheDelay() {
+        assertTrue(formState.submit(() -> true, DELAY_MS, abandoned::countDown));
+
+        new MainLooperRunner().runFor(DELAY_MS / 2);
+        assertEquals(AuthFormViewModel.Status.RUNNING, formState.getStatus().getValue());
+
+        new MainLooperRunner().runUntil(DELAY_MS, this::isPublished);
+        assertEquals(AuthFormViewModel.Status.SUCCEEDED, formState.getStatus().getValue());
+    }
+
+    @Test
+    public void slowCheck_isPublishedWhenItCompletes() {
+        assertTrue(formState.submit(() -> release.await(5, TimeUnit.SECONDS), 10, abandoned::countDown));
+
+        // The delay is long over, but the main thread does not wait for the check
+        new MainLooperRunner().runFor(DELAY_MS);
+        assertEquals(AuthFormViewModel.Status.RUNNING, formState.getStatus().getValue());
+
+        release.countDown();
+        new MainLooperRunner().runUntil(0, this::isPublished);
+        assertEquals(AuthFormViewModel.Status.SUCCEEDED, formState.getStatus().getValue());
+    }
+
+    @Test
+    public void submitWhileRunning_isRefused() {
+        assertTrue(formState.submit(() -> true, DELAY_MS, abandoned::countDown));
+
+        assertFalse(formState.submit(() -> false, DELAY_MS, abandoned::countDown));
+
+        new MainLooperRunner().runUntil(DELAY_MS, this::isPublished);
+        assertEquals(AuthFormViewModel.Status.SUCCEEDED, formState.getStatus().getValue());
+    }
+
+    @Test
+    public void clearedWhileRunning_cancelsTheCheckAndReportsItAbandoned() {
+        assertTrue(formState.submit(() -> release.await(5, TimeUnit.SECONDS), DELAY_MS, abandoned::countDown));
+
+        formState.onCleared();
+
+        assertEquals(0, abandoned.getCount());
+    }
+
+    @Test
+    public void clearedAfterTheResult_abandonsNothing() {
+        assertTrue(formState.submit(() -> true, 10, abandoned::countDown));
+        new MainLooperRunner().runUntil(10, this::isPublished);
+
+        formState.onCleared();
+
+        assertEquals(1, abandoned.getCount());
+    }
+
+    @Test
+    public void refusedCheck_isPublishedAsFailed() {
+        assertTrue(formState.submit(() -> false, 10, abandoned::countDown));
+
+        new MainLooperRunner().runUntil(10, this::isPublished);
+        assertEquals(AuthFormViewModel.Status.FAILED, formState.getStatus().getValue());
+    }
+
+    @Test
+    public void throwingCheck_isPublishedAsError() {
+        assertTrue(formState.submit(() -> {
+            throw new IllegalStateException("Storage unavailable");
+        }, 10, abandoned::countDown));
+
+        new MainLooperRunner().runUntil(10, this::isPublished);
+        assertEquals(AuthFormViewModel.Status.ERROR, formState.getStatus().getValue());
+
+        formState.acknowledge();
+        assertEquals(AuthFormViewModel.Status.IDLE, formState.getStatus().getValue());
+    }
+
+    @Test
+    public void rejectedCheck_isPublishedAsError() {
+        // Take every one of the shared pool's 16 interactive slots
+        CryptoExecutor executor = CryptoExecutor.getInstance();
+        List<CryptoExecutor.Task<Boolean>> blockers = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            blockers.add(executor.submitInteractive(() -> release.await(5, TimeUnit.SECONDS)));
+        }
+        long rejectedBefore = executor.getRejectedCount(CryptoExecutor.Priority.INTERACTIVE);
+
+        assertTrue(formState.submit(() -> true, 10, abandoned::countDown));
+
+        new MainLooperRunner().runUntil(10, this::isPublished);
+        assertEquals(AuthFormViewModel.Status.ERROR, formState.getStatus().getValue());
+        assertTrue(executor.getRejectedCount(CryptoExecutor.Priority.INTERACTIVE) > rejectedBefore);
+        for (CryptoExecutor.Task<Boolean> blocker : blockers) {
+            blocker.cancel(true);
+        }
+    }
+
+    private boolean isPublished() {
+        return !formState.isRunning();
+    }
+}
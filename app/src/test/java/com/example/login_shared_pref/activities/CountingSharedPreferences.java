@@ -0,0 +1,166 @@
+package com.example.login_shared_pref.activities;
+
+import android.content.SharedPreferences;
+import android.os.Looper;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SharedPreferences wrapper that counts reads and writes and flags synchronous
+ * commits on the main thread (the only prefs call that blocks the UI on disk I/O)
+ */
+class CountingSharedPreferences implements SharedPreferences {
+
+    final AtomicInteger reads = new AtomicInteger();
+    final AtomicInteger writes = new AtomicInteger();
+    final AtomicInteger mainThreadCommits = new AtomicInteger();
+
+    private final SharedPreferences delegate;
+
+    CountingSharedPreferences(SharedPreferences delegate) {
+        this.delegate = delegate;
+    }
+
+    void reset() {
+        reads.set(0);
+        writes.set(0);
+        mainThreadCommits.set(0);
+    }
+
+    @Override
+    public Map<String, ?> getAll() {
+        reads.incrementAndGet();
+        return delegate.getAll();
+    }
+
+    @Override
+    public String getString(String key, String defValue) {
+        reads.incrementAndGet();
+        return delegate.getString(key, defValue);
+    }
+
+    @Override
+    public Set<String> getStringSet(String key, Set<String> defValues) {
+        reads.incrementAndGet();
+        return delegate.getStringSet(key, defValues);
+    }
+
+    @Override
+    public int getInt(String key, int defValue) {
+        reads.incrementAndGet();
+        return delegate.getInt(key, defValue);
+    }
+
+    @Override
+    public long getLong(String key, long defValue) {
+        reads.incrementAndGet();
+        return delegate.getLong(key, defValue);
+    }
+
+    @Override
+    public float getFloat(String key, float defValue) {
+        reads.incrementAndGet();
+        return delegate.getFloat(key, defValue);
+    }
+
+    @Override
+    public boolean getBoolean(String key, boolean defValue) {
+        reads.incrementAndGet();
+        return delegate.getBoolean(key, defValue);
+    }
+
+    @Override
+    public boolean contains(String key) {
+        reads.incrementAndGet();
+        return delegate.contains(key);
+    }
+
+    @Override
+    public Editor edit() {
+        return new CountingEditor(delegate.edit());
+    }
+
+    @Override
+    public void registerOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+        delegate.registerOnSharedPreferenceChangeListener(listener);
+    }
+
+    @Override
+    public void unregisterOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+        delegate.unregisterOnSharedPreferenceChangeListener(listener);
+    }
+
+    private class CountingEditor implements Editor {
+
+        private final Editor delegate;
+
+        CountingEditor(Editor delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Editor putString(String key, String value) {
+            delegate.putString(key, value);
+            return this;
+        }
+
+        @Override
+        public Editor putStringSet(String key, Set<String> values) {
+            delegate.putStringSet(key, values);
+            return this;
+        }
+
+        @Override
+        public Editor putInt(String key, int value) {
+            delegate.putInt(key, value);
+            return this;
+        }
+
+        @Override
+        public Editor putLong(String key, long value) {
+            delegate.putLong(key, value);
+            return this;
+        }
+
+        @Override
+        public Editor putFloat(String key, float value) {
+            delegate.putFloat(key, value);
+            return this;
+        }
+
+        @Override
+        public Editor putBoolean(String key, boolean value) {
+            delegate.putBoolean(key, value);
+            return this;
+        }
+
+        @Override
+        public Editor remove(String key) {
+            delegate.remove(key);
+            return this;
+        }
+
+        @Override
+        public Editor clear() {
+            delegate.clear();
+            return this;
+        }
+
+        @Override
+        public boolean commit() {
+            writes.incrementAndGet();
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                mainThreadCommits.incrementAndGet();
+            }
+            return delegate.commit();
+        }
+
+        @Override
+        public void apply() {
+            writes.incrementAndGet();
+            delegate.apply();
+        }
+    }
+}
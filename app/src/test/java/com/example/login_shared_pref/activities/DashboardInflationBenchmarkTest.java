@@ -0,0 +1,137 @@
+package com.example.login_shared_pref.activities;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewStub;
+
+import androidx.appcompat.view.ContextThemeWrapper;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.login_shared_pref.R;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Compares inflate and measure/layout cost of the nested dashboard (debug-only
+ * activity_main_nested) against the flattened activity_main
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(qualifiers = "w411dp-h891dp-xxhdpi")
+public class DashboardInflationBenchmarkTest {
+
+    private static final int WARMUP = 3;
+    private static final int RUNS = 20;
+
+    private Context context;
+    private int nestedLayoutId;
+
+    @Before
+    public void setUp() {
+        context = new ContextThemeWrapper(ApplicationProvider.getApplicationContext(), R.style.Theme_LoginApp);
+        // Looked up by name because the nested layout only exists in the debug source set
+        nestedLayoutId = context.getResources().getIdentifier(
+                "activity_main_nested", "layout", context.getPackageName());
+    }
+
+    @Test
+    public void flattenedDashboard_isShallowerAndReported() {
+        assumeTrue("activity_main_nested is only packaged in debug builds", nestedLayoutId != 0);
+
+        Result nested = benchmark(nestedLayoutId, false);
+        Result flat = benchmark(R.layout.activity_main, false);
+        Result flatWithDeferred = benchmark(R.layout.activity_main, true);
+
+        String report = "nested " + nested + ", flattened " + flat + ", flattened + deferred " + flatWithDeferred;
+        assertTrue("Flattened should be shallower: " + report, flat.depth < nested.depth);
+        assertTrue("Flattened + deferred should be shallower: " + report, flatWithDeferred.depth < nested.depth);
+    }
+
+    private Result benchmark(int layoutId, boolean inflateDeferred) {
+        LayoutInflater inflater = LayoutInflater.from(context);
+        int widthSpec = View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY);
+        int heightSpec = View.MeasureSpec.makeMeasureSpec(2340, View.MeasureSpec.EXACTLY);
+
+        long[] inflateNanos = new long[RUNS];
+        long[] layoutNanos = new long[RUNS];
+        View root = null;
+
+        for (int i = -WARMUP; i < RUNS; i++) {
+            long start = System.nanoTime();
+            root = inflater.inflate(layoutId, null, false);
+            if (inflateDeferred) {
+                ((ViewStub) root.findViewById(R.id.stub_app_info)).inflate();
+            }
+            long inflated = System.nanoTime();
+            root.measure(widthSpec, heightSpec);
+            root.layout(0, 0, root.getMeasuredWidth(), root.getMeasuredHeight());
+            long laidOut = System.nanoTime();
+
+            if (i >= 0) {
+                inflateNanos[i] = inflated - start;
+                layoutNanos[i] = laidOut - inflated;
+            }
+        }
+
+        return new Result(median(inflateNanos), median(layoutNanos), depth(root), count(root));
+    }
+
+    private static long median(long[] samples) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static int depth(View view) {
+        if (!(view instanceof ViewGroup)) {
+            return 1;
+        }
+        ViewGroup group = (ViewGroup) view;
+        int deepest = 0;
+        for (int i = 0; i < group.getChildCount(); i++) {
+            deepest = Math.max(deepest, depth(group.getChildAt(i)));
+        }
+        return deepest + 1;
+    }
+
+    private static int count(View view) {
+        int total = 1;
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                total += count(group.getChildAt(i));
+            }
+        }
+        return total;
+    }
+
+    private static class Result {
+        final long inflateNanos;
+        final long layoutNanos;
+        final int depth;
+        final int viewCount;
+
+        Result(long inflateNanos, long layoutNanos, int depth, int viewCount) {
+            this.inflateNanos = inflateNanos;
+            this.layoutNanos = layoutNanos;
+            this.depth = depth;
+            this.viewCount = viewCount;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("inflate %.2f ms, measure/layout %.2f ms, depth %d, %d views",
+                    inflateNanos / 1e6, layoutNanos / 1e6, depth, viewCount);
+        }
+    }
+}
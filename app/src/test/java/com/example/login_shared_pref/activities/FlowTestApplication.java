@@ -0,0 +1,58 @@
+package com.example.login_shared_pref.activities;
+
+import android.app.Application;
+import android.content.SharedPreferences;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Test application that hands out counting SharedPreferences for every file
+ */
+public class FlowTestApplication extends Application {
+
+    private final Map<String, CountingSharedPreferences> preferences = new HashMap<>();
+
+    @Override
+    public synchronized SharedPreferences getSharedPreferences(String name, int mode) {
+        CountingSharedPreferences counting = preferences.get(name);
+        if (counting == null) {
+            counting = new CountingSharedPreferences(super.getSharedPreferences(name, mode));
+            preferences.put(name, counting);
+        }
+        return counting;
+    }
+
+    synchronized int totalReads() {
+        int total = 0;
+        for (CountingSharedPreferences counting : preferences.values()) {
+            total += counting.reads.get();
+        }
+        return total;
+    }
+
+    synchronized int totalWrites() {
+        int total = 0;
+        for (CountingSharedPreferences counting : preferences.values()) {
+            total += counting.writes.get();
+        }
+        return total;
+    }
+
+    synchronized int totalMainThreadCommits() {
+        int total = 0;
+        for (CountingSharedPreferences counting : preferences.values()) {
+            total += counting.mainThreadCommits.get();
+        }
+        return total;
+    }
+
+    /**
+     * Forget counts from setup so assertions only cover the flow under test
+     */
+    synchronized void resetCounts() {
+        for (CountingSharedPreferences counting : preferences.values()) {
+            counting.reset();
+        }
+    }
+}
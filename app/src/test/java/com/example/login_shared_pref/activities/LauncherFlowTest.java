@@ -0,0 +1,85 @@
+package com.example.login_shared_pref.activities;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.Looper;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.login_shared_pref.utils.SessionStore;
+import com.example.login_shared_pref.utils.SharedPrefsManager;
+import com.example.login_shared_pref.utils.StorageThreadGuard;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Routing of LauncherActivity, with the guard in FAIL_FAST mode from before the screen
+ * is created, so opening or reading the session file on the main thread fails the test
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(LooperMode.Mode.PAUSED)
+public class LauncherFlowTest {
+
+    private final StorageThreadGuard guard = StorageThreadGuard.getInstance();
+    private StorageThreadGuard.Mode previousMode;
+    private Context context;
+
+    @Before
+    public void setUp() {
+        SharedPrefsManager.resetInstance();
+        SessionStore.resetInstance();
+        context = ApplicationProvider.getApplicationContext();
+        previousMode = guard.getMode();
+    }
+
+    @After
+    public void tearDown() {
+        guard.setMode(previousMode);
+    }
+
+    @Test
+    public void rememberedUser_goesStraightToTheDashboard() throws InterruptedException {
+        SharedPrefsManager.getInstance(context)
+                .createLoginSession("jane@example.com", "Jane Doe", "secret1", true);
+        SessionStore.resetInstance();
+
+        assertEquals(MainActivity.class.getName(), launch().getComponent().getClassName());
+    }
+
+    @Test
+    public void anyoneElse_continuesToTheSplashScreen() throws InterruptedException {
+        SharedPrefsManager.getInstance(context)
+                .createLoginSession("jane@example.com", "Jane Doe", "secret1", false);
+        SessionStore.resetInstance();
+
+        assertEquals(SplashActivity.class.getName(), launch().getComponent().getClassName());
+    }
+
+    /**
+     * Start the launcher under FAIL_FAST and pump the main looper until it has routed
+     */
+    private Intent launch() throws InterruptedException {
+        guard.setMode(StorageThreadGuard.Mode.FAIL_FAST);
+        LauncherActivity activity = Robolectric.buildActivity(LauncherActivity.class).setup().get();
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        Intent next = shadowOf(activity).getNextStartedActivity();
+        while (next == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            shadowOf(Looper.getMainLooper()).idle();
+            next = shadowOf(activity).getNextStartedActivity();
+        }
+        assertNotNull("The launcher never routed", next);
+        assertTrue(activity.isFinishing());
+        return next;
+    }
+}
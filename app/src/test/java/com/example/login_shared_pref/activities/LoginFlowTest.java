@@ -0,0 +1,145 @@
+package com.example.login_shared_pref.activities;
+
+import android.content.Intent;
+import android.widget.EditText;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.login_shared_pref.R;
+import com.example.login_shared_pref.utils.AuthStateMachine;
+import com.example.login_shared_pref.utils.PasswordResetManager;
+import com.example.login_shared_pref.utils.SessionStore;
+import com.example.login_shared_pref.utils.SharedPrefsManager;
+import com.example.login_shared_pref.utils.StorageMetrics;
+import com.example.login_shared_pref.utils.StorageThreadGuard;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.LooperMode;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Drives LoginActivity.attemptLogin end to end and checks its main-thread storage work
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = FlowTestApplication.class)
+@LooperMode(LooperMode.Mode.PAUSED)
+public class LoginFlowTest {
+
+    private static final String EMAIL = "jane@example.com";
+    private static final String PASSWORD = "secret1";
+
+    // Simulated network delay plus slack for the result task
+    private static final long LOGIN_WAIT_MS = 1_100;
+
+    private static final int MAX_READS = 2;
+    private static final int MAX_WRITES = 2;
+
+    private final StorageMetrics metrics = StorageMetrics.getInstance();
+    private final StorageThreadGuard guard = StorageThreadGuard.getInstance();
+    private StorageThreadGuard.Mode previousMode;
+    private FlowTestApplication app;
+
+    @Before
+    public void setUp() {
+        SharedPrefsManager.resetInstance();
+        SessionStore.resetInstance();
+        AuthStateMachine.resetInstance();
+        app = ApplicationProvider.getApplicationContext();
+        SharedPrefsManager.getInstance(app).registerUser(EMAIL, "Jane Doe", PASSWORD);
+        // Process-wide singletons are built once per process, before this screen in a real
+        // launch; build them here so FAIL_FAST only sees what the screen itself does
+        AuthStateMachine.getInstance(app);
+        PasswordResetManager.getInstance(app);
+        metrics.setEnabled(true);
+        previousMode = guard.getMode();
+    }
+
+    @After
+    public void tearDown() {
+        guard.setMode(previousMode);
+    }
+
+    @Test
+    public void validCredentials_createSessionAndOpenDashboard() {
+        LoginActivity activity = launchAndSubmit(EMAIL, PASSWORD);
+
+        runToResult(activity);
+
+        Intent next = shadowOf(activity).getNextStartedActivity();
+        assertNotNull(next);
+        assertEquals(MainActivity.class.getName(), next.getComponent().getClassName());
+        assertTrue(SharedPrefsManager.getInstance(app).isLoggedIn());
+
+        assertTrue("Too many prefs reads: " + app.totalReads(), app.totalReads() <= MAX_READS);
+        assertTrue("Too many prefs writes: " + app.totalWrites(), app.totalWrites() <= MAX_WRITES);
+        assertEquals(0, app.totalMainThreadCommits());
+        assertCheckedOffMainThread();
+    }
+
+    @Test
+    public void wrongPassword_doesNotWrite() {
+        LoginActivity activity = launchAndSubmit(EMAIL, "wrong-password");
+
+        runToResult(activity);
+
+        assertNull(shadowOf(activity).getNextStartedActivity());
+        assertFalse(SharedPrefsManager.getInstance(app).isLoggedIn());
+        assertEquals(0, app.totalWrites());
+        assertCheckedOffMainThread();
+    }
+
+    /**
+     * The credential check ran exactly once, and not on the main thread
+     */
+    private void assertCheckedOffMainThread() {
+        assertEquals(1, metrics.getCallCount(StorageMetrics.Operation.VALIDATE_USER));
+        assertEquals(0, metrics.getMainThreadCalls(StorageMetrics.Operation.VALIDATE_USER));
+    }
+
+    /**
+     * Wait until the saved credentials read in onCreate have reached the screen
+     * Loads run in order, so once a second one is delivered the screen's has been too.
+     */
+    private void awaitPrefill() {
+        AtomicBoolean delivered = new AtomicBoolean();
+        AuthStateMachine.getInstance(app).loadSavedCredentialsAsync((email, password) -> delivered.set(true));
+        new MainLooperRunner().runUntil(0, delivered::get);
+        assertTrue("Saved credentials were never delivered", delivered.get());
+    }
+
+    /**
+     * Let the request finish and its result reach the screen, then lift FAIL_FAST so the
+     * test itself may read storage
+     */
+    private void runToResult(LoginActivity activity) {
+        new MainLooperRunner().runUntil(LOGIN_WAIT_MS, () -> activity.findViewById(R.id.btn_login).isEnabled());
+        guard.setMode(previousMode);
+    }
+
+    /**
+     * Launch the screen under FAIL_FAST, fill the form and tap Sign In; counts start at the tap
+     */
+    private LoginActivity launchAndSubmit(String email, String password) {
+        // From onCreate on, any storage call on the main thread fails the test
+        guard.setMode(StorageThreadGuard.Mode.FAIL_FAST);
+        LoginActivity activity = Robolectric.buildActivity(LoginActivity.class).setup().get();
+        awaitPrefill();
+        app.resetCounts();
+        metrics.reset();
+
+        ((EditText) activity.findViewById(R.id.et_email)).setText(email);
+        ((EditText) activity.findViewById(R.id.et_password)).setText(password);
+        activity.findViewById(R.id.btn_login).performClick();
+        return activity;
+    }
+}
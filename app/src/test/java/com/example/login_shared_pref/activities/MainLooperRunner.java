@@ -0,0 +1,51 @@
+package com.example.login_shared_pref.activities;
+
+import android.os.Looper;
+import android.os.SystemClock;
+
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.function.BooleanSupplier;
+
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Runs queued main-looper tasks one at a time in paused looper mode, on the simulated clock
+ */
+class MainLooperRunner {
+
+    private final ShadowLooper mainLooper = shadowOf(Looper.getMainLooper());
+
+    /**
+     * Run every task scheduled within the next {@code simulatedMs} of looper time
+     */
+    void runFor(long simulatedMs) {
+        long deadline = SystemClock.uptimeMillis() + simulatedMs;
+        while (!mainLooper.isIdle() || nextTaskDueBefore(deadline)) {
+            mainLooper.runOneTask();
+        }
+    }
+
+    /**
+     * runFor(simulatedMs), then keep running the looper until done holds, for results
+     * that background threads post in real time
+     */
+    void runUntil(long simulatedMs, BooleanSupplier done) {
+        runFor(simulatedMs);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!done.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            runFor(0);
+        }
+    }
+
+    private boolean nextTaskDueBefore(long deadline) {
+        long next = mainLooper.getNextScheduledTaskTime().toMillis();
+        return next != 0 && next <= deadline;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.login_shared_pref.activities;
+
+import android.content.Intent;
+import android.widget.EditText;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.login_shared_pref.R;
+import com.example.login_shared_pref.utils.AuthStateMachine;
+import com.example.login_shared_pref.utils.SessionStore;
+import com.example.login_shared_pref.utils.SharedPrefsManager;
+import com.example.login_shared_pref.utils.StorageMetrics;
+import com.example.login_shared_pref.utils.StorageThreadGuard;
+import com.google.android.material.textfield.TextInputLayout;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.LooperMode;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Drives RegisterActivity.attemptRegistration end to end and checks its main-thread storage work
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = FlowTestApplication.class)
+@LooperMode(LooperMode.Mode.PAUSED)
+public class RegisterFlowTest {
+
+    private static final String EMAIL = "new.user@example.com";
+    private static final String PASSWORD = "secret1";
+
+    // Simulated network delay plus slack for the result task
+    private static final long REGISTER_WAIT_MS = 1_600;
+
+    private static final int MAX_READS = 2;
+    // The user's shard twice: the new record, then its login stamp
+    private static final int MAX_WRITES = 2;
+
+    private final StorageMetrics metrics = StorageMetrics.getInstance();
+    private final StorageThreadGuard guard = StorageThreadGuard.getInstance();
+    private StorageThreadGuard.Mode previousMode;
+    private FlowTestApplication app;
+
+    @Before
+    public void setUp() {
+        SharedPrefsManager.resetInstance();
+        SessionStore.resetInstance();
+        AuthStateMachine.resetInstance();
+        app = ApplicationProvider.getApplicationContext();
+        // Process-wide singletons are built once per process, before this screen in a real
+        // launch; build them here so FAIL_FAST only sees what the screen itself does
+        AuthStateMachine.getInstance(app);
+        metrics.setEnabled(true);
+        previousMode = guard.getMode();
+    }
+
+    @After
+    public void tearDown() {
+        guard.setMode(previousMode);
+    }
+
+    @Test
+    public void newAccount_registersAndOpensDashboard() {
+        RegisterActivity activity = launchAndSubmit(EMAIL);
+
+        runToResult(activity);
+
+        Intent next = shadowOf(activity).getNextStartedActivity();
+        assertNotNull(next);
+        assertEquals(MainActivity.class.getName(), next.getComponent().getClassName());
+        assertTrue(SharedPrefsManager.getInstance(app).isUserExists(EMAIL));
+
+        assertTrue("Too many prefs reads: " + app.totalReads(), app.totalReads() <= MAX_READS);
+        assertTrue("Too many prefs writes: " + app.totalWrites(), app.totalWrites() <= MAX_WRITES);
+        assertEquals(0, app.totalMainThreadCommits());
+        // The account is written once, on the crypto pool
+        assertEquals(1, metrics.getCallCount(StorageMetrics.Operation.REGISTER_USER));
+        assertEquals(0, metrics.getMainThreadCalls(StorageMetrics.Operation.REGISTER_USER));
+    }
+
+    @Test
+    public void existingAccount_isRejectedWithoutWrites() {
+        SharedPrefsManager.getInstance(app).registerUser(EMAIL, "Existing User", PASSWORD);
+        RegisterActivity activity = launchAndSubmit(EMAIL);
+
+        runToResult(activity);
+
+        assertNull(shadowOf(activity).getNextStartedActivity());
+        assertEquals(0, app.totalWrites());
+        // The duplicate is found by registerUser on the crypto pool
+        TextInputLayout tilEmail = activity.findViewById(R.id.til_email);
+        assertEquals(activity.getString(R.string.error_user_exists), String.valueOf(tilEmail.getError()));
+        assertEquals(0, metrics.getMainThreadCalls(StorageMetrics.Operation.REGISTER_USER));
+    }
+
+    /**
+     * Let the request finish and its result reach the screen, then lift FAIL_FAST so the
+     * test itself may read storage
+     */
+    private void runToResult(RegisterActivity activity) {
+        new MainLooperRunner().runUntil(REGISTER_WAIT_MS, () -> activity.findViewById(R.id.btn_register).isEnabled());
+        guard.setMode(previousMode);
+    }
+
+    /**
+     * Launch the screen under FAIL_FAST, fill the form and tap Create Account; counts start at the tap
+     */
+    private RegisterActivity launchAndSubmit(String email) {
+        // From onCreate on, any storage call on the main thread fails the test
+        guard.setMode(StorageThreadGuard.Mode.FAIL_FAST);
+        RegisterActivity activity = Robolectric.buildActivity(RegisterActivity.class).setup().get();
+        new MainLooperRunner().runFor(0);
+        app.resetCounts();
+        metrics.reset();
+
+        ((EditText) activity.findViewById(R.id.et_full_name)).setText("New User");
+        ((EditText) activity.findViewById(R.id.et_email)).setText(email);
+        ((EditText) activity.findViewById(R.id.et_password)).setText(PASSWORD);
+        ((EditText) activity.findViewById(R.id.et_confirm_password)).setText(PASSWORD);
+        activity.findViewById(R.id.btn_register).performClick();
+        return activity;
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.login_shared_pref.activities;
+
+import android.content.Intent;
+import android.os.Looper;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.login_shared_pref.utils.AuthStateMachine;
+import com.example.login_shared_pref.utils.SessionStore;
+import com.example.login_shared_pref.utils.SharedPrefsManager;
+import com.example.login_shared_pref.utils.StorageThreadGuard;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.LooperMode;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Drives SplashActivity.navigateToNextScreen and checks its main-thread storage work
+ * The guard is in FAIL_FAST mode from before the screen is created, so neither onCreate nor
+ * the session restore may touch storage on the main thread.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = FlowTestApplication.class)
+@LooperMode(LooperMode.Mode.PAUSED)
+public class SplashFlowTest {
+
+    // Splash delay plus a little slack for the navigation task
+    private static final long SPLASH_WAIT_MS = 2_600;
+
+    private static final int MAX_READS = 4;
+
+    private final StorageThreadGuard guard = StorageThreadGuard.getInstance();
+    private StorageThreadGuard.Mode previousMode;
+    private FlowTestApplication app;
+    private SessionStore session;
+
+    @Before
+    public void setUp() {
+        SharedPrefsManager.resetInstance();
+        SessionStore.resetInstance();
+        AuthStateMachine.resetInstance();
+        app = ApplicationProvider.getApplicationContext();
+        session = SessionStore.getInstance(app);
+        previousMode = guard.getMode();
+    }
+
+    @After
+    public void tearDown() {
+        guard.setMode(previousMode);
+    }
+
+    @Test
+    public void rememberedUser_navigatesToDashboardWithoutWrites() throws InterruptedException {
+        SharedPrefsManager.getInstance(app)
+                .createLoginSession("jane@example.com", "Jane Doe", "secret1", true);
+
+        long sessionVersion = flushedSessionVersion();
+        SplashActivity activity = launchUnderFailFast();
+
+        new MainLooperRunner().runFor(SPLASH_WAIT_MS);
+
+        Intent next = awaitNextActivity(activity);
+        assertNotNull(next);
+        assertEquals(MainActivity.class.getName(), next.getComponent().getClassName());
+
+        assertTrue("Too many prefs reads: " + app.totalReads(), app.totalReads() <= MAX_READS);
+        assertEquals(0, app.totalWrites());
+        assertEquals(0, app.totalMainThreadCommits());
+        guard.setMode(StorageThreadGuard.Mode.OFF);
+        assertEquals(0, flushedSessionVersion() - sessionVersion);
+    }
+
+    @Test
+    public void sessionWithoutRememberMe_logsOutAndShowsLogin() throws InterruptedException {
+        SharedPrefsManager.getInstance(app)
+                .createLoginSession("jane@example.com", "Jane Doe", "secret1", false);
+
+        long sessionVersion = flushedSessionVersion();
+        SplashActivity activity = launchUnderFailFast();
+
+        new MainLooperRunner().runFor(SPLASH_WAIT_MS);
+
+        Intent next = awaitNextActivity(activity);
+        assertNotNull(next);
+        assertEquals(LoginActivity.class.getName(), next.getComponent().getClassName());
+        guard.setMode(StorageThreadGuard.Mode.OFF);
+        assertFalse(SharedPrefsManager.getInstance(app).isLoggedIn());
+
+        // The logout is one write to the session shard, and none to the user shards
+        assertEquals(1, flushedSessionVersion() - sessionVersion);
+        assertEquals(0, app.totalWrites());
+        assertEquals(0, app.totalMainThreadCommits());
+    }
+
+    /**
+     * Create the screen with counts reset and FAIL_FAST on
+     * The auth state is a process-wide singleton that the launcher's process has already built
+     * by the time the splash runs, so it is warmed here rather than on the guarded main thread.
+     */
+    private SplashActivity launchUnderFailFast() {
+        AuthStateMachine.getInstance(app);
+        app.resetCounts();
+        guard.setMode(StorageThreadGuard.Mode.FAIL_FAST);
+        return Robolectric.buildActivity(SplashActivity.class).setup().get();
+    }
+
+    /**
+     * Pump the main looper until the session restored in the background has been delivered
+     */
+    private Intent awaitNextActivity(SplashActivity activity) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        Intent next = shadowOf(activity).getNextStartedActivity();
+        while (next == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            shadowOf(Looper.getMainLooper()).idle();
+            next = shadowOf(activity).getNextStartedActivity();
+        }
+        return next;
+    }
+
+    /**
+     * Version of the session file once queued writes have landed; each write bumps it by one
+     * The session is a ProcessSafeStore, so the counting prefs of FlowTestApplication miss it.
+     */
+    private long flushedSessionVersion() {
+        session.awaitWrites();
+        return session.getVersion();
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.login_shared_pref.utils;
+
+import android.content.Context;
+import android.provider.Settings;
+import android.view.View;
+import android.view.animation.Animation;
+import android.view.animation.AnimationUtils;
+import android.view.animation.Transformation;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.login_shared_pref.R;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+
+import java.time.Duration;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Profile selection, duration scaling, caching and frame reporting of AnimationManager
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(LooperMode.Mode.PAUSED)
+public class AnimationManagerTest {
+
+    private Context context;
+    private AnimationManager manager;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        AnimationManager.resetInstance();
+        manager = AnimationManager.getInstance(context);
+        setAnimatorScale(1f);
+    }
+
+    @After
+    public void tearDown() {
+        setAnimatorScale(1f);
+    }
+
+    @Test
+    public void profile_followsTheSystemAnimatorScale() {
+        assertEquals(AnimationManager.Profile.FULL, manager.getProfile());
+        setAnimatorScale(0.5f);
+        assertEquals(AnimationManager.Profile.REDUCED, manager.getProfile());
+        setAnimatorScale(0f);
+        assertEquals(AnimationManager.Profile.OFF, manager.getProfile());
+
+        View view = new View(context);
+        manager.playEntrance(R.anim.slide_in_up, view);
+        assertNull(view.getAnimation());
+    }
+
+    @Test
+    public void fullProfile_scalesDurationsAndReusesAnimations() {
+        setAnimatorScale(2f);
+        View first = new View(context);
+        View second = new View(context);
+        manager.playEntrance(R.anim.slide_in_up, first);
+        manager.playEntrance(R.anim.slide_in_up, second);
+
+        assertEquals(800, first.getAnimation().computeDurationHint());
+        assertSame(first.getAnimation(), second.getAnimation());
+    }
+
+    @Test
+    public void reducedProfile_fadesWithinBudgetAndSkipsDecoration() {
+        manager.setProfileOverride(AnimationManager.Profile.REDUCED);
+        View card = new View(context);
+        View button = new View(context);
+        manager.playEntrance(R.anim.splash_logo_animation, card);
+        manager.playDecorative(R.anim.shake, button);
+
+        Animation entrance = card.getAnimation();
+        assertNotNull(entrance);
+        assertTrue(entrance.computeDurationHint() <= AnimationManager.REDUCED_BUDGET_MS);
+        assertNull(button.getAnimation());
+    }
+
+    @Test
+    public void interruptedAnimation_isReusedOnceCleared() {
+        View first = new View(context);
+        manager.playEntrance(R.anim.slide_in_up, first);
+        Animation animation = first.getAnimation();
+        // Started, then cut off before its end, as when the screen is left mid-entrance
+        animation.getTransformation(AnimationUtils.currentAnimationTimeMillis(), new Transformation());
+        first.clearAnimation();
+        assertTrue(animation.hasStarted());
+        assertFalse(animation.hasEnded());
+
+        View second = new View(context);
+        manager.playEntrance(R.anim.slide_in_up, second);
+
+        assertSame(animation, second.getAnimation());
+        assertFalse(animation.hasStarted());
+    }
+
+    @Test
+    public void reducedProfile_leavesTheFullLengthAnimationAlone() {
+        long fullDuration = AnimationUtils.loadAnimation(context, R.anim.fade_in).computeDurationHint();
+        manager.setProfileOverride(AnimationManager.Profile.REDUCED);
+        View reduced = new View(context);
+        manager.playEntrance(R.anim.slide_in_up, reduced);
+
+        manager.setProfileOverride(AnimationManager.Profile.FULL);
+        View full = new View(context);
+        manager.playEntrance(R.anim.fade_in, full);
+
+        assertTrue(fullDuration > AnimationManager.REDUCED_BUDGET_MS);
+        assertEquals(AnimationManager.REDUCED_BUDGET_MS, reduced.getAnimation().computeDurationHint());
+        assertEquals(fullDuration, full.getAnimation().computeDurationHint());
+    }
+
+    @Test
+    public void transitions_reportTheirFrames() {
+        manager.playEntrance(R.anim.slide_in_up, new View(context));
+        shadowOf(context.getMainLooper()).idleFor(Duration.ofSeconds(1));
+
+        AnimationManager.TransitionStats stats = manager.getLastTransition();
+        assertNotNull(stats);
+        assertTrue(stats.toString(), stats.getFrames() > 0);
+        assertEquals(AnimationManager.Profile.FULL, stats.getProfile());
+    }
+
+    private void setAnimatorScale(float scale) {
+        Settings.Global.putFloat(context.getContentResolver(), Settings.Global.ANIMATOR_DURATION_SCALE, scale);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.login_shared_pref.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+/**
+ * One-time migration of an XML preference file into an AtomicFileStore
+ */
+@RunWith(RobolectricTestRunner.class)
+public class AtomicFileStoreTest {
+
+    private Context context;
+    private File storeDir;
+    private String name;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        storeDir = new File(context.getFilesDir(), "atomic_store_test");
+        name = "migrate_" + UUID.randomUUID().toString().replace("-", "");
+    }
+
+    @Test
+    public void missingFile_startsFromTheLegacyContents_andPersistsThem() {
+        Set<String> set = new HashSet<>(Arrays.asList("a", "b"));
+        SharedPreferences legacy = context.getSharedPreferences(name, Context.MODE_PRIVATE);
+        legacy.edit().putString("string", "value").putLong("long", 7L).putStringSet("set", set).commit();
+        File file = new File(storeDir, name + ".bin");
+
+        AtomicFileStore store = new AtomicFileStore(file, legacy);
+        assertEquals("value", store.getString("string", null));
+        assertEquals(7L, store.getLong("long", 0L));
+        assertEquals(set, store.getStringSet("set", null));
+
+        // The writer is single-threaded, so this commit lands after the migrated copy
+        assertTrue(store.edit().putInt("int", 1).commit());
+        AtomicFileStore reopened = new AtomicFileStore(file);
+        assertEquals("value", reopened.getString("string", null));
+        assertEquals(1, reopened.getInt("int", 0));
+
+        // The XML file stays as a fallback
+        assertEquals("value", legacy.getString("string", null));
+    }
+
+    @Test
+    public void existingFile_ignoresTheLegacyContents() {
+        File file = new File(storeDir, name + ".bin");
+        assertTrue(new AtomicFileStore(file).edit().putString("string", "binary").commit());
+        SharedPreferences legacy = context.getSharedPreferences(name, Context.MODE_PRIVATE);
+        legacy.edit().putString("string", "xml").putString("other", "xml").commit();
+
+        AtomicFileStore store = new AtomicFileStore(file, legacy);
+
+        assertEquals("binary", store.getString("string", null));
+        assertFalse(store.contains("other"));
+    }
+
+    @Test
+    public void engineDelete_removesTheBinaryAndTheXmlFallback() {
+        context.getSharedPreferences(name, Context.MODE_PRIVATE).edit().putString("string", "xml").commit();
+        SharedPreferences store = StorageEngine.ATOMIC_FILE.open(context, name);
+        assertTrue(store.edit().putString("other", "binary").commit());
+        File file = StorageEngine.ATOMIC_FILE.fileFor(context, name);
+        assertTrue(file.exists());
+
+        StorageEngine.ATOMIC_FILE.delete(context, name);
+
+        SharedPreferences reopened = StorageEngine.ATOMIC_FILE.open(context, name);
+        assertTrue(reopened.getAll().isEmpty());
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void emptyLegacyFile_writesNothing() {
+        File file = new File(storeDir, name + ".bin");
+
+        AtomicFileStore store = new AtomicFileStore(file,
+                context.getSharedPreferences(name, Context.MODE_PRIVATE));
+
+        assertTrue(store.getAll().isEmpty());
+        assertFalse(file.exists());
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.login_shared_pref.utils;
+
+import android.content.Context;
+import android.os.Looper;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Transitions of AuthStateMachine and how they reach listeners
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(LooperMode.Mode.PAUSED)
+public class AuthStateMachineTest {
+
+    private Context context;
+    private AuthStateMachine machine;
+    private final List<AuthStateMachine.State> published = new ArrayList<>();
+    private final AuthStateMachine.Listener recorder = (m, state) -> published.add(state);
+
+    @Before
+    public void setUp() {
+        SharedPrefsManager.resetInstance();
+        SessionStore.resetInstance();
+        AuthStateMachine.resetInstance();
+        context = ApplicationProvider.getApplicationContext();
+        machine = AuthStateMachine.getInstance(context);
+        machine.addListener(recorder);
+    }
+
+    @After
+    public void tearDown() {
+        machine.removeListener(recorder);
+    }
+
+    @Test
+    public void login_thenLogout_publishesEachTransition() {
+        assertEquals(AuthStateMachine.State.LOGGED_OUT, machine.getState());
+
+        machine.beginAuthentication();
+        machine.loggedIn("jane@example.com", "Jane Doe", "secret1", false);
+        assertTrue(SharedPrefsManager.getInstance(context).isLoggedIn());
+        machine.logout();
+
+        assertEquals(Arrays.asList(AuthStateMachine.State.AUTHENTICATING,
+                AuthStateMachine.State.LOGGED_IN, AuthStateMachine.State.LOGGED_OUT), published);
+        assertFalse(SharedPrefsManager.getInstance(context).isLoggedIn());
+    }
+
+    @Test
+    public void failedAuthentication_returnsToLoggedOut() {
+        machine.beginAuthentication();
+        machine.authenticationFailed();
+        // Not authenticating any more, so a second failure is not a transition
+        machine.authenticationFailed();
+
+        assertEquals(Arrays.asList(AuthStateMachine.State.AUTHENTICATING,
+                AuthStateMachine.State.LOGGED_OUT), published);
+    }
+
+    @Test
+    public void abandonedAuthentication_returnsToLoggedOut_unlessTheSessionWasWritten() {
+        machine.beginAuthentication();
+        machine.authenticationAbandoned();
+        assertEquals(AuthStateMachine.State.LOGGED_OUT, machine.getState());
+
+        // The check finished its login before the screen went away
+        machine.beginAuthentication();
+        machine.loggedIn("jane@example.com", "Jane Doe", "secret1", false);
+        machine.authenticationAbandoned();
+        assertEquals(AuthStateMachine.State.LOGGED_IN, machine.getState());
+    }
+
+    @Test
+    public void expiryOffTheMainThread_isDeliveredOnTheMainThread() throws InterruptedException {
+        machine.loggedIn("jane@example.com", "Jane Doe", "secret1", true);
+        published.clear();
+
+        Thread worker = new Thread(machine::sessionExpired);
+        worker.start();
+        worker.join();
+        assertEquals(AuthStateMachine.State.EXPIRED, machine.getState());
+        assertEquals(Collections.emptyList(), published);
+
+        shadowOf(Looper.getMainLooper()).idle();
+        assertEquals(Collections.singletonList(AuthStateMachine.State.EXPIRED), published);
+    }
+
+    @Test
+    public void expiry_isIgnoredWithoutASession() {
+        machine.sessionExpired();
+
+        assertEquals(AuthStateMachine.State.LOGGED_OUT, machine.getState());
+        assertTrue(published.isEmpty());
+    }
+
+    @Test
+    public void storedSession_isPickedUpAtCreation() {
+        SharedPrefsManager.getInstance(context)
+                .createLoginSession("jane@example.com", "Jane Doe", "secret1", true);
+        AuthStateMachine.resetInstance();
+
+        assertTrue(AuthStateMachine.getInstance(context).isLoggedIn());
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.login_shared_pref.utils;
+
+import android.content.Context;
+import android.graphics.drawable.BitmapDrawable;
+import android.os.Looper;
+import android.widget.ImageView;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Cache keys, the disk cache round trip and trimming of AvatarRenderer
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(LooperMode.Mode.PAUSED)
+public class AvatarRendererTest {
+
+    private static final String EMAIL = "jane@example.com";
+    private static final int SIZE_PX = 48;
+
+    private Context context;
+    private AvatarRenderer renderer;
+    private File diskCacheDir;
+
+    @Before
+    public void setUp() {
+        AvatarRenderer.resetInstance();
+        context = ApplicationProvider.getApplicationContext();
+        renderer = AvatarRenderer.getInstance(context);
+        diskCacheDir = new File(context.getCacheDir(), "avatars");
+    }
+
+    @Test
+    public void cacheKey_changesWithEveryInput() {
+        String key = AvatarRenderer.cacheKey(EMAIL, "JD", SIZE_PX, false);
+
+        assertEquals(key, AvatarRenderer.cacheKey(EMAIL, "JD", SIZE_PX, false));
+        assertNotEquals(key, AvatarRenderer.cacheKey(EMAIL, "JA", SIZE_PX, false));
+        assertNotEquals(key, AvatarRenderer.cacheKey(EMAIL, "JD", SIZE_PX * 2, false));
+        assertNotEquals(key, AvatarRenderer.cacheKey(EMAIL, "JD", SIZE_PX, true));
+        assertNotEquals(key, AvatarRenderer.cacheKey("john@example.com", "JD", SIZE_PX, false));
+    }
+
+    @Test
+    public void renderedAvatar_isReadBackFromDisk() throws InterruptedException {
+        ImageView view = new ImageView(context);
+        bindAndWait(view, "JD");
+        File[] files = diskCacheDir.listFiles();
+        assertNotNull(files);
+        assertEquals(1, files.length);
+
+        // A disk hit leaves the file alone; a re-render would rewrite it
+        long stamp = 1_000_000_000_000L;
+        assertTrue(files[0].setLastModified(stamp));
+        renderer.clearMemoryCache();
+        ImageView second = new ImageView(context);
+        bindAndWait(second, "JD");
+        assertEquals(stamp, files[0].lastModified());
+    }
+
+    @Test
+    public void newInitials_replaceTheOldFile() throws InterruptedException {
+        bindAndWait(new ImageView(context), "JD");
+        File before = diskCacheDir.listFiles()[0];
+
+        bindAndWait(new ImageView(context), "JA");
+
+        File[] files = diskCacheDir.listFiles();
+        assertEquals(1, files.length);
+        assertNotEquals(before.getName(), files[0].getName());
+    }
+
+    @Test
+    public void trimDiskCache_deletesOnlyOldFiles() throws IOException {
+        long now = 10_000_000_000_000L;
+        long maxAge = 1_000L;
+        assertTrue(diskCacheDir.mkdirs());
+        File old = new File(diskCacheDir, "old.png");
+        File fresh = new File(diskCacheDir, "fresh.png");
+        assertTrue(old.createNewFile());
+        assertTrue(fresh.createNewFile());
+        assertTrue(old.setLastModified(now - maxAge));
+        assertTrue(fresh.setLastModified(now - maxAge + 1));
+
+        assertEquals(1, renderer.trimDiskCache(now, maxAge));
+        assertFalse(old.exists());
+        assertTrue(fresh.exists());
+    }
+
+    /**
+     * Bind, then pump the main looper until the background render has been delivered
+     */
+    private void bindAndWait(ImageView view, String initials) throws InterruptedException {
+        renderer.bind(view, EMAIL, initials, SIZE_PX);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!(view.getDrawable() instanceof BitmapDrawable) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            shadowOf(Looper.getMainLooper()).idle();
+        }
+        assertTrue("Avatar was not delivered", view.getDrawable() instanceof BitmapDrawable);
+    }
+}
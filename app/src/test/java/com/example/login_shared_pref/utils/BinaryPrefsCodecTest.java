@@ -0,0 +1,65 @@
+package com.example.login_shared_pref.utils;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Round-trip and corruption tests for the AtomicFileStore file format
+ */
+public class BinaryPrefsCodecTest {
+
+    @Test
+    public void roundTrip_preservesEveryValueType() throws IOException {
+        Map<String, Object> map = new HashMap<>();
+        map.put("isLoggedIn", true);
+        map.put("count", -42);
+        map.put("lastLogin", Long.MIN_VALUE);
+        map.put("ratio", 0.25f);
+        map.put("user_jane@example.com_name", "J\u00e4ne Doe");
+        map.put("empty", "");
+        map.put("tags", new HashSet<>(Arrays.asList("a", "b", "\u00fc")));
+
+        assertEquals(map, BinaryPrefsCodec.decode(BinaryPrefsCodec.encode(map)));
+    }
+
+    @Test
+    public void roundTrip_emptyMap() throws IOException {
+        assertTrue(BinaryPrefsCodec.decode(BinaryPrefsCodec.encode(new HashMap<>())).isEmpty());
+    }
+
+    @Test
+    public void decode_rejectsFlippedByte() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("userEmail", "jane@example.com");
+        byte[] data = BinaryPrefsCodec.encode(map);
+        data[data.length / 2] ^= 0x01;
+
+        try {
+            BinaryPrefsCodec.decode(data);
+            fail("Corrupt data should not decode");
+        } catch (IOException expected) {
+            // Checksum mismatch
+        }
+    }
+
+    @Test
+    public void decode_rejectsTruncatedFile() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("userEmail", "jane@example.com");
+        byte[] data = BinaryPrefsCodec.encode(map);
+
+        try {
+            BinaryPrefsCodec.decode(Arrays.copyOf(data, data.length - 3));
+            fail("Truncated data should not decode");
+        } catch (IOException expected) {
+            // Torn write
+        }
+    }
+}
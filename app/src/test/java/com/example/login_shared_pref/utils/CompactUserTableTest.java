@@ -0,0 +1,75 @@
+package com.example.login_shared_pref.utils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Lookups, overwrites, removal and compaction of CompactUserTable, and its size next
+ * to the prefs maps it replaces
+ */
+public class CompactUserTableTest {
+
+    @Test
+    public void putAndGet_roundTripAcrossGrowth() {
+        CompactUserTable table = new CompactUserTable(0);
+        for (int i = 0; i < 10_000; i++) {
+            table.put("user" + i + "@example.com", "User " + i, "password" + i);
+        }
+
+        assertEquals(10_000, table.size());
+        assertEquals("User 4242", table.getName("user4242@example.com"));
+        assertEquals("password9999", table.getPassword("user9999@example.com"));
+        assertNull(table.getName("nobody@example.com"));
+        assertFalse(table.contains("user10000@example.com"));
+    }
+
+    @Test
+    public void overwriteRemoveAndCompact_keepLiveRecords() {
+        CompactUserTable table = new CompactUserTable(4);
+        table.put("jane@example.com", "Jane Doe", "secret1");
+        table.put("j\u00fcrgen@example.com", "J\u00fcrgen M\u00fcller", "secret2");
+        table.put("jane@example.com", "Jane Smith", "secret3");
+        assertTrue(table.remove("j\u00fcrgen@example.com"));
+        assertFalse(table.remove("j\u00fcrgen@example.com"));
+
+        long before = table.memoryBytes();
+        table.compact();
+
+        assertEquals(1, table.size());
+        assertEquals("Jane Smith", table.getName("jane@example.com"));
+        assertEquals("secret3", table.getPassword("jane@example.com"));
+        assertTrue(table.memoryBytes() <= before);
+
+        table.put("j\u00fcrgen@example.com", "J\u00fcrgen M\u00fcller", "secret2");
+        assertEquals("J\u00fcrgen M\u00fcller", table.getName("j\u00fcrgen@example.com"));
+    }
+
+    @Test
+    public void fromShards_isSmallerThanTheMaps() {
+        Map<String, Object> shardA = new HashMap<>();
+        Map<String, Object> shardB = new HashMap<>();
+        for (int i = 0; i < 1_000; i++) {
+            Map<String, Object> shard = i % 2 == 0 ? shardA : shardB;
+            String prefix = "user_user" + i + "@example.com";
+            shard.put(prefix + "_name", "User " + i);
+            shard.put(prefix + "_password", "password" + i);
+            shard.put(prefix + "_lastLogin", 1_700_000_000_000L + i);
+        }
+        // An orphan name without a password is not an account
+        shardA.put("user_ghost@example.com_name", "Ghost");
+
+        CompactUserTable table = CompactUserTable.fromShards(Arrays.asList(shardA, shardB));
+
+        assertEquals(1_000, table.size());
+        assertEquals("User 7", table.getName("user7@example.com"));
+        assertFalse(table.contains("ghost@example.com"));
+        long mapBytes = UserStoreFootprint.estimateMapHeap(shardA) + UserStoreFootprint.estimateMapHeap(shardB);
+        assertTrue("compact " + table.memoryBytes() + " vs maps " + mapBytes,
+                table.memoryBytes() * 4 < mapBytes);
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.login_shared_pref.utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Ordering, backpressure and cancellation of CryptoExecutor, on a single worker that a
+ * gate task holds busy while the queue is set up
+ */
+public class CryptoExecutorTest {
+
+    private CryptoExecutor executor;
+    private CountDownLatch gate;
+
+    @Before
+    public void setUp() throws Exception {
+        executor = new CryptoExecutor(1);
+        gate = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        executor.submitInteractive(() -> {
+            started.countDown();
+            return gate.await(5, TimeUnit.SECONDS);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+    }
+
+    @After
+    public void tearDown() {
+        gate.countDown();
+    }
+
+    @Test
+    public void queuedWork_runsInSubmissionOrder() throws Exception {
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        List<CryptoExecutor.Task<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            String name = "login" + i;
+            tasks.add(executor.submitInteractive(() -> order.add(name)));
+        }
+        assertEquals(3, executor.getQueueDepth(CryptoExecutor.Priority.INTERACTIVE));
+
+        gate.countDown();
+        for (CryptoExecutor.Task<Boolean> task : tasks) {
+            task.get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(Arrays.asList("login0", "login1", "login2"), order);
+        assertEquals(0, executor.getQueueDepth(CryptoExecutor.Priority.INTERACTIVE));
+        // The gate task's wait is recorded too
+        assertEquals(4, executor.getWaitTimes(CryptoExecutor.Priority.INTERACTIVE).getCount());
+    }
+
+    @Test
+    public void fullInteractiveQueue_rejectsAndCancellationFreesASlot() {
+        // The gate task holds one of the 16 slots
+        List<CryptoExecutor.Task<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            tasks.add(executor.submitInteractive(() -> true));
+        }
+        CryptoExecutor.Task<Boolean> overflow = executor.submitInteractive(() -> true);
+        assertTrue("A task beyond the 16 slots should be rejected", overflow.isDone());
+        try {
+            overflow.get();
+            fail("A rejected task has no result");
+        } catch (ExecutionException expected) {
+            assertTrue(expected.getCause() instanceof RejectedExecutionException);
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+        assertFalse(overflow.await(false));
+        assertEquals(1, executor.getRejectedCount(CryptoExecutor.Priority.INTERACTIVE));
+        // It never took a slot, so it has none to give back
+        assertEquals(15, executor.getQueueDepth(CryptoExecutor.Priority.INTERACTIVE));
+
+        assertTrue(tasks.get(3).cancel(false));
+        assertEquals(14, executor.getQueueDepth(CryptoExecutor.Priority.INTERACTIVE));
+        assertNotNull(executor.submitInteractive(() -> true));
+    }
+
+    @Test
+    public void whenDone_runsOnTheGivenExecutorAfterCompletion() throws Exception {
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch delivered = new CountDownLatch(2);
+        CryptoExecutor.Task<Boolean> task = executor.submitInteractive(() -> events.add("work"));
+        task.whenDone(runnable -> {
+            events.add("posted");
+            runnable.run();
+        }, () -> {
+            events.add("callback " + task.isDone());
+            delivered.countDown();
+        });
+        assertTrue(events.isEmpty());
+
+        gate.countDown();
+        task.get(5, TimeUnit.SECONDS);
+
+        // Registered after completion, so it is handed over at once
+        task.whenDone(Runnable::run, delivered::countDown);
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("work", "posted", "callback true"), events);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.login_shared_pref.utils;
+
+import com.example.login_shared_pref.models.DashboardViewState;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Reuse and formatting of the dashboard view state
+ */
+public class DashboardStateCacheTest {
+
+    private static final ZoneId UTC = ZoneId.of("UTC");
+    private static final long LOGIN = ZonedDateTime.of(2024, 3, 5, 22, 30, 0, 0, UTC).toInstant().toEpochMilli();
+
+    private DashboardStateCache cache;
+
+    @Before
+    public void setUp() {
+        cache = DashboardStateCache.getInstance();
+        cache.clear();
+    }
+
+    @Test
+    public void unchangedInputs_returnSameInstance() {
+        DashboardViewState first = cache.get("jane@example.com", "Jane Doe", LOGIN, Locale.US, UTC);
+        DashboardViewState second = cache.get("jane@example.com", "Jane Doe", LOGIN, Locale.US, UTC);
+
+        assertSame(first, second);
+        assertEquals("Jane", first.getFirstName());
+        assertEquals("JD", first.getInitials());
+        assertEquals("Mar 05, 2024", first.getLastLoginText());
+    }
+
+    @Test
+    public void changedName_orLogin_rebuilds() {
+        DashboardViewState first = cache.get("jane@example.com", "Jane Doe", LOGIN, Locale.US, UTC);
+        DashboardViewState renamed = cache.get("jane@example.com", "Janet Doe", LOGIN, Locale.US, UTC);
+        DashboardViewState relogged = cache.get("jane@example.com", "Janet Doe", LOGIN + 86_400_000L, Locale.US, UTC);
+
+        assertNotSame(first, renamed);
+        assertEquals("Janet", renamed.getFirstName());
+        assertNotSame(renamed, relogged);
+        assertEquals("Mar 06, 2024", relogged.getLastLoginText());
+    }
+
+    @Test
+    public void zone_isAppliedToTheDate() {
+        DashboardViewState tokyo = cache.get("jane@example.com", "Jane Doe", LOGIN, Locale.US, ZoneId.of("Asia/Tokyo"));
+        assertEquals("Mar 06, 2024", tokyo.getLastLoginText());
+    }
+
+    @Test
+    public void unknownLastLogin_hasNoText() {
+        assertNull(cache.get("jane@example.com", "Jane Doe", 0L, Locale.US, UTC).getLastLoginText());
+    }
+}
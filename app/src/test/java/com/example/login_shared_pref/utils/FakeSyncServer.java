@@ -0,0 +1,68 @@
+package com.example.login_shared_pref.utils;
+
+import com.example.login_shared_pref.models.UserChange;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local stand-in for the user directory sync server
+ * Keeps an append-only change log where each entry's sequence number is its cursor position
+ */
+class FakeSyncServer implements UserDirectorySync.RemoteSource {
+
+    private final List<UserChange> changeLog = new ArrayList<>();
+    private final Map<String, Long> versions = new HashMap<>();
+
+    int fetchCount;
+    int failOnFetch = -1;
+
+    /**
+     * Add or update a user; bumps the record's version stamp
+     */
+    void upsert(String email, String name, String password) {
+        long version = versions.getOrDefault(email, 0L) + 1;
+        versions.put(email, version);
+        changeLog.add(new UserChange(email, name, password, version));
+    }
+
+    void delete(String email) {
+        long version = versions.getOrDefault(email, 0L) + 1;
+        versions.put(email, version);
+        changeLog.add(UserChange.deletion(email, version));
+    }
+
+    /**
+     * Append a raw change without touching the version table (simulates replays)
+     */
+    void appendRaw(UserChange change) {
+        changeLog.add(change);
+    }
+
+    /**
+     * Generate a synthetic directory of the given size
+     */
+    void seed(int users) {
+        for (int i = 0; i < users; i++) {
+            upsert(email(i), "User " + i, "password" + i);
+        }
+    }
+
+    static String email(int i) {
+        return "user" + i + "@example.com";
+    }
+
+    @Override
+    public UserDirectorySync.ChangePage fetchChanges(long cursor, int limit) throws IOException {
+        if (fetchCount++ == failOnFetch) {
+            throw new IOException("Simulated network failure");
+        }
+        int from = (int) cursor;
+        int to = Math.min(changeLog.size(), from + limit);
+        List<UserChange> page = new ArrayList<>(changeLog.subList(from, to));
+        return new UserDirectorySync.ChangePage(page, to, to < changeLog.size());
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.login_shared_pref.utils;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Round trips and edge cases of the compressed HashPrefixTable
+ */
+public class HashPrefixTableTest {
+
+    @Test
+    public void lookups_matchTheBuiltSet() throws Exception {
+        for (int blockSize : new int[]{1, 7, HashPrefixTable.DEFAULT_BLOCK_SIZE}) {
+            Random random = new Random(blockSize);
+            HashPrefixTableBuilder builder = new HashPrefixTableBuilder(blockSize);
+            long[] present = new long[5_000];
+            for (int i = 0; i < present.length; i++) {
+                present[i] = random.nextLong();
+                builder.addPrefix(present[i]);
+            }
+            // Duplicates and both ends of the unsigned range
+            builder.addPrefix(present[0]).addPrefix(0L).addPrefix(-1L).addPrefix(Long.MIN_VALUE);
+
+            HashPrefixTable table = build(builder);
+            assertEquals(present.length + 3, table.size());
+            for (long prefix : present) {
+                assertTrue(table.contains(prefix));
+            }
+            assertTrue(table.contains(0L));
+            assertTrue(table.contains(-1L));
+            assertTrue(table.contains(Long.MIN_VALUE));
+            for (int i = 0; i < 5_000; i++) {
+                long absent = random.nextLong();
+                assertEquals(contains(present, absent), table.contains(absent));
+            }
+            assertFalse(table.contains(1L));
+        }
+    }
+
+    @Test
+    public void passwordsAndHashes_giveTheSamePrefix() throws Exception {
+        // SHA-1("password")
+        assertEquals(HashPrefixTable.prefixOf("password"),
+                HashPrefixTable.prefixOfHash("5BAA61E4C9B93F3F0682250B6CF8331B7EE68FD8:3861493"));
+
+        HashPrefixTable table = build(new HashPrefixTableBuilder()
+                .addHash("5BAA61E4C9B93F3F0682250B6CF8331B7EE68FD8")
+                .addPassword("letmein"));
+        assertTrue(table.containsPassword("password"));
+        assertTrue(table.containsPassword("letmein"));
+        assertFalse(table.containsPassword("Password"));
+    }
+
+    @Test
+    public void emptyTables_matchNothing() throws Exception {
+        assertFalse(new HashPrefixTable(ByteBuffer.allocate(0)).containsPassword("password"));
+        assertFalse(build(new HashPrefixTableBuilder()).containsPassword("password"));
+    }
+
+    @Test
+    public void bundledTable_flagsCommonPasswords() throws Exception {
+        HashPrefixTable table = new HashPrefixTable(ByteBuffer.wrap(
+                Files.readAllBytes(new File("src/main/assets/breached_passwords.bin").toPath())));
+        assertTrue(table.containsPassword("123456"));
+        assertTrue(table.containsPassword("qwerty123"));
+        assertFalse(table.containsPassword("secret1"));
+    }
+
+    private static HashPrefixTable build(HashPrefixTableBuilder builder) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        builder.writeTo(bytes);
+        return new HashPrefixTable(ByteBuffer.wrap(bytes.toByteArray()));
+    }
+
+    private static boolean contains(long[] values, long value) {
+        for (long v : values) {
+            if (v == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
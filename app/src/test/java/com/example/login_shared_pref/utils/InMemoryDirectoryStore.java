@@ -0,0 +1,44 @@
+package com.example.login_shared_pref.utils;
+
+import com.example.login_shared_pref.models.UserChange;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory LocalStore that records how many batched writes were made
+ * Keys records by normalized email, like SharedPrefsManager.
+ */
+class InMemoryDirectoryStore implements UserDirectorySync.LocalStore {
+
+    final Map<String, UserChange> users = new HashMap<>();
+    final Map<String, Long> versions = new HashMap<>();
+    long cursor;
+    int writeCount;
+
+    @Override
+    public long getSyncCursor() {
+        return cursor;
+    }
+
+    @Override
+    public long getUserVersion(String email) {
+        return versions.getOrDefault(SharedPrefsManager.normalizeEmail(email), 0L);
+    }
+
+    @Override
+    public void applyUserChanges(List<UserChange> changes, long newCursor) {
+        for (UserChange change : changes) {
+            String email = SharedPrefsManager.normalizeEmail(change.getEmail());
+            if (change.isDeleted()) {
+                users.remove(email);
+            } else {
+                users.put(email, change);
+            }
+            versions.put(email, change.getVersion());
+        }
+        cursor = newCursor;
+        writeCount++;
+    }
+}
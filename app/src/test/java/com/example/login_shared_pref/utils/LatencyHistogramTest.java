@@ -0,0 +1,52 @@
+package com.example.login_shared_pref.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Bucket math and percentile accuracy of LatencyHistogram
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketBounds_containTheirValues() {
+        long[] samples = {0, 1, 15, 16, 31, 32, 33, 1_000, 65_535, 1_000_000, 123_456_789L, 1L << 40};
+        for (long value : samples) {
+            int index = LatencyHistogram.indexOf(value);
+            long upper = LatencyHistogram.highestEquivalentValue(index);
+            assertTrue(value + " above bucket bound " + upper, value <= upper);
+            assertTrue(value + " reported as " + upper, upper - value <= Math.max(1, value / 16));
+        }
+    }
+
+    @Test
+    public void percentiles_areWithinSixPercent() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros * 1_000);
+        }
+
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(10_000_000, histogram.getMaxNanos());
+        assertWithin(5_000_000, histogram.getValueAtPercentile(50));
+        assertWithin(9_900_000, histogram.getValueAtPercentile(99));
+        assertEquals(10_000_000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void reset_clearsEverything() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(42);
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMaxNanos());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue("Expected ~" + expected + " but was " + actual,
+                Math.abs(actual - expected) <= expected * 0.0625);
+    }
+}
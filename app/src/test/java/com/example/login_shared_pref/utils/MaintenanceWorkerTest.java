@@ -0,0 +1,90 @@
+package com.example.login_shared_pref.utils;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs maintenance passes directly, with a controllable yield signal in place of the
+ * foreground check
+ */
+@RunWith(RobolectricTestRunner.class)
+public class MaintenanceWorkerTest {
+
+    private Context context;
+    private SharedPrefsManager prefsManager;
+
+    @Before
+    public void setUp() {
+        SharedPrefsManager.resetInstance();
+        SessionStore.resetInstance();
+        AuthStateMachine.resetInstance();
+        context = ApplicationProvider.getApplicationContext();
+        prefsManager = SharedPrefsManager.getInstance(context);
+    }
+
+    @Test
+    public void abandonedAccounts_arePurgedAfterGracePeriod() {
+        long now = System.currentTimeMillis();
+        prefsManager.registerUser("old@example.com", "Old User", "secret1");
+        prefsManager.registerUser("jane@example.com", "Jane Doe", "secret2");
+        prefsManager.createLoginSession("jane@example.com", "Jane Doe", "secret2", true);
+
+        // First pass only stamps the account that has never logged in
+        MaintenanceWorker.Report first = MaintenanceWorker.runMaintenance(context, now, () -> false);
+        assertEquals(0, first.keysRemoved);
+        assertTrue(prefsManager.isUserExists("old@example.com"));
+        assertTrue(prefsManager.isLoggedIn());
+
+        long later = now + TimeUnit.DAYS.toMillis(400);
+        MaintenanceWorker.Report second = MaintenanceWorker.runMaintenance(context, later, () -> false);
+
+        assertTrue(second.sessionExpired);
+        assertFalse(prefsManager.isLoggedIn());
+        assertEquals("", prefsManager.getUserEmail());
+        assertFalse(prefsManager.isUserExists("old@example.com"));
+        assertFalse(prefsManager.isUserExists("jane@example.com"));
+        assertEquals(prefsManager.getUserShardCount(), second.shardsVisited);
+    }
+
+    @Test
+    public void recentAccounts_andActiveSession_areKept() {
+        long now = System.currentTimeMillis();
+        prefsManager.registerUser("jane@example.com", "Jane Doe", "secret2");
+        prefsManager.createLoginSession("jane@example.com", "Jane Doe", "secret2", true);
+
+        MaintenanceWorker.Report report =
+                MaintenanceWorker.runMaintenance(context, now + TimeUnit.DAYS.toMillis(10), () -> false);
+
+        assertFalse(report.sessionExpired);
+        assertEquals(0, report.keysRemoved);
+        assertTrue(prefsManager.isLoggedIn());
+        assertTrue(prefsManager.validateUser("jane@example.com", "secret2"));
+    }
+
+    @Test
+    public void yielding_stopsEarlyAndResumesFromCursor() {
+        int[] checks = {0};
+        MaintenanceWorker.Report interrupted = MaintenanceWorker.runMaintenance(
+                context, System.currentTimeMillis(), () -> checks[0]++ >= 3);
+
+        assertTrue(interrupted.yielded);
+        assertEquals(2, interrupted.shardsVisited);
+        assertEquals(2, prefsManager.getMaintenanceCursor());
+
+        MaintenanceWorker.Report resumed =
+                MaintenanceWorker.runMaintenance(context, System.currentTimeMillis(), () -> false);
+        assertFalse(resumed.yielded);
+        assertEquals(prefsManager.getUserShardCount(), resumed.shardsVisited);
+        assertEquals(2, prefsManager.getMaintenanceCursor());
+    }
+}
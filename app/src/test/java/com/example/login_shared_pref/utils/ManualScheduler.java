@@ -0,0 +1,124 @@
+package com.example.login_shared_pref.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded scheduled executor on a manual clock
+ * Nothing runs until the test calls advanceBy() or runDue(), and then on the test's thread,
+ * in due time and then submission order.
+ */
+class ManualScheduler extends AbstractExecutorService implements ScheduledExecutorService {
+
+    private final PriorityQueue<Scheduled<?>> queue = new PriorityQueue<>();
+    private long nowMs;
+    private long nextSequence;
+    private boolean shutdown;
+
+    /**
+     * Move the clock forward, running every task that comes due on the way
+     */
+    void advanceBy(long ms) {
+        long target = nowMs + ms;
+        while (!queue.isEmpty() && queue.peek().dueMs <= target) {
+            Scheduled<?> next = queue.poll();
+            nowMs = next.dueMs;
+            next.run();
+        }
+        nowMs = target;
+    }
+
+    /**
+     * Run what is due now, e.g. tasks handed over with execute() or submit()
+     */
+    void runDue() {
+        advanceBy(0);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        schedule(command, 0, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return schedule(Executors.callable(command), delay, unit);
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        Scheduled<V> task = new Scheduled<>(callable, nowMs + unit.toMillis(delay), nextSequence++);
+        queue.add(task);
+        return task;
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        List<Runnable> pending = new ArrayList<>(queue);
+        queue.clear();
+        return pending;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && queue.isEmpty();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+        return isTerminated();
+    }
+
+    private final class Scheduled<V> extends FutureTask<V> implements ScheduledFuture<V> {
+        final long dueMs;
+        private final long sequence;
+
+        Scheduled(Callable<V> callable, long dueMs, long sequence) {
+            super(callable);
+            this.dueMs = dueMs;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueMs - nowMs, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            Scheduled<?> that = (Scheduled<?>) other;
+            int byDue = Long.compare(dueMs, that.dueMs);
+            return byDue != 0 ? byDue : Long.compare(sequence, that.sequence);
+        }
+    }
+}
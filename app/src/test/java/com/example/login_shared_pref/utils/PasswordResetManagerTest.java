@@ -0,0 +1,151 @@
+package com.example.login_shared_pref.utils;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * Code issue, expiry, throttling and redemption of PasswordResetManager over in-memory stores
+ */
+@RunWith(RobolectricTestRunner.class)
+public class PasswordResetManagerTest {
+
+    private static final String EMAIL = "jane@example.com";
+
+    private final Map<String, InMemoryStore> stores = new ConcurrentHashMap<>();
+    private final RecordingSender sender = new RecordingSender();
+    private SharedPrefsManager accounts;
+    private PasswordResetManager resets;
+    private long now = 1_000_000L;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        accounts = new SharedPrefsManager(context,
+                (ctx, name) -> stores.computeIfAbsent(name, n -> new InMemoryStore()));
+        accounts.registerUser(EMAIL, "Jane Doe", "oldpass1");
+        resets = new PasswordResetManager(new InMemoryStore(), accounts, sender, () -> now);
+    }
+
+    @Test
+    public void validCode_resetsThePasswordOnce() {
+        assertEquals(0, resets.requestReset(" Jane@Example.com "));
+        String code = sender.getLastCode(EMAIL);
+        assertEquals(PasswordResetManager.CODE_DIGITS, code.length());
+
+        assertEquals(PasswordResetManager.Result.SUCCESS, resets.resetPassword(EMAIL, code, "newpass1"));
+        assertTrue(accounts.validateUser(EMAIL, "newpass1"));
+        assertFalse(accounts.validateUser(EMAIL, "oldpass1"));
+
+        // Codes are single use
+        assertFalse(resets.hasPendingCode(EMAIL));
+        assertEquals(PasswordResetManager.Result.INVALID_CODE, resets.resetPassword(EMAIL, code, "another1"));
+    }
+
+    @Test
+    public void codes_expire() {
+        resets.requestReset(EMAIL);
+        String code = sender.getLastCode(EMAIL);
+        now += PasswordResetManager.CODE_TTL_MS;
+
+        assertEquals(PasswordResetManager.Result.EXPIRED, resets.resetPassword(EMAIL, code, "newpass1"));
+        assertTrue(accounts.validateUser(EMAIL, "oldpass1"));
+    }
+
+    @Test
+    public void wrongGuesses_burnTheCode() {
+        resets.requestReset(EMAIL);
+        String code = sender.getLastCode(EMAIL);
+        String wrong = code.equals("000000") ? "000001" : "000000";
+
+        for (int i = 1; i < PasswordResetManager.MAX_ATTEMPTS; i++) {
+            assertEquals(PasswordResetManager.Result.INVALID_CODE, resets.resetPassword(EMAIL, wrong, "newpass1"));
+        }
+        assertEquals(PasswordResetManager.Result.TOO_MANY_ATTEMPTS, resets.resetPassword(EMAIL, wrong, "newpass1"));
+        assertEquals(PasswordResetManager.Result.INVALID_CODE, resets.resetPassword(EMAIL, code, "newpass1"));
+        assertTrue(accounts.validateUser(EMAIL, "oldpass1"));
+    }
+
+    @Test
+    public void requests_areThrottledPerEmail() {
+        assertEquals(0, resets.requestReset(EMAIL));
+        assertEquals(PasswordResetManager.MIN_REQUEST_INTERVAL_MS, resets.requestReset(EMAIL));
+        // Other emails are not affected
+        assertEquals(0, resets.requestReset("someone@example.com"));
+
+        long windowStart = now;
+        for (int i = 1; i < PasswordResetManager.MAX_REQUESTS_PER_WINDOW; i++) {
+            now += PasswordResetManager.MIN_REQUEST_INTERVAL_MS;
+            assertEquals(0, resets.requestReset(EMAIL));
+        }
+        now += PasswordResetManager.MIN_REQUEST_INTERVAL_MS;
+        assertEquals(windowStart + PasswordResetManager.REQUEST_WINDOW_MS - now, resets.requestReset(EMAIL));
+
+        now = windowStart + PasswordResetManager.REQUEST_WINDOW_MS;
+        assertEquals(0, resets.requestReset(EMAIL));
+    }
+
+    @Test
+    public void unknownEmails_lookAcceptedButGetNoCode() {
+        assertEquals(0, resets.requestReset("nobody@example.com"));
+        assertNull(sender.getLastCode("nobody@example.com"));
+        assertFalse(resets.hasPendingCode("nobody@example.com"));
+    }
+
+    @Test
+    public void pruneExpired_dropsOldCodes() {
+        resets.requestReset(EMAIL);
+        now += PasswordResetManager.REQUEST_WINDOW_MS;
+        resets.pruneExpired();
+
+        assertFalse(resets.hasPendingCode(EMAIL));
+        assertEquals(0, resets.requestReset(EMAIL));
+    }
+
+    @Test
+    public void constantTimeEquals_comparesWholeArrays() {
+        assertTrue(PasswordResetManager.constantTimeEquals(new byte[]{1, 2, 3}, new byte[]{1, 2, 3}));
+        assertFalse(PasswordResetManager.constantTimeEquals(new byte[]{1, 2, 3}, new byte[]{1, 2, 4}));
+        assertFalse(PasswordResetManager.constantTimeEquals(new byte[]{1, 2}, new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    public void withoutSender_noCodeIsIssued() {
+        PasswordResetManager noBackend = new PasswordResetManager(new InMemoryStore(), accounts, null, () -> now);
+        assertFalse(noBackend.canSendCodes());
+        assertTrue(resets.canSendCodes());
+
+        try {
+            noBackend.requestReset(EMAIL);
+            fail("A build without a sender must not issue codes");
+        } catch (IllegalStateException expected) {
+            assertFalse(noBackend.hasPendingCode(EMAIL));
+        }
+    }
+
+    /**
+     * Keeps the last code per email; the app's in-process sender only exists in debug builds
+     */
+    private static class RecordingSender implements PasswordResetManager.ResetCodeSender {
+        private final Map<String, String> lastCodes = new ConcurrentHashMap<>();
+
+        @Override
+        public void send(String email, String code) {
+            lastCodes.put(email, code);
+        }
+
+        String getLastCode(String email) {
+            return lastCodes.get(email);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.login_shared_pref.utils;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pattern scoring, dictionary lookups and incremental updates of PasswordStrengthMeter
+ */
+public class PasswordStrengthMeterTest {
+
+    private static final CommonPasswords DICTIONARY = new CommonPasswords(ByteBuffer.wrap(
+            "abc123\nletmein\npass\npassword\npassword1\nqwerty\n".getBytes(StandardCharsets.US_ASCII)));
+
+    @Test
+    public void dictionary_findsExactWordsOnly() {
+        assertTrue(DICTIONARY.contains("password"));
+        assertTrue(DICTIONARY.contains("PassWord1"));
+        assertTrue(DICTIONARY.contains("pass"));
+        assertFalse(DICTIONARY.contains("passw"));
+        assertFalse(DICTIONARY.contains("password12"));
+        assertFalse(DICTIONARY.contains("abc"));
+        assertFalse(DICTIONARY.contains("zzz"));
+        assertFalse(DICTIONARY.contains("p\u00e4ss"));
+    }
+
+    @Test
+    public void commonPasswords_scoreVeryWeak() {
+        PasswordStrengthMeter meter = meter("Password1");
+        assertTrue(meter.isCommonPassword());
+        assertEquals(PasswordStrengthMeter.VERY_WEAK, meter.getScore());
+
+        meter.append('!');
+        assertFalse(meter.isCommonPassword());
+    }
+
+    @Test
+    public void patterns_scoreBelowRandomText() {
+        assertEquals(PasswordStrengthMeter.VERY_WEAK, meter("abc").getScore());
+        assertTrue(meter("abcdefgh").getScore() < meter("kxqmwbtz").getScore());
+        assertTrue(meter("asdfghjk").getScore() < meter("kxqmwbtz").getScore());
+        assertTrue(meter("aaaaaaaa").getScore() < meter("kxqmwbtz").getScore());
+        assertEquals(PasswordStrengthMeter.STRONG, meter("t7#Kq2!vR9zW@m4L").getScore());
+    }
+
+    @Test
+    public void incrementalEdits_matchAFreshScore() {
+        Random random = new Random(42);
+        String alphabet = "abcdefqwerty123456!A";
+        StringBuilder text = new StringBuilder();
+        PasswordStrengthMeter meter = new PasswordStrengthMeter(DICTIONARY);
+
+        for (int i = 0; i < 2_000; i++) {
+            int start = text.length() == 0 ? 0 : random.nextInt(text.length() + 1);
+            int before = random.nextInt(4) == 0 ? Math.min(text.length() - start, random.nextInt(3)) : 0;
+            String inserted = before > 0 && random.nextBoolean() ? ""
+                    : String.valueOf(alphabet.charAt(random.nextInt(alphabet.length())));
+            text.replace(start, start + before, inserted);
+            meter.onTextChanged(text, start, before, inserted.length());
+
+            PasswordStrengthMeter fresh = meter(text.toString());
+            assertEquals(text.toString(), fresh.getEntropyBits(), meter.getEntropyBits(), 1e-9);
+            assertEquals(text.toString(), fresh.isCommonPassword(), meter.isCommonPassword());
+        }
+    }
+
+    @Test
+    public void bundledList_isSortedLowerCaseAscii() throws Exception {
+        List<String> words = Files.readAllLines(new File("src/main/assets/common_passwords.txt").toPath(),
+                StandardCharsets.US_ASCII);
+        for (int i = 0; i < words.size(); i++) {
+            String word = words.get(i);
+            assertTrue(word, word.matches("[ -~]+") && word.equals(word.toLowerCase()));
+            if (i > 0) {
+                assertTrue(word, words.get(i - 1).compareTo(word) < 0);
+            }
+        }
+    }
+
+    private static PasswordStrengthMeter meter(String password) {
+        PasswordStrengthMeter meter = new PasswordStrengthMeter(DICTIONARY);
+        for (int i = 0; i < password.length(); i++) {
+            meter.append(password.charAt(i));
+        }
+        return meter;
+    }
+}
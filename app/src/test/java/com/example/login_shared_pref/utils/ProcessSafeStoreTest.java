@@ -0,0 +1,119 @@
+package com.example.login_shared_pref.utils;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+/**
+ * Two instances over the same files stand in for two processes; the JVM rejects
+ * overlapping locks, so each test only lets one of them touch the files at a time
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ProcessSafeStoreTest {
+
+    private File dataFile;
+    private File lockFile;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        File dir = new File(context.getFilesDir(), "process_safe_test");
+        dataFile = new File(dir, "session.mp");
+        lockFile = new File(dir, "session.lock");
+    }
+
+    @Test
+    public void apply_isVisibleToLocalReadsImmediately() {
+        ProcessSafeStore store = new ProcessSafeStore(dataFile, lockFile);
+
+        store.edit().putBoolean("isLoggedIn", true).apply();
+
+        assertTrue(store.getBoolean("isLoggedIn", false));
+    }
+
+    @Test
+    public void otherProcessWrite_isSeenOnlyAfterVersionMoves() {
+        ProcessSafeStore app = new ProcessSafeStore(dataFile, lockFile);
+        ProcessSafeStore widget = new ProcessSafeStore(dataFile, lockFile);
+
+        assertTrue(app.edit().putBoolean("isLoggedIn", true).commit());
+        long seen = widget.getVersion();
+        assertTrue(widget.getBoolean("isLoggedIn", false));
+        assertEquals(seen, widget.getVersion());
+
+        assertTrue(app.edit().putBoolean("isLoggedIn", false).commit());
+        assertTrue(widget.getVersion() > seen);
+        assertFalse(widget.getBoolean("isLoggedIn", true));
+    }
+
+    @Test
+    public void writersInDifferentProcesses_mergeTheirKeys() {
+        ProcessSafeStore app = new ProcessSafeStore(dataFile, lockFile);
+        ProcessSafeStore service = new ProcessSafeStore(dataFile, lockFile);
+
+        // Both have loaded the empty file before either writes
+        assertFalse(app.contains("userEmail"));
+        assertFalse(service.contains("syncCursor"));
+
+        assertTrue(app.edit().putString("userEmail", "jane@example.com").commit());
+        assertTrue(service.edit().putLong("syncCursor", 42L).commit());
+
+        assertEquals("jane@example.com", service.getString("userEmail", null));
+        assertEquals(42L, app.getLong("syncCursor", 0L));
+    }
+
+    @Test
+    public void removeAndClear_propagate() {
+        ProcessSafeStore app = new ProcessSafeStore(dataFile, lockFile);
+        ProcessSafeStore widget = new ProcessSafeStore(dataFile, lockFile);
+
+        assertTrue(app.edit().putString("userEmail", "jane@example.com").putBoolean("rememberMe", true).commit());
+        assertTrue(widget.edit().remove("rememberMe").commit());
+        assertEquals("jane@example.com", app.getString("userEmail", null));
+        assertFalse(app.contains("rememberMe"));
+
+        assertTrue(widget.edit().clear().commit());
+        assertTrue(app.getAll().isEmpty());
+    }
+
+    @Test
+    public void unchangedVersion_isCheckedWithoutTouchingTheFile() {
+        ProcessSafeStore app = new ProcessSafeStore(dataFile, lockFile);
+        ProcessSafeStore widget = new ProcessSafeStore(dataFile, lockFile);
+        assertTrue(app.edit().putBoolean("isLoggedIn", true).commit());
+        assertTrue(widget.getBoolean("isLoggedIn", false));
+
+        // Reloads check in with the guard; reads of an unchanged file never get that far
+        StorageThreadGuard guard = StorageThreadGuard.getInstance();
+        StorageThreadGuard.Mode previousMode = guard.getMode();
+        guard.clearViolations();
+        guard.setMode(StorageThreadGuard.Mode.LOG);
+        try {
+            for (int i = 0; i < 100; i++) {
+                assertTrue(widget.getBoolean("isLoggedIn", false));
+            }
+            assertTrue(guard.getRecentViolations().isEmpty());
+
+            guard.setMode(StorageThreadGuard.Mode.OFF);
+            assertTrue(app.edit().putBoolean("isLoggedIn", false).commit());
+            guard.setMode(StorageThreadGuard.Mode.LOG);
+
+            assertFalse(widget.getBoolean("isLoggedIn", true));
+            assertFalse(widget.getBoolean("isLoggedIn", true));
+            assertEquals(1, guard.getRecentViolations().size());
+            assertEquals("ProcessSafeStore.refresh", guard.getRecentViolations().get(0).getOperation());
+        } finally {
+            guard.setMode(previousMode);
+            guard.clearViolations();
+        }
+    }
+}
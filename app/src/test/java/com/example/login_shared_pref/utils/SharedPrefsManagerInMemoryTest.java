@@ -0,0 +1,90 @@
+package com.example.login_shared_pref.utils;
+
+import com.example.login_shared_pref.models.User;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Login logic of SharedPrefsManager on InMemoryStore, as a plain JVM test without Robolectric
+ */
+public class SharedPrefsManagerInMemoryTest {
+
+    private final Map<String, InMemoryStore> stores = new HashMap<>();
+    private final StorageMetrics metrics = StorageMetrics.getInstance();
+    private final StorageThreadGuard guard = StorageThreadGuard.getInstance();
+    private boolean metricsEnabled;
+    private StorageThreadGuard.Mode guardMode;
+    private SharedPrefsManager manager;
+
+    @Before
+    public void setUp() {
+        // Both would ask the main Looper, which the android.jar stubs cannot answer
+        metricsEnabled = metrics.isEnabled();
+        guardMode = guard.getMode();
+        metrics.setEnabled(false);
+        guard.setMode(StorageThreadGuard.Mode.OFF);
+
+        manager = new SharedPrefsManager(null, (context, name) -> {
+            InMemoryStore store = stores.get(name);
+            if (store == null) {
+                store = new InMemoryStore();
+                stores.put(name, store);
+            }
+            return store;
+        });
+    }
+
+    @After
+    public void tearDown() {
+        metrics.setEnabled(metricsEnabled);
+        guard.setMode(guardMode);
+    }
+
+    @Test
+    public void registeredUser_canLogIn_andIsFoundByName() {
+        assertTrue(manager.registerUser("Jane@Example.com ", "Jane Doe", "secret1"));
+        assertFalse(manager.registerUser("jane@example.com", "Jane Again", "secret2"));
+
+        assertTrue(manager.validateUser("jane@example.com", "secret1"));
+        assertFalse(manager.validateUser("jane@example.com", "secret2"));
+        assertFalse(manager.validateUser("john@example.com", "secret1"));
+
+        List<User> found = manager.findUsersByName("doe", 10);
+        assertEquals(1, found.size());
+        assertEquals("jane@example.com", found.get(0).getEmail());
+    }
+
+    @Test
+    public void rememberedSession_survivesLogout_withoutThePassword() {
+        manager.registerUser("jane@example.com", "Jane Doe", "secret1");
+        manager.createLoginSession("jane@example.com", "Jane Doe", "secret1", true);
+        assertTrue(manager.shouldMaintainSession());
+        assertEquals("secret1", manager.getSavedPassword());
+
+        manager.logout();
+
+        assertFalse(manager.isLoggedIn());
+        assertEquals("jane@example.com", manager.getUserEmail());
+        assertEquals("", manager.getSavedPassword());
+    }
+
+    @Test
+    public void sessionWithoutRememberMe_isNotMaintained() {
+        manager.createLoginSession("jane@example.com", "Jane Doe", "secret1", false);
+        long version = stores.get(SharedPrefsManager.SESSION_PREF_NAME).getVersion();
+
+        assertFalse(manager.shouldMaintainSession());
+
+        assertFalse(manager.isLoggedIn());
+        assertEquals("", manager.getUserEmail());
+        assertTrue(stores.get(SharedPrefsManager.SESSION_PREF_NAME).getVersion() > version);
+    }
+}
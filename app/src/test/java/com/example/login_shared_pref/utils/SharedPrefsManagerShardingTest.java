@@ -0,0 +1,210 @@
+package com.example.login_shared_pref.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.login_shared_pref.models.User;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the session/user-shard split, email normalization and the one-time
+ * migrations of older storage
+ */
+@RunWith(RobolectricTestRunner.class)
+public class SharedPrefsManagerShardingTest {
+
+    private static final int USER_SHARD_COUNT = 8;
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        SharedPrefsManager.resetInstance();
+        SessionStore.resetInstance();
+        context = ApplicationProvider.getApplicationContext();
+    }
+
+    @Test
+    public void legacyFile_isSplitIntoShardsOnFirstUse() {
+        context.getSharedPreferences("LoginAppPrefs", Context.MODE_PRIVATE).edit()
+                .putBoolean("isLoggedIn", true)
+                .putBoolean("rememberMe", true)
+                .putString("userEmail", "jane@example.com")
+                .putString("user_jane@example.com_name", "Jane Doe")
+                .putString("user_jane@example.com_password", "secret1")
+                .putLong("user_jane@example.com_version", 3L)
+                .putString("user_john_doe@example.com_name", "John Doe")
+                .putString("user_john_doe@example.com_password", "secret2")
+                .commit();
+
+        SharedPrefsManager manager = SharedPrefsManager.getInstance(context);
+
+        assertTrue(manager.isLoggedIn());
+        assertEquals("jane@example.com", manager.getUserEmail());
+        assertTrue(manager.validateUser("jane@example.com", "secret1"));
+        assertEquals(3L, manager.getUserVersion("jane@example.com"));
+        assertTrue(manager.validateUser("john_doe@example.com", "secret2"));
+        assertTrue(SessionStore.getInstance(context).shouldMaintainSession());
+        assertTrue(context.getSharedPreferences("LoginAppPrefs", Context.MODE_PRIVATE).getAll().isEmpty());
+    }
+
+    @Test
+    public void sessionShard_holdsNoUserRecords() {
+        SharedPrefsManager manager = SharedPrefsManager.getInstance(context);
+        for (int i = 0; i < 40; i++) {
+            manager.registerUser("user" + i + "@example.com", "User " + i, "password" + i);
+        }
+        manager.createLoginSession("user7@example.com", "User 7", "password7", true);
+        manager.logout();
+
+        Map<String, ?> session = ProcessSafeStore.open(context, "LoginSession").getAll();
+        for (String key : session.keySet()) {
+            assertFalse("User record in session shard: " + key, key.startsWith("user_"));
+        }
+
+        int records = 0;
+        int usedShards = 0;
+        for (int i = 0; i < USER_SHARD_COUNT; i++) {
+            SharedPreferences shard = context.getSharedPreferences("LoginUsers_" + i, Context.MODE_PRIVATE);
+            int size = shard.getAll().size();
+            records += size;
+            usedShards += size > 0 ? 1 : 0;
+            for (String key : shard.getAll().keySet()) {
+                String email = key.substring("user_".length(), key.lastIndexOf('_'));
+                assertTrue(shard.contains("user_" + email + "_name"));
+                assertTrue(shard.contains("user_" + email + "_password"));
+            }
+        }
+        // Two keys per user plus the login stamp of user7
+        assertEquals(81, records);
+        assertTrue("Users should spread over several shards", usedShards > 1);
+    }
+
+    @Test
+    public void deleteLegacyStorage_removesTheMigratedFileThroughTheEngine() {
+        context.getSharedPreferences("LoginAppPrefs", Context.MODE_PRIVATE).edit()
+                .putString("user_jane@example.com_name", "Jane Doe")
+                .putString("user_jane@example.com_password", "secret1")
+                .commit();
+        SharedPrefsManager manager = SharedPrefsManager.getInstance(context);
+        // Queued behind the migration's apply() of the emptied file, so that write cannot land later
+        assertTrue(context.getSharedPreferences("LoginAppPrefs", Context.MODE_PRIVATE).edit().commit());
+        assertTrue(StorageEngine.current().fileFor(context, "LoginAppPrefs").exists());
+
+        manager.deleteLegacyStorage();
+
+        assertFalse(StorageEngine.current().fileFor(context, "LoginAppPrefs").exists());
+        assertTrue(manager.validateUser("jane@example.com", "secret1"));
+    }
+
+    @Test
+    public void pruning_dropsOnlyKnownOrphanFields() {
+        SharedPrefsManager manager = SharedPrefsManager.getInstance(context);
+        int shard = Math.floorMod("gone@example.com".hashCode(), USER_SHARD_COUNT);
+        SharedPreferences preferences = context.getSharedPreferences("LoginUsers_" + shard, Context.MODE_PRIVATE);
+        preferences.edit()
+                .putString("user_gone@example.com_name", "Gone User")
+                .putLong("user_gone@example.com_lastLogin", 1L)
+                .putLong("user_gone@example.com_version", 5L)
+                .putString("user_gone@example.com_avatar_color", "#FF0000")
+                .commit();
+
+        assertEquals(2, manager.pruneUserShard(shard, System.currentTimeMillis(), Long.MAX_VALUE));
+
+        assertFalse(preferences.contains("user_gone@example.com_name"));
+        assertFalse(preferences.contains("user_gone@example.com_lastLogin"));
+        // Version stamps outlive the account, and keys we do not know are not ours to drop
+        assertEquals(5L, preferences.getLong("user_gone@example.com_version", 0L));
+        assertTrue(preferences.contains("user_gone@example.com_avatar_color"));
+    }
+
+    @Test
+    public void measureUserStore_countsAccountsAcrossShards() {
+        SharedPrefsManager manager = SharedPrefsManager.getInstance(context);
+        for (int i = 0; i < 20; i++) {
+            manager.registerUser("user" + i + "@example.com", "User " + i, "password" + i);
+        }
+        // A login stamp is an entry but not an account
+        manager.createLoginSession("user3@example.com", "User 3", "password3", false);
+        for (int i = 0; i < USER_SHARD_COUNT; i++) {
+            assertTrue(context.getSharedPreferences("LoginUsers_" + i, Context.MODE_PRIVATE).edit().commit());
+        }
+
+        UserStoreFootprint footprint = manager.measureUserStore();
+
+        assertEquals(20, footprint.getAccounts());
+        assertEquals(41, footprint.getEntries());
+        assertTrue(footprint.getDiskBytes() > 0);
+        assertTrue(footprint.getMapHeapBytes() > 0);
+        assertTrue(footprint.toString(), footprint.getCompactHeapBytes() < footprint.getMapHeapBytes());
+        assertEquals(20, manager.compactUserDirectory().size());
+    }
+
+    @Test
+    public void emails_areCaseInsensitive() {
+        SharedPrefsManager manager = SharedPrefsManager.getInstance(context);
+        assertTrue(manager.registerUser(" Jane@Example.com", "Jane Doe", "secret1"));
+
+        assertFalse(manager.registerUser("jane@example.com", "Other Jane", "secret2"));
+        assertTrue(manager.isUserExists("JANE@EXAMPLE.COM"));
+        assertTrue(manager.validateUser("jane@example.COM", "secret1"));
+
+        manager.createLoginSession("JANE@example.com", "Jane Doe", "secret1", false);
+        assertEquals("jane@example.com", manager.getUserEmail());
+    }
+
+    @Test
+    public void mixedCaseRecords_areMovedToNormalizedKeys() {
+        int variantShard = Math.floorMod("Jane@Example.com".hashCode(), USER_SHARD_COUNT);
+        context.getSharedPreferences("LoginUsers_" + variantShard, Context.MODE_PRIVATE).edit()
+                .putString("user_Jane@Example.com_name", "Jane Doe")
+                .putString("user_Jane@Example.com_password", "secret1")
+                .commit();
+        ProcessSafeStore.open(context, "LoginSession").edit()
+                .putInt("storageVersion", 1)
+                .putString("userEmail", "Jane@Example.com")
+                .commit();
+
+        SharedPrefsManager manager = SharedPrefsManager.getInstance(context);
+
+        assertEquals("jane@example.com", manager.getUserEmail());
+        assertTrue(manager.validateUser("jane@example.com", "secret1"));
+        assertEquals("Jane Doe", manager.getUserNameByEmail("Jane@Example.com"));
+        for (int i = 0; i < USER_SHARD_COUNT; i++) {
+            SharedPreferences shard = context.getSharedPreferences("LoginUsers_" + i, Context.MODE_PRIVATE);
+            assertFalse(shard.contains("user_Jane@Example.com_password"));
+        }
+    }
+
+    @Test
+    public void nameSearch_followsRegistrationsAndRenames() {
+        SharedPrefsManager manager = SharedPrefsManager.getInstance(context);
+        manager.registerUser("jane@example.com", "Jane Doe", "secret1");
+        manager.registerUser("john@example.com", "John Doe", "secret2");
+
+        assertEquals(2, manager.findUsersByName("doe", 10).size());
+
+        // Users registered after the index was built are found too
+        manager.registerUser("janet@example.com", "Janet Smith", "secret3");
+        List<User> matches = manager.findUsersByName("JAN", 10);
+        assertEquals(2, matches.size());
+        assertEquals("Jane Doe", matches.get(0).getName());
+        assertEquals("janet@example.com", matches.get(1).getEmail());
+
+        manager.createLoginSession("jane@example.com", "Jane Doe", "secret1", false);
+        manager.updateUserProfile("Mary Major");
+        assertEquals(1, manager.findUsersByName("doe", 10).size());
+        assertEquals("jane@example.com", manager.findUsersByName("mary", 10).get(0).getEmail());
+    }
+}
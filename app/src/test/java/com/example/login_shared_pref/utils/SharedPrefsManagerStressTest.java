@@ -0,0 +1,163 @@
+package com.example.login_shared_pref.utils;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.login_shared_pref.models.UserChange;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static org.junit.Assert.*;
+
+/**
+ * Hammers every SharedPrefsManager mutator from several threads over in-memory stores
+ * and checks that no interleaving leaves the session or the user records inconsistent
+ */
+@RunWith(RobolectricTestRunner.class)
+public class SharedPrefsManagerStressTest {
+
+    private static final int THREADS = 8;
+    private static final int USERS = 32;
+
+    private final Map<String, InMemoryStore> stores = new ConcurrentHashMap<>();
+    private SharedPrefsManager manager;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        manager = new SharedPrefsManager(context,
+                (ctx, name) -> stores.computeIfAbsent(name, n -> new InMemoryStore()));
+    }
+
+    @Test
+    public void concurrentMutators_keepSessionInvariants() throws Exception {
+        for (int i = 0; i < USERS; i++) {
+            manager.registerUser(email(i), "User " + i, "password");
+        }
+        AtomicLong syncVersion = new AtomicLong();
+
+        StressHarness.Report report = new StressHarness(THREADS, 4_000)
+                .add("createLoginSession", 6, (thread, random) -> {
+                    int user = random.nextInt(USERS);
+                    manager.createLoginSession(email(user), "User " + user, "password", random.nextBoolean());
+                })
+                .add("logout", 4, (thread, random) -> manager.logout())
+                .add("registerUser", 3, (thread, random) ->
+                        manager.registerUser("t" + thread + "_" + random.nextInt(200) + "@example.com",
+                                "Thread " + thread, "password"))
+                .add("touchSession", 3, (thread, random) -> manager.touchSession())
+                .add("savePreferences", 2, (thread, random) ->
+                        manager.savePreferences("Renamed " + thread, random.nextBoolean()))
+                .add("updateUserProfile", 2, (thread, random) -> manager.updateUserProfile("Profile " + thread))
+                .add("changePassword", 2, (thread, random) -> manager.changePassword("password", "password"))
+                .add("shouldMaintainSession", 2, (thread, random) -> manager.shouldMaintainSession())
+                .add("expireIdleSession", 1, (thread, random) ->
+                        manager.expireIdleSession(System.currentTimeMillis(), 0L))
+                .add("applyUserChanges", 2, (thread, random) -> {
+                    long version = syncVersion.incrementAndGet();
+                    int user = random.nextInt(USERS);
+                    UserChange change = random.nextBoolean()
+                            ? UserChange.deletion(email(user), version)
+                            : new UserChange(email(user), "Synced " + user, "password", version);
+                    manager.applyUserChanges(Collections.singletonList(change), version);
+                })
+                .add("resetPassword", 2, (thread, random) ->
+                        manager.resetPassword(email(random.nextInt(USERS)), "password"))
+                .add("pruneUserShard", 1, (thread, random) ->
+                        manager.pruneUserShard(random.nextInt(manager.getUserShardCount()),
+                                System.currentTimeMillis(), random.nextBoolean() ? 0L : Long.MAX_VALUE))
+                .add("clearAllData", 1, (thread, random) -> manager.clearAllData())
+                .add("checkInvariants", 5, (thread, random) -> checkSessionInvariants())
+                .run();
+
+        if (!report.failures.isEmpty()) {
+            throw new AssertionError(report.failures.size() + " failures in " + report + ", first:",
+                    report.failures.get(0));
+        }
+        checkSessionInvariants();
+        checkUserRecords();
+    }
+
+    @Test
+    public void concurrentRegistration_hasOneWinnerPerEmail() throws Exception {
+        int emails = 200;
+        AtomicIntegerArray wins = new AtomicIntegerArray(emails);
+        AtomicReferenceArray<String> winners = new AtomicReferenceArray<>(emails);
+
+        StressHarness.Report report = new StressHarness(THREADS, 1_000)
+                .add("registerUser", 1, (thread, random) -> {
+                    int user = random.nextInt(emails);
+                    String password = "password-" + thread;
+                    if (manager.registerUser(email(user), "Thread " + thread, password)) {
+                        wins.incrementAndGet(user);
+                        winners.set(user, password);
+                    }
+                })
+                .run();
+        assertTrue(report.toString(), report.failures.isEmpty());
+
+        // Equivalent to some sequential order: one success per email, and it is the one stored
+        for (int user = 0; user < emails; user++) {
+            if (winners.get(user) == null) {
+                continue;
+            }
+            assertEquals(email(user), 1, wins.get(user));
+            assertTrue(email(user), manager.validateUser(email(user), winners.get(user)));
+        }
+    }
+
+    private void checkSessionInvariants() {
+        Map<String, ?> session = stores.get(SharedPrefsManager.SESSION_PREF_NAME).getAll();
+        boolean loggedIn = Boolean.TRUE.equals(session.get("isLoggedIn"));
+        boolean rememberMe = Boolean.TRUE.equals(session.get("rememberMe"));
+
+        if (loggedIn) {
+            assertNotNull("Logged in without an email: " + session, session.get("userEmail"));
+            assertNotNull("Logged in without a name: " + session, session.get("userName"));
+        }
+        if (session.containsKey("userPassword")) {
+            assertTrue("Saved password without an active Remember Me session: " + session,
+                    loggedIn && rememberMe);
+        }
+    }
+
+    /**
+     * Login stamps and names may outlive a deleted account until the next pruning pass,
+     * so the shards are pruned (without purging anyone) before every record is checked
+     */
+    private void checkUserRecords() {
+        for (int shard = 0; shard < manager.getUserShardCount(); shard++) {
+            manager.pruneUserShard(shard, System.currentTimeMillis(), Long.MAX_VALUE);
+        }
+        for (Map.Entry<String, InMemoryStore> store : stores.entrySet()) {
+            if (!store.getKey().startsWith("LoginUsers_")) {
+                continue;
+            }
+            Map<String, ?> records = store.getValue().getAll();
+            for (String key : records.keySet()) {
+                String prefix = key.substring(0, key.lastIndexOf('_'));
+                if (key.endsWith("_version")) {
+                    // Stamps outlive their records on purpose
+                    continue;
+                }
+                assertTrue("Record without a password: " + key, records.containsKey(prefix + "_password"));
+                assertTrue("Record without a name: " + key, records.containsKey(prefix + "_name"));
+            }
+        }
+    }
+
+    private static String email(int user) {
+        return "user" + user + "@example.com";
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.login_shared_pref.utils;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.login_shared_pref.models.UserChange;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * SharedPrefsManager as the real UserDirectorySync.LocalStore: version stamps,
+ * tombstones and the cursor
+ */
+@RunWith(RobolectricTestRunner.class)
+public class SharedPrefsManagerSyncTest {
+
+    private SharedPrefsManager manager;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        Map<String, InMemoryStore> stores = new ConcurrentHashMap<>();
+        manager = new SharedPrefsManager(context,
+                (ctx, name) -> stores.computeIfAbsent(name, n -> new InMemoryStore()));
+    }
+
+    @Test
+    public void upserts_writeRecordsVersionsAndCursor() {
+        manager.applyUserChanges(Arrays.asList(
+                new UserChange("Jane@Example.com", "Jane Doe", "secret1", 3),
+                new UserChange("john@example.com", "John Roe", "secret2", 4)), 4);
+
+        assertTrue(manager.validateUser("jane@example.com", "secret1"));
+        assertEquals("John Roe", manager.getUserNameByEmail("john@example.com"));
+        assertEquals(3L, manager.getUserVersion("jane@example.com"));
+        assertEquals(4L, manager.getUserVersion("JOHN@example.com"));
+        assertEquals(4L, manager.getSyncCursor());
+        assertEquals(1, manager.findUsersByName("jane", 10).size());
+    }
+
+    @Test
+    public void tombstones_removeTheRecordButKeepItsVersion() {
+        manager.applyUserChanges(Collections.singletonList(
+                new UserChange("jane@example.com", "Jane Doe", "secret1", 1)), 1);
+        manager.applyUserChanges(Collections.singletonList(
+                UserChange.deletion("jane@example.com", 2)), 2);
+
+        assertFalse(manager.isUserExists("jane@example.com"));
+        assertFalse(manager.validateUser("jane@example.com", "secret1"));
+        assertTrue(manager.findUsersByName("jane", 10).isEmpty());
+        // The stamp stays so an older upsert replayed later can be recognised as stale
+        assertEquals(2L, manager.getUserVersion("jane@example.com"));
+        assertEquals(2L, manager.getSyncCursor());
+    }
+
+    @Test
+    public void emptyPage_onlyAdvancesTheCursor() {
+        manager.applyUserChanges(Collections.emptyList(), 7);
+
+        assertEquals(7L, manager.getSyncCursor());
+        assertEquals(0L, manager.getUserVersion("jane@example.com"));
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.login_shared_pref.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Looper;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.ParameterizedRobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * The SharedPreferences contract every store SharedPrefsManager can run on must keep
+ *
+ * Each case runs against every StorageEngine plus the ProcessSafeStore used for the
+ * session, on fresh file names, and finishes with the login logic itself on that
+ * store. The latency budgets are loose; they catch an engine that regresses by an
+ * order of magnitude, not small drifts.
+ */
+@RunWith(ParameterizedRobolectricTestRunner.class)
+@LooperMode(LooperMode.Mode.PAUSED)
+public class StorageEngineConformanceTest {
+
+    private static final int LATENCY_SAMPLES = 1_000;
+    private static final long READ_P99_BUDGET_NANOS = 2_000_000L;
+    private static final long APPLY_P99_BUDGET_NANOS = 10_000_000L;
+
+    @ParameterizedRobolectricTestRunner.Parameters(name = "{0}")
+    public static Collection<Object[]> engines() {
+        return Arrays.asList(
+                new Object[]{"SHARED_PREFERENCES", (SharedPrefsManager.StoreFactory) StorageEngine.SHARED_PREFERENCES::open},
+                new Object[]{"ATOMIC_FILE", (SharedPrefsManager.StoreFactory) StorageEngine.ATOMIC_FILE::open},
+                new Object[]{"IN_MEMORY", (SharedPrefsManager.StoreFactory) StorageEngine.IN_MEMORY::open},
+                new Object[]{"PROCESS_SAFE", (SharedPrefsManager.StoreFactory) ProcessSafeStore::open});
+    }
+
+    private final String engineName;
+    private final SharedPrefsManager.StoreFactory engine;
+    private final String runPrefix = "conformance_" + UUID.randomUUID().toString().replace("-", "") + "_";
+    private Context context;
+
+    public StorageEngineConformanceTest(String engineName, SharedPrefsManager.StoreFactory engine) {
+        this.engineName = engineName;
+        this.engine = engine;
+    }
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+    }
+
+    /**
+     * Engines cache stores by name for the life of the process, so every test gets its own names
+     */
+    private SharedPreferences open(String name) {
+        return engine.open(context, runPrefix + name);
+    }
+
+    @Test
+    public void typedValues_roundTrip() {
+        SharedPreferences store = open("types");
+        Set<String> set = new HashSet<>(Arrays.asList("a", "b"));
+        assertTrue(store.edit()
+                .putString("string", "value")
+                .putInt("int", 42)
+                .putLong("long", Long.MAX_VALUE)
+                .putFloat("float", 1.5f)
+                .putBoolean("boolean", true)
+                .putStringSet("set", set)
+                .commit());
+
+        assertEquals("value", store.getString("string", null));
+        assertEquals(42, store.getInt("int", 0));
+        assertEquals(Long.MAX_VALUE, store.getLong("long", 0L));
+        assertEquals(1.5f, store.getFloat("float", 0f), 0f);
+        assertTrue(store.getBoolean("boolean", false));
+        assertEquals(set, store.getStringSet("set", null));
+        assertTrue(store.contains("int"));
+        assertEquals(6, store.getAll().size());
+    }
+
+    @Test
+    public void missingKeys_returnDefaults() {
+        SharedPreferences store = open("defaults");
+
+        assertEquals("fallback", store.getString("missing", "fallback"));
+        assertNull(store.getStringSet("missing", null));
+        assertEquals(-1, store.getInt("missing", -1));
+        assertEquals(-1L, store.getLong("missing", -1L));
+        assertFalse(store.getBoolean("missing", false));
+        assertFalse(store.contains("missing"));
+        assertTrue(store.getAll().isEmpty());
+    }
+
+    @Test
+    public void removeAndNull_deleteKeys_andClearRunsFirst() {
+        SharedPreferences store = open("remove");
+        store.edit().putString("a", "1").putString("b", "2").putString("c", "3").commit();
+
+        store.edit().remove("a").putString("b", null).commit();
+        assertEquals(Collections.singletonMap("c", "3"), store.getAll());
+
+        // clear() empties the store before this editor's puts, whatever the call order
+        store.edit().putString("d", "4").clear().commit();
+        assertEquals(Collections.singletonMap("d", "4"), store.getAll());
+    }
+
+    @Test
+    public void getAll_returnsACopy() {
+        SharedPreferences store = open("copy");
+        store.edit().putString("a", "1").commit();
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> all = (Map<String, Object>) store.getAll();
+        all.put("b", "2");
+        all.remove("a");
+
+        assertEquals("1", store.getString("a", null));
+        assertFalse(store.contains("b"));
+    }
+
+    @Test
+    public void apply_isVisibleToReadsAtOnce() {
+        SharedPreferences store = open("apply");
+        for (int i = 0; i < 50; i++) {
+            store.edit().putInt("counter", i).apply();
+            assertEquals(i, store.getInt("counter", -1));
+        }
+    }
+
+    @Test
+    public void listeners_hearChangedKeysOnTheMainThread() {
+        SharedPreferences store = open("listeners");
+        store.edit().putString("same", "x").commit();
+        List<String> heard = new CopyOnWriteArrayList<>();
+        List<Boolean> onMainThread = new CopyOnWriteArrayList<>();
+        SharedPreferences.OnSharedPreferenceChangeListener listener = (prefs, key) -> {
+            heard.add(key);
+            onMainThread.add(Looper.myLooper() == Looper.getMainLooper());
+        };
+        store.registerOnSharedPreferenceChangeListener(listener);
+
+        store.edit().putString("a", "1").putInt("b", 2).putString("same", "x").commit();
+        shadowOf(Looper.getMainLooper()).idle();
+        assertEquals(new HashSet<>(Arrays.asList("a", "b")), new HashSet<>(heard));
+        assertFalse(onMainThread.contains(false));
+
+        store.unregisterOnSharedPreferenceChangeListener(listener);
+        store.edit().putString("a", "2").commit();
+        shadowOf(Looper.getMainLooper()).idle();
+        assertEquals(2, heard.size());
+    }
+
+    @Test
+    public void concurrentEditors_loseNoKeys() throws InterruptedException {
+        SharedPreferences store = open("concurrent");
+        int threads = 4;
+        int keysPerThread = 200;
+        Thread[] writers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            writers[t] = new Thread(() -> {
+                for (int i = 0; i < keysPerThread; i++) {
+                    store.edit().putInt("t" + thread + "_" + i, i).apply();
+                }
+            });
+            writers[t].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        Map<String, ?> all = store.getAll();
+        assertEquals(threads * keysPerThread, all.size());
+        assertEquals(keysPerThread - 1, all.get("t3_" + (keysPerThread - 1)));
+    }
+
+    @Test
+    public void readsAndApplies_stayWithinLatencyBudget() {
+        SharedPreferences store = open("latency");
+        Map<String, String> seed = new HashMap<>();
+        for (int i = 0; i < LATENCY_SAMPLES; i++) {
+            seed.put("user_user" + i + "@example.com_name", "User " + i);
+        }
+        SharedPreferences.Editor editor = store.edit();
+        for (Map.Entry<String, String> entry : seed.entrySet()) {
+            editor.putString(entry.getKey(), entry.getValue());
+        }
+        assertTrue(editor.commit());
+
+        LatencyHistogram reads = new LatencyHistogram();
+        LatencyHistogram applies = new LatencyHistogram();
+        // First pass warms up the JIT and any lazy load; only the second is recorded
+        for (int pass = 0; pass < 2; pass++) {
+            reads.reset();
+            applies.reset();
+            for (int i = 0; i < LATENCY_SAMPLES; i++) {
+                String key = "user_user" + i + "@example.com_name";
+                long start = System.nanoTime();
+                String value = store.getString(key, null);
+                reads.record(System.nanoTime() - start);
+                assertEquals(seed.get(key), value);
+
+                start = System.nanoTime();
+                store.edit().putLong("lastActive", i).apply();
+                applies.record(System.nanoTime() - start);
+            }
+        }
+
+        long readP99 = reads.getValueAtPercentile(99);
+        long applyP99 = applies.getValueAtPercentile(99);
+        assertTrue(engineName + " read p99 " + readP99 + " ns", readP99 <= READ_P99_BUDGET_NANOS);
+        assertTrue(engineName + " apply p99 " + applyP99 + " ns", applyP99 <= APPLY_P99_BUDGET_NANOS);
+    }
+
+    @Test
+    public void loginLogic_runsOnTheEngine() {
+        SharedPrefsManager manager = new SharedPrefsManager(context, (ctx, name) -> open(name));
+
+        assertTrue(manager.registerUser("Jane@Example.com", "Jane Doe", "secret1"));
+        assertFalse(manager.registerUser("jane@example.com", "Jane Again", "secret2"));
+        assertTrue(manager.validateUser("jane@example.com", "secret1"));
+        assertFalse(manager.validateUser("jane@example.com", "wrong"));
+
+        manager.createLoginSession("jane@example.com", "Jane Doe", "secret1", true);
+        assertTrue(manager.isLoggedIn());
+        assertEquals("jane@example.com", manager.getUserEmail());
+        assertTrue(manager.shouldMaintainSession());
+
+        manager.logout();
+        assertFalse(manager.isLoggedIn());
+        // Remember Me keeps the email for autofill but not the password
+        assertEquals("jane@example.com", manager.getUserEmail());
+        assertEquals("", manager.getSavedPassword());
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.login_shared_pref.utils;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that SharedPrefsManager operations are counted, timed and attributed to
+ * the main thread when instrumentation is on, and cost nothing when it is off
+ */
+@RunWith(RobolectricTestRunner.class)
+public class StorageMetricsTest {
+
+    private StorageMetrics metrics;
+    private SharedPrefsManager prefsManager;
+
+    @Before
+    public void setUp() {
+        SharedPrefsManager.resetInstance();
+        SessionStore.resetInstance();
+        Context context = ApplicationProvider.getApplicationContext();
+        prefsManager = SharedPrefsManager.getInstance(context);
+        prefsManager.registerUser("jane@example.com", "Jane Doe", "secret1");
+
+        metrics = StorageMetrics.getInstance();
+        metrics.setEnabled(true);
+        metrics.reset();
+    }
+
+    @After
+    public void tearDown() {
+        metrics.reset();
+    }
+
+    @Test
+    public void mainThreadCalls_areCountedTimedAndFlagged() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(prefsManager.validateUser("jane@example.com", "secret1"));
+        }
+
+        StorageMetrics.Operation validate = StorageMetrics.Operation.VALIDATE_USER;
+        assertEquals(10, metrics.getCallCount(validate));
+        assertEquals(10, metrics.getMainThreadCalls(validate));
+        assertTrue(metrics.getHistogram(validate).getMaxNanos() > 0);
+        assertTrue(metrics.dump().contains("validate_user"));
+    }
+
+    @Test
+    public void backgroundCalls_areNotFlagged() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.submit(() -> prefsManager.isUserExists("jane@example.com")).get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertEquals(1, metrics.getCallCount(StorageMetrics.Operation.IS_USER_EXISTS));
+        assertEquals(0, metrics.getMainThreadCalls(StorageMetrics.Operation.IS_USER_EXISTS));
+    }
+
+    @Test
+    public void nestedOperations_areRecordedOnlyAsPartOfTheirCaller() {
+        assertTrue(prefsManager.registerUser("john@example.com", "John Roe", "secret2"));
+
+        // registerUser checks isUserExists internally
+        assertEquals(1, metrics.getCallCount(StorageMetrics.Operation.REGISTER_USER));
+        assertEquals(0, metrics.getCallCount(StorageMetrics.Operation.IS_USER_EXISTS));
+
+        // The depth is unwound, so the next top-level call counts
+        assertTrue(prefsManager.isUserExists("john@example.com"));
+        assertEquals(1, metrics.getCallCount(StorageMetrics.Operation.IS_USER_EXISTS));
+    }
+
+    @Test
+    public void rejectedCall_doesNotLeaveTheThreadNested() {
+        StorageThreadGuard guard = StorageThreadGuard.getInstance();
+        StorageThreadGuard.Mode previousMode = guard.getMode();
+        guard.setMode(StorageThreadGuard.Mode.FAIL_FAST);
+        try {
+            prefsManager.isLoggedIn();
+            fail("Main-thread storage call should throw in FAIL_FAST mode");
+        } catch (StorageThreadGuard.StorageOnMainThreadException expected) {
+            // begin() threw, so its end() never ran
+        } finally {
+            guard.setMode(previousMode);
+            guard.clearViolations();
+        }
+
+        prefsManager.isLoggedIn();
+        assertEquals(1, metrics.getCallCount(StorageMetrics.Operation.IS_LOGGED_IN));
+    }
+
+    @Test
+    public void disabled_recordsNothing() {
+        metrics.setEnabled(false);
+        try {
+            prefsManager.isLoggedIn();
+        } finally {
+            metrics.setEnabled(true);
+        }
+
+        assertEquals(0, metrics.getCallCount(StorageMetrics.Operation.IS_LOGGED_IN));
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.login_shared_pref.utils;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Main-thread storage detection in LOG and FAIL_FAST modes
+ */
+@RunWith(RobolectricTestRunner.class)
+public class StorageThreadGuardTest {
+
+    private StorageThreadGuard guard;
+    private StorageThreadGuard.Mode previousMode;
+    private SharedPrefsManager prefsManager;
+
+    @Before
+    public void setUp() {
+        SharedPrefsManager.resetInstance();
+        SessionStore.resetInstance();
+        Context context = ApplicationProvider.getApplicationContext();
+
+        guard = StorageThreadGuard.getInstance();
+        previousMode = guard.getMode();
+        guard.setMode(StorageThreadGuard.Mode.OFF);
+        prefsManager = SharedPrefsManager.getInstance(context);
+        guard.clearViolations();
+    }
+
+    @After
+    public void tearDown() {
+        guard.setMode(previousMode);
+        guard.clearViolations();
+    }
+
+    @Test
+    public void logMode_recordsOperationCallerAndStack() {
+        guard.setMode(StorageThreadGuard.Mode.LOG);
+
+        prefsManager.isUserExists("jane@example.com");
+
+        List<StorageThreadGuard.Violation> violations = guard.getRecentViolations();
+        assertEquals(1, violations.size());
+        StorageThreadGuard.Violation violation = violations.get(0);
+        assertEquals("IS_USER_EXISTS", violation.getOperation());
+        assertEquals("StorageThreadGuardTest.logMode_recordsOperationCallerAndStack", violation.getCaller());
+        assertTrue(violation.getStackSample().length > 0);
+    }
+
+    @Test
+    public void logMode_capturesOnlySampledCalls() {
+        guard.setMode(StorageThreadGuard.Mode.LOG);
+
+        for (int i = 0; i < StorageThreadGuard.SAMPLE_INTERVAL * 2; i++) {
+            prefsManager.isUserExists("jane@example.com");
+        }
+
+        // The first call and one in every SAMPLE_INTERVAL after it
+        assertEquals(2, guard.getRecentViolations().size());
+
+        guard.clearViolations();
+        prefsManager.isUserExists("jane@example.com");
+        assertEquals(1, guard.getRecentViolations().size());
+    }
+
+    @Test
+    public void failFastMode_throwsBeforeTouchingStorage() {
+        guard.setMode(StorageThreadGuard.Mode.FAIL_FAST);
+
+        try {
+            prefsManager.registerUser("jane@example.com", "Jane Doe", "secret1");
+            fail("Main-thread storage call should throw in FAIL_FAST mode");
+        } catch (StorageThreadGuard.StorageOnMainThreadException e) {
+            assertEquals("REGISTER_USER", e.getViolation().getOperation());
+        }
+
+        guard.setMode(StorageThreadGuard.Mode.OFF);
+        assertFalse(prefsManager.isUserExists("jane@example.com"));
+    }
+
+    @Test
+    public void backgroundCalls_passInFailFastMode() throws Exception {
+        guard.setMode(StorageThreadGuard.Mode.FAIL_FAST);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        boolean registered = executor.submit(
+                () -> prefsManager.registerUser("jane@example.com", "Jane Doe", "secret1"))
+                .get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertTrue(registered);
+        assertTrue(guard.getRecentViolations().isEmpty());
+    }
+}
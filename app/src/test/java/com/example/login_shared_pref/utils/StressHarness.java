@@ -0,0 +1,154 @@
+package com.example.login_shared_pref.utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Runs weighted random actions on several threads at once and reports throughput,
+ * lock contention and any failures
+ *
+ * All threads start together from a latch. Contention is the monitor blocking the
+ * JVM records for each worker thread (ThreadMXBean), so it covers every lock the
+ * actions take, not just ones the harness knows about.
+ */
+final class StressHarness {
+
+    interface Action {
+        void run(int thread, Random random) throws Exception;
+    }
+
+    private final int threads;
+    private final int operationsPerThread;
+    private final List<String> names = new ArrayList<>();
+    private final List<Action> actions = new ArrayList<>();
+    private final List<Integer> cumulativeWeights = new ArrayList<>();
+    private int totalWeight;
+
+    StressHarness(int threads, int operationsPerThread) {
+        this.threads = threads;
+        this.operationsPerThread = operationsPerThread;
+    }
+
+    StressHarness add(String name, int weight, Action action) {
+        totalWeight += weight;
+        names.add(name);
+        actions.add(action);
+        cumulativeWeights.add(totalWeight);
+        return this;
+    }
+
+    Report run() throws InterruptedException {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean.isThreadContentionMonitoringSupported()) {
+            threadBean.setThreadContentionMonitoringEnabled(true);
+        }
+
+        AtomicLongArray counts = new AtomicLongArray(actions.size());
+        AtomicLong blockedCount = new AtomicLong();
+        AtomicLong blockedMillis = new AtomicLong();
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            new Thread(() -> {
+                Random random = new Random(thread);
+                try {
+                    start.await();
+                    for (int i = 0; i < operationsPerThread; i++) {
+                        int action = pick(random.nextInt(totalWeight));
+                        actions.get(action).run(thread, random);
+                        counts.incrementAndGet(action);
+                    }
+                } catch (Throwable failure) {
+                    failures.add(failure);
+                } finally {
+                    ThreadInfo info = threadBean.getThreadInfo(Thread.currentThread().getId());
+                    if (info != null) {
+                        blockedCount.addAndGet(info.getBlockedCount());
+                        blockedMillis.addAndGet(Math.max(0, info.getBlockedTime()));
+                    }
+                    done.countDown();
+                }
+            }, "stress-" + t).start();
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        if (!done.await(2, TimeUnit.MINUTES)) {
+            failures.add(new AssertionError("Stress run did not finish in time"));
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        long[] perAction = new long[actions.size()];
+        for (int i = 0; i < perAction.length; i++) {
+            perAction[i] = counts.get(i);
+        }
+        return new Report(names, perAction, elapsedNanos, blockedCount.get(), blockedMillis.get(),
+                new ArrayList<>(failures));
+    }
+
+    private int pick(int roll) {
+        for (int i = 0; i < cumulativeWeights.size(); i++) {
+            if (roll < cumulativeWeights.get(i)) {
+                return i;
+            }
+        }
+        return cumulativeWeights.size() - 1;
+    }
+
+    static final class Report {
+        final List<String> names;
+        final long[] counts;
+        final long elapsedNanos;
+        final long blockedCount;
+        final long blockedMillis;
+        final List<Throwable> failures;
+
+        Report(List<String> names, long[] counts, long elapsedNanos, long blockedCount,
+               long blockedMillis, List<Throwable> failures) {
+            this.names = names;
+            this.counts = counts;
+            this.elapsedNanos = elapsedNanos;
+            this.blockedCount = blockedCount;
+            this.blockedMillis = blockedMillis;
+            this.failures = failures;
+        }
+
+        long totalOperations() {
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            return total;
+        }
+
+        double operationsPerSecond() {
+            return totalOperations() * 1e9 / Math.max(1, elapsedNanos);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            builder.append(String.format(Locale.US,
+                    "%d ops in %.1f ms (%.0f ops/s), blocked %d times for %d ms, %d failures%n",
+                    totalOperations(), elapsedNanos / 1e6, operationsPerSecond(),
+                    blockedCount, blockedMillis, failures.size()));
+            for (int i = 0; i < counts.length; i++) {
+                builder.append(String.format(Locale.US, "  %-22s %8d%n", names.get(i), counts[i]));
+            }
+            return builder.toString();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.login_shared_pref.utils;
+
+import com.example.login_shared_pref.models.UserChange;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Delta sync tests against a local fake server with synthetic datasets
+ */
+public class UserDirectorySyncTest {
+
+    private static final int LARGE_DIRECTORY = 50_000;
+    private static final int PAGE_SIZE = 500;
+
+    private FakeSyncServer server;
+    private InMemoryDirectoryStore store;
+    private UserDirectorySync sync;
+
+    @Before
+    public void setUp() {
+        server = new FakeSyncServer();
+        store = new InMemoryDirectoryStore();
+        sync = new UserDirectorySync(server, store, PAGE_SIZE);
+    }
+
+    @Test
+    public void initialSync_appliesEachPageAsOneWrite() throws IOException {
+        server.seed(LARGE_DIRECTORY);
+
+        UserDirectorySync.SyncResult result = sync.syncNow();
+
+        assertEquals(LARGE_DIRECTORY, result.getChangesApplied());
+        assertEquals(LARGE_DIRECTORY / PAGE_SIZE, result.getPagesFetched());
+        assertEquals(LARGE_DIRECTORY / PAGE_SIZE, store.writeCount);
+        assertEquals(LARGE_DIRECTORY, store.users.size());
+        assertEquals(LARGE_DIRECTORY, store.cursor);
+    }
+
+    @Test
+    public void incrementalSync_fetchesOnlyChangesSinceCursor() throws IOException {
+        server.seed(LARGE_DIRECTORY);
+        sync.syncNow();
+        int writesAfterInitial = store.writeCount;
+
+        for (int i = 0; i < 120; i++) {
+            server.upsert(FakeSyncServer.email(i), "Renamed " + i, "newpass" + i);
+        }
+
+        UserDirectorySync.SyncResult result = sync.syncNow();
+
+        assertEquals(120, result.getChangesApplied());
+        assertEquals(1, result.getPagesFetched());
+        assertEquals(writesAfterInitial + 1, store.writeCount);
+        assertEquals("Renamed 7", store.users.get(FakeSyncServer.email(7)).getName());
+        assertEquals(2L, store.getUserVersion(FakeSyncServer.email(7)));
+    }
+
+    @Test
+    public void syncWithNoChanges_doesNotWrite() throws IOException {
+        server.seed(1_000);
+        sync.syncNow();
+        int writes = store.writeCount;
+
+        UserDirectorySync.SyncResult result = sync.syncNow();
+
+        assertEquals(0, result.getChangesApplied());
+        assertEquals(writes, store.writeCount);
+    }
+
+    @Test
+    public void deletion_removesRecordAndKeepsVersion() throws IOException {
+        server.seed(10);
+        server.delete(FakeSyncServer.email(3));
+
+        sync.syncNow();
+
+        assertNull(store.users.get(FakeSyncServer.email(3)));
+        assertEquals(2L, store.getUserVersion(FakeSyncServer.email(3)));
+        assertEquals(9, store.users.size());
+    }
+
+    @Test
+    public void staleChange_isSkipped() throws IOException {
+        server.seed(1);
+        server.upsert(FakeSyncServer.email(0), "Current", "current");
+        server.appendRaw(new UserChange(FakeSyncServer.email(0), "Stale", "stale", 1));
+
+        UserDirectorySync.SyncResult result = sync.syncNow();
+
+        assertEquals(1, result.getChangesSkipped());
+        assertEquals("Current", store.users.get(FakeSyncServer.email(0)).getName());
+    }
+
+    @Test
+    public void caseVariantsInOnePage_areOneRecord() throws IOException {
+        server.appendRaw(new UserChange("Jane@Example.com", "Newer", "newer", 2));
+        server.appendRaw(new UserChange("jane@example.com", "Older", "older", 1));
+
+        UserDirectorySync.SyncResult result = sync.syncNow();
+
+        assertEquals(1, result.getChangesSkipped());
+        assertEquals("Newer", store.users.get("jane@example.com").getName());
+        assertEquals(2L, store.getUserVersion("JANE@example.com"));
+    }
+
+    @Test
+    public void pageReappliedAfterLostCursor_changesNothing() throws IOException {
+        server.seed(2 * PAGE_SIZE);
+        sync.syncNow();
+        int writes = store.writeCount;
+
+        // The records landed but the cursor write did not
+        store.cursor = 0;
+        UserDirectorySync.SyncResult result = sync.syncNow();
+
+        assertEquals(0, result.getChangesApplied());
+        assertEquals(2 * PAGE_SIZE, result.getChangesSkipped());
+        assertEquals(2 * PAGE_SIZE, store.users.size());
+        assertEquals(2 * PAGE_SIZE, store.cursor);
+        assertEquals(writes + 2, store.writeCount);
+    }
+
+    @Test
+    public void interruptedSync_resumesFromPersistedCursor() throws IOException {
+        server.seed(5_000);
+        server.failOnFetch = 4;
+
+        try {
+            sync.syncNow();
+            fail("Expected simulated failure");
+        } catch (IOException expected) {
+            // Four pages were applied before the failure
+        }
+        assertEquals(4 * PAGE_SIZE, store.cursor);
+
+        UserDirectorySync.SyncResult result = sync.syncNow();
+
+        assertEquals(5_000 - 4 * PAGE_SIZE, result.getChangesApplied());
+        assertEquals(5_000, store.users.size());
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.login_shared_pref.utils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Prefix matching and incremental updates of UserNameIndex
+ */
+public class UserNameIndexTest {
+
+    @Test
+    public void search_matchesNameAndWordPrefixes() {
+        UserNameIndex index = new UserNameIndex();
+        index.put("jane@example.com", "Jane Doe");
+        index.put("john@example.com", "John  Doe");
+        index.put("zoe@example.com", "Zo\u00eb Saldana");
+
+        assertEquals(Arrays.asList("jane@example.com", "john@example.com"), index.search("DOE", 10));
+        assertEquals(Collections.singletonList("jane@example.com"), index.search("jane d", 10));
+        assertEquals(Collections.singletonList("zoe@example.com"), index.search("zoe", 10));
+        assertEquals(Collections.singletonList("jane@example.com"), index.search("d", 1));
+        assertTrue(index.search("  ", 10).isEmpty());
+    }
+
+    @Test
+    public void put_replacesThePreviousName() {
+        UserNameIndex index = new UserNameIndex();
+        index.put("jane@example.com", "Jane Doe");
+        index.put("jane@example.com", "Mary Major");
+
+        assertEquals(1, index.size());
+        assertTrue(index.search("doe", 10).isEmpty());
+        assertEquals(Collections.singletonList("jane@example.com"), index.search("major", 10));
+
+        index.remove("jane@example.com");
+        assertEquals(0, index.size());
+        assertTrue(index.search("m", 10).isEmpty());
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.login_shared_pref.utils;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Batching of UserPreferencesModel edits into background session writes
+ */
+@RunWith(RobolectricTestRunner.class)
+public class UserPreferencesModelTest {
+
+    private final CountingStore session = new CountingStore();
+    private final ManualScheduler writer = new ManualScheduler();
+    private SharedPrefsManager manager;
+    private UserPreferencesModel model;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        manager = new SharedPrefsManager(context, (ctx, name) ->
+                SharedPrefsManager.SESSION_PREF_NAME.equals(name) ? session : new InMemoryStore());
+        manager.createLoginSession("jane@example.com", "Jane Doe", "secret1", true);
+        model = new UserPreferencesModel(manager, writer);
+        session.edits.set(0);
+    }
+
+    @Test
+    public void editsWithinTheWindow_areWrittenOnce() {
+        model.setName("Jane A");
+        model.setName("Jane B");
+        model.setRememberMe(false);
+
+        writer.advanceBy(UserPreferencesModel.WRITE_DELAY_MS - 1);
+        assertEquals(0, session.edits.get());
+        writer.advanceBy(1);
+
+        assertEquals(1, session.edits.get());
+        assertEquals("Jane B", manager.getUserName());
+        assertEquals("Jane B", manager.getUserNameByEmail("jane@example.com"));
+        assertFalse(manager.isRememberMeEnabled());
+
+        writer.advanceBy(UserPreferencesModel.WRITE_DELAY_MS * 10);
+        assertEquals(1, session.edits.get());
+    }
+
+    @Test
+    public void flush_handsTheBatchToTheWriterWithoutWaiting() {
+        model.setName("Jane C");
+        model.flush();
+
+        // Nothing is written on the calling thread
+        assertEquals(0, session.edits.get());
+        writer.runDue();
+        assertEquals(1, session.edits.get());
+        assertEquals("Jane C", manager.getUserName());
+
+        // Nothing is left for the scheduled write
+        writer.advanceBy(UserPreferencesModel.WRITE_DELAY_MS);
+        assertEquals(1, session.edits.get());
+    }
+
+    @Test
+    public void flushThen_runsAfterTheBatchIsWritten() {
+        model.setName("Jane D");
+        List<String> namesSeen = new ArrayList<>();
+        model.flushThen(() -> namesSeen.add(manager.getUserName()));
+
+        assertTrue(namesSeen.isEmpty());
+        writer.runDue();
+        assertEquals(Collections.singletonList("Jane D"), namesSeen);
+    }
+
+    /**
+     * Session store that counts editors, i.e. batched writes
+     */
+    private static class CountingStore extends InMemoryStore {
+        final AtomicInteger edits = new AtomicInteger();
+
+        @Override
+        public Editor edit() {
+            edits.incrementAndGet();
+            return super.edit();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.login_shared_pref.utils;
+
+import android.app.Activity;
+import android.content.MutableContextWrapper;
+import android.os.Looper;
+import android.view.View;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.login_shared_pref.R;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Idle-time inflation and hand-over of ViewPrewarmer
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(LooperMode.Mode.PAUSED)
+public class ViewPrewarmerTest {
+
+    private ViewPrewarmer prewarmer;
+    private Activity activity;
+
+    @Before
+    public void setUp() {
+        ViewPrewarmer.resetInstance();
+        prewarmer = ViewPrewarmer.getInstance(ApplicationProvider.getApplicationContext());
+        activity = Robolectric.buildActivity(Activity.class).create().get();
+    }
+
+    @Test
+    public void take_returnsNullUntilTheMainThreadIsIdle() {
+        prewarmer.prewarmWhenIdle(R.layout.activity_login);
+
+        assertNull(prewarmer.take(activity, R.layout.activity_login));
+    }
+
+    @Test
+    public void take_handsOverTheHierarchyOnce_reboundToTheActivity() {
+        prewarmer.prewarmWhenIdle(R.layout.activity_login);
+        shadowOf(Looper.getMainLooper()).idle();
+
+        View view = prewarmer.take(activity, R.layout.activity_login);
+        assertNotNull(view);
+        assertNotNull(view.findViewById(R.id.btn_login));
+        assertSame(activity, ((MutableContextWrapper) view.getContext()).getBaseContext());
+
+        assertNull(prewarmer.take(activity, R.layout.activity_login));
+    }
+
+    @Test
+    public void take_ignoresOtherLayouts() {
+        prewarmer.prewarmWhenIdle(R.layout.activity_login);
+        shadowOf(Looper.getMainLooper()).idle();
+
+        assertNull(prewarmer.take(activity, R.layout.activity_register));
+        assertNotNull(prewarmer.take(activity, R.layout.activity_login));
+    }
+}
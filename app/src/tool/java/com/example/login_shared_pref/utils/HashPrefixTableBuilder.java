@@ -0,0 +1,135 @@
+package com.example.login_shared_pref.utils;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Collects SHA-1 prefixes and writes them in the HashPrefixTable layout
+ *
+ * Build-time only: this lives in the tool source set, which the buildBreachedTable task
+ * compiles and runs and the unit tests share, and is never packaged into the app.
+ */
+public final class HashPrefixTableBuilder {
+    private final int blockSize;
+    private long[] prefixes = new long[1024];
+    private int size;
+
+    public HashPrefixTableBuilder() {
+        this(HashPrefixTable.DEFAULT_BLOCK_SIZE);
+    }
+
+    public HashPrefixTableBuilder(int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        this.blockSize = blockSize;
+    }
+
+    public HashPrefixTableBuilder addPassword(String password) {
+        return addPrefix(HashPrefixTable.prefixOf(password));
+    }
+
+    /**
+     * Add a hex SHA-1, optionally followed by ":count" as in the Pwned Passwords files
+     */
+    public HashPrefixTableBuilder addHash(String hexSha1) {
+        return addPrefix(HashPrefixTable.prefixOfHash(hexSha1.trim()));
+    }
+
+    public HashPrefixTableBuilder addPrefix(long prefix) {
+        if (size == prefixes.length) {
+            prefixes = Arrays.copyOf(prefixes, size * 2);
+        }
+        prefixes[size++] = prefix;
+        return this;
+    }
+
+    /**
+     * Sort, drop duplicates and write the table
+     */
+    public void writeTo(OutputStream output) throws IOException {
+        long[] sorted = Arrays.copyOf(prefixes, size);
+        // Sort unsigned by flipping the sign bit around a signed sort
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] += Long.MIN_VALUE;
+        }
+        Arrays.sort(sorted);
+        int unique = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (unique == 0 || sorted[i] != sorted[unique - 1]) {
+                sorted[unique++] = sorted[i];
+            }
+        }
+        for (int i = 0; i < unique; i++) {
+            sorted[i] -= Long.MIN_VALUE;
+        }
+
+        int blocks = (unique + blockSize - 1) / blockSize;
+        ByteArrayOutputStream deltas = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(output);
+        out.writeInt(HashPrefixTable.MAGIC);
+        out.writeInt(unique);
+        out.writeInt(blockSize);
+        out.writeInt(blocks);
+        for (int block = 0; block < blocks; block++) {
+            int first = block * blockSize;
+            out.writeLong(sorted[first]);
+            out.writeInt(deltas.size());
+            int last = Math.min(unique, first + blockSize);
+            for (int i = first + 1; i < last; i++) {
+                long gap = sorted[i] - sorted[i - 1];
+                while ((gap & ~0x7FL) != 0) {
+                    deltas.write((int) ((gap & 0x7F) | 0x80));
+                    gap >>>= 7;
+                }
+                deltas.write((int) gap);
+            }
+        }
+        deltas.writeTo(out);
+        out.flush();
+    }
+
+    /**
+     * Command-line tool: HashPrefixTableBuilder [--hashes] input.txt output.bin
+     *
+     * The input has one password per line, or with --hashes one hex SHA-1 per line.
+     */
+    public static void main(String[] args) throws IOException {
+        boolean hashes = args.length == 3 && "--hashes".equals(args[0]);
+        if (args.length != (hashes ? 3 : 2)) {
+            System.err.println("Usage: HashPrefixTableBuilder [--hashes] input.txt output.bin");
+            System.exit(2);
+        }
+        String input = args[args.length - 2];
+        String output = args[args.length - 1];
+
+        HashPrefixTableBuilder builder = new HashPrefixTableBuilder();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(input), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (hashes) {
+                    builder.addHash(line);
+                } else {
+                    builder.addPassword(line);
+                }
+            }
+        }
+        try (OutputStream out = new FileOutputStream(output)) {
+            builder.writeTo(out);
+        }
+        System.out.println(String.format(Locale.US, "Read %d entries into %s", builder.size, output));
+    }
+}